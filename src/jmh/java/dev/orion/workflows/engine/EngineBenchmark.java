@@ -0,0 +1,136 @@
+package dev.orion.workflows.engine;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.orion.workflows.stub.StubService;
+
+/**
+ * Measures whole executions, from the start request to their final status
+ * event, on a running instance of the application whose services are a
+ * local {@link StubService}. The instance is given by the workflows.url
+ * system property, http://localhost:8080 by default; it must be able to
+ * reach the stub on localhost. This benchmark is excluded unless the
+ * jmh.excludes property is overridden.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EngineBenchmark {
+
+    /**
+     * The number of join steps after the creation of the group.
+     */
+    @Param({"1", "10"})
+    public int joins;
+
+    /**
+     * The latency of the stub services in milliseconds.
+     */
+    @Param({"0"})
+    public int latency;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private StubService stub;
+
+    private HttpClient client;
+
+    private URI base;
+
+    private String name;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        stub = StubService.start(0, Duration.ofMillis(latency), 0);
+        base = URI.create(System.getProperty("workflows.url",
+                "http://localhost:8080"));
+        client = HttpClient.newHttpClient();
+        name = "benchmark-" + joins + "-" + stub.port();
+        post("/workflows/store", "application/json",
+                stub.workflow(name, joins));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        stub.close();
+    }
+
+    @Benchmark
+    public String execution() throws IOException, InterruptedException {
+        String hash = post("/workflows/start",
+                "application/x-www-form-urlencoded",
+                "name=" + URLEncoder.encode(name, StandardCharsets.UTF_8));
+        HttpResponse<Stream<String>> events = client.send(HttpRequest
+                .newBuilder(base.resolve(
+                        "/workflows/executions/" + hash + "/events"))
+                .header("Accept", "text/event-stream")
+                .build(), HttpResponse.BodyHandlers.ofLines());
+        try (Stream<String> lines = events.body()) {
+            Iterator<String> iterator = lines.iterator();
+            while (iterator.hasNext()) {
+                String line = iterator.next();
+                if (!line.startsWith("data:")) {
+                    continue;
+                }
+                JsonNode event = mapper.readTree(line.substring(5));
+                String status = event.path("status").asText();
+                if (!"STATUS".equals(event.path("type").asText())) {
+                    continue;
+                }
+                if ("FAILED".equals(status)) {
+                    throw new IllegalStateException(
+                            "Execution " + hash + " failed");
+                }
+                if ("COMPLETED".equals(status)) {
+                    return hash;
+                }
+            }
+        }
+        throw new IllegalStateException(
+                "The events of execution " + hash + " ended early");
+    }
+
+    private String post(final String path, final String contentType,
+            final String body) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest
+                .newBuilder(base.resolve(path))
+                .header("Content-Type", contentType)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException(path + " answered with status "
+                    + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+}
@@ -0,0 +1,73 @@
+package dev.orion.workflows.engine;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dev.orion.workflows.model.Payload;
+
+/**
+ * Measures the encoding of the request and response bodies of the History
+ * rows into payloads, digest and compression included, and their decoding.
+ * Built outside CDI, the encoder compresses bodies of any size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayloadEncoderBenchmark {
+
+    /**
+     * The approximate size of the body in bytes.
+     */
+    @Param({"512", "16384", "262144"})
+    public int size;
+
+    private PayloadEncoder encoder;
+
+    private byte[] data;
+
+    private Payload payload;
+
+    @Setup
+    public void setUp() {
+        // A JSON array of records, as compressible as typical responses.
+        Random random = new Random(size);
+        StringBuilder json = new StringBuilder("[");
+        while (json.length() < size) {
+            json.append(json.length() == 1 ? "" : ",")
+                    .append("{\"hashUser\":\"")
+                    .append(Long.toHexString(random.nextLong()))
+                    .append("\",\"members\":").append(random.nextInt(100))
+                    .append(",\"active\":").append(random.nextBoolean())
+                    .append('}');
+        }
+        data = json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+        encoder = new PayloadEncoder();
+        payload = encoder.encode(data);
+    }
+
+    @Benchmark
+    public Payload encode() {
+        return encoder.encode(data);
+    }
+
+    @Benchmark
+    public byte[] decode() {
+        return encoder.decode(payload);
+    }
+}
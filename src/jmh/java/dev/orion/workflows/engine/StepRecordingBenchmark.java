@@ -0,0 +1,86 @@
+package dev.orion.workflows.engine;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import dev.orion.workflows.model.Execution;
+import dev.orion.workflows.model.History;
+import dev.orion.workflows.model.Service;
+import dev.orion.workflows.model.Workflow;
+import dev.orion.workflows.model.control.Go;
+import dev.orion.workflows.plan.PlanCompiler;
+
+/**
+ * Measures the recording side of a step, which snapshots the variables into
+ * its History row, with a checkpoint at every step and with the default
+ * checkpoint interval. The allocations per step are the gc.alloc.rate.norm
+ * metric of the gc profiler, which the jmh profile enables.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StepRecordingBenchmark {
+
+    /**
+     * The number of steps between two full copies of the variables.
+     */
+    @Param({"1", "16"})
+    public int checkpointInterval;
+
+    private final VariableCodec codec = VariableCodec.of(new ObjectMapper(),
+            VariableCodec.Format.JSON);
+
+    private ExecutionState state;
+
+    private int counter;
+
+    @Setup
+    public void setUp() {
+        Service service = new Service();
+        service.setName("a");
+        Go go = new Go();
+        go.setService("a");
+        Workflow workflow = new Workflow();
+        workflow.setName("benchmark");
+        workflow.setControls(List.of(go));
+        workflow.setServices(List.of(service));
+
+        ObjectNode globals = JsonNodeFactory.instance.objectNode();
+        ObjectNode locals = JsonNodeFactory.instance.objectNode();
+        for (int i = 0; i < 32; i++) {
+            globals.put("global" + i, "g".repeat(128));
+            locals.put("local" + i, "l".repeat(128));
+        }
+        state = new ExecutionState(new Execution(),
+                PlanCompiler.compile(workflow), globals, locals);
+    }
+
+    @Benchmark
+    public History recordStep() {
+        state.getLocals().put("counter", counter++);
+        History history = new History();
+        history.setStepNumber(state.nextStep());
+        ExecutionEngine.snapshotVariables(state, history, checkpointInterval,
+                codec);
+        return history;
+    }
+}
@@ -0,0 +1,112 @@
+package dev.orion.workflows.engine;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import dev.orion.workflows.model.SampleWorkflows;
+import dev.orion.workflows.model.Workflow;
+
+/**
+ * Compares the JSON, Smile and CBOR encodings of the execution variables,
+ * as stored in the execution rows and the history, and of the workflows
+ * exchanged with /store and /findByName. The sizes of the encoded variables
+ * are checked by VariableCodecTest.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VariableCodecBenchmark {
+
+    @Param({"JSON", "SMILE", "CBOR"})
+    public VariableCodec.Format format;
+
+    /**
+     * The number of records in the variables.
+     */
+    @Param({"10", "200"})
+    public int records;
+
+    private VariableCodec codec;
+
+    private ObjectMapper workflowMapper;
+
+    private ObjectNode variables;
+
+    private byte[] encodedVariables;
+
+    private Workflow workflow;
+
+    private byte[] encodedWorkflow;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        codec = VariableCodec.of(mapper, format);
+        workflowMapper = switch (format) {
+            case SMILE -> mapper.copyWith(new SmileFactory());
+            case CBOR -> mapper.copyWith(new CBORFactory());
+            default -> mapper;
+        };
+
+        // Records with repeated field names, as returned by typical services.
+        Random random = new Random(records);
+        variables = mapper.createObjectNode();
+        variables.put("hashGroup", Long.toHexString(random.nextLong()));
+        ArrayNode users = variables.putArray("users");
+        for (int i = 0; i < records; i++) {
+            users.addObject()
+                    .put("hashUser", Long.toHexString(random.nextLong()))
+                    .put("members", random.nextInt(100))
+                    .put("score", random.nextDouble())
+                    .put("active", random.nextBoolean());
+        }
+        encodedVariables = codec.encode(variables);
+
+        workflow = mapper.readValue(SampleWorkflows.json(records / 10 + 1),
+                Workflow.class);
+        encodedWorkflow = workflowMapper.writeValueAsBytes(workflow);
+    }
+
+    @Benchmark
+    public byte[] encodeVariables() {
+        return codec.encode(variables);
+    }
+
+    @Benchmark
+    public JsonNode decodeVariables() {
+        return codec.decode(encodedVariables);
+    }
+
+    @Benchmark
+    public byte[] writeWorkflow() throws IOException {
+        return workflowMapper.writeValueAsBytes(workflow);
+    }
+
+    @Benchmark
+    public Workflow readWorkflow() throws IOException {
+        return workflowMapper.readValue(encodedWorkflow, Workflow.class);
+    }
+}
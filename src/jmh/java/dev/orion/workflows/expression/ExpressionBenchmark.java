@@ -0,0 +1,60 @@
+package dev.orion.workflows.expression;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Measures the evaluation of the conditions of "if" controls, once compiled
+ * as the engine runs them, and with their compilation as a reference.
+ */
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpressionBenchmark {
+
+    /**
+     * The source of the condition.
+     */
+    @Param({"approved", "$count * 2 + 1 == 7 && $user.roles[0] == 'admin'"})
+    public String source;
+
+    private Expression expression;
+
+    private Scope scope;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectNode variables = (ObjectNode) new ObjectMapper().readTree(
+                "{\"approved\":true,\"count\":3,"
+                        + "\"user\":{\"roles\":[\"admin\"]}}");
+        scope = variables::get;
+        expression = ExpressionCompiler.compile(source);
+    }
+
+    @Benchmark
+    public boolean evaluate() {
+        return expression.test(scope);
+    }
+
+    @Benchmark
+    public boolean compileAndEvaluate() {
+        return ExpressionCompiler.compile(source).test(scope);
+    }
+}
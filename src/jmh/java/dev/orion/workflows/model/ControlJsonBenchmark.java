@@ -0,0 +1,61 @@
+package dev.orion.workflows.model;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Measures the JSON binding of workflows, whose control trees are
+ * polymorphic through the type property of {@link Control}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ControlJsonBenchmark {
+
+    /**
+     * The number of groups of five controls of the workflow.
+     */
+    @Param({"1", "20"})
+    public int groups;
+
+    private ObjectMapper mapper;
+
+    private byte[] json;
+
+    private Workflow workflow;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = new ObjectMapper();
+        json = SampleWorkflows.json(groups).getBytes(StandardCharsets.UTF_8);
+        workflow = mapper.readValue(json, Workflow.class);
+    }
+
+    @Benchmark
+    public Workflow deserialize() throws IOException {
+        return mapper.readValue(json, Workflow.class);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return mapper.writeValueAsBytes(workflow);
+    }
+}
@@ -0,0 +1,67 @@
+package dev.orion.workflows.model;
+
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Builds the workflows the benchmarks work on: a number of groups of
+ * controls, each holding one control of every type nested like the ones of
+ * real workflows, over three services.
+ */
+public final class SampleWorkflows {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private SampleWorkflows() {
+    }
+
+    /**
+     * Returns the JSON document of a sample workflow.
+     *
+     * @param groups The number of groups of controls.
+     * @return The JSON document.
+     */
+    public static String json(final int groups) {
+        ObjectNode workflow = MAPPER.createObjectNode()
+                .put("name", "sample-" + groups);
+        ArrayNode controls = workflow.putArray("controls");
+        for (int i = 0; i < groups; i++) {
+            controls.add(control("go", "a"));
+            ObjectNode condition = control("if", "b").put("expression",
+                    "$count * 2 > " + i + " && $user.roles[0] == 'admin'");
+            condition.putArray("controls").add(control("go", "c"));
+            controls.add(condition);
+            ObjectNode loop = control("loop", null).put("iterations", 3);
+            loop.putArray("controls").add(control("go", "a"));
+            controls.add(loop);
+            ObjectNode parallel = control("parallel", "b")
+                    .put("maxInFlight", 2);
+            parallel.putArray("controls").add(control("go", "a"))
+                    .add(control("go", "c"));
+            controls.add(parallel);
+            controls.add(control("wait", "c").put("duration", "PT1S"));
+        }
+        ArrayNode services = workflow.putArray("services");
+        for (String name : List.of("a", "b", "c")) {
+            services.addObject()
+                    .put("name", name)
+                    .put("url", "http://localhost:8089/" + name)
+                    .put("method", "POST")
+                    .put("consumes", "application/json")
+                    .put("produces", "application/json");
+        }
+        return workflow.toString();
+    }
+
+    private static ObjectNode control(final String type,
+            final String service) {
+        ObjectNode control = MAPPER.createObjectNode().put("type", type);
+        if (service != null) {
+            control.put("service", service);
+        }
+        return control;
+    }
+}
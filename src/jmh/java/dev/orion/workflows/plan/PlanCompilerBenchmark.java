@@ -0,0 +1,53 @@
+package dev.orion.workflows.plan;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.orion.workflows.model.SampleWorkflows;
+import dev.orion.workflows.model.Workflow;
+
+/**
+ * Measures the compilation of a workflow into its plan, which happens once
+ * per workflow version and on every miss of the plan cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlanCompilerBenchmark {
+
+    /**
+     * The number of groups of five controls of the workflow.
+     */
+    @Param({"1", "20"})
+    public int groups;
+
+    private Workflow workflow;
+
+    @Setup
+    public void setUp() throws IOException {
+        workflow = new ObjectMapper().readValue(SampleWorkflows.json(groups),
+                Workflow.class);
+    }
+
+    @Benchmark
+    public WorkflowPlan compile() {
+        return PlanCompiler.compile(workflow);
+    }
+}
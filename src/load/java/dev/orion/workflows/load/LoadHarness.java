@@ -0,0 +1,359 @@
+package dev.orion.workflows.load;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.LongStream;
+
+import org.testcontainers.containers.MySQLContainer;
+
+import dev.orion.workflows.stub.StubService;
+
+/**
+ * Measures how many executions one node starts, and how many steps it runs,
+ * per second.
+ *
+ * The harness starts MySQL in a container, a {@link StubService} standing in
+ * for the services of docs/test.json, and the packaged application as a
+ * child process. It stores a workflow of one creation and a number of joins,
+ * then a number of clients call /workflows/start in a closed loop for the
+ * configured duration. Once every execution has ended, it reports the start
+ * rate and latency percentiles, the step rate, the latency of whole
+ * executions, and the statements sent to MySQL per execution, taken from
+ * the Questions counter of the server, which counts one round trip per
+ * statement, the few polls of the harness included. The report is printed
+ * and written as JSON to target/load-report.json.
+ *
+ * The harness is configured with system properties: load.duration (PT30S),
+ * load.clients (32), load.joins (2), load.latency (PT0.005S),
+ * load.error-rate (0), load.port (8090), load.mysql-image (mysql:8.0) and
+ * load.application (target/quarkus-app/quarkus-run.jar).
+ */
+public final class LoadHarness {
+
+    private static final String DATABASE = "workflows";
+
+    private final Duration duration = Duration.parse(
+            System.getProperty("load.duration", "PT30S"));
+
+    private final int clients = Integer.getInteger("load.clients", 32);
+
+    private final int joins = Integer.getInteger("load.joins", 2);
+
+    private final Duration latency = Duration.parse(
+            System.getProperty("load.latency", "PT0.005S"));
+
+    private final double errorRate = Double.parseDouble(
+            System.getProperty("load.error-rate", "0"));
+
+    private final int port = Integer.getInteger("load.port", 8090);
+
+    private final String image = System.getProperty("load.mysql-image",
+            "mysql:8.0");
+
+    private final String application = System.getProperty(
+            "load.application", "target/quarkus-app/quarkus-run.jar");
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+
+    private URI base;
+
+    private LoadHarness() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        new LoadHarness().run();
+    }
+
+    private void run() throws Exception {
+        try (MySQLContainer<?> mysql = new MySQLContainer<>(image)
+                .withDatabaseName(DATABASE)
+                .withUsername("orion")
+                .withPassword("orion");
+                StubService stub = StubService.start(0, latency,
+                        errorRate)) {
+            mysql.start();
+            Process process = launch(mysql);
+            try (Connection connection = DriverManager.getConnection(
+                    mysql.getJdbcUrl(), mysql.getUsername(),
+                    mysql.getPassword())) {
+                base = URI.create("http://localhost:" + port);
+                awaitReady(process);
+                String name = "load-" + joins;
+                post("/workflows/store", "application/json",
+                        stub.workflow(name, joins));
+                report(measure(connection, name), stub);
+            } finally {
+                process.destroy();
+                process.waitFor();
+            }
+        }
+    }
+
+    private Process launch(final MySQLContainer<?> mysql) throws IOException {
+        String host = mysql.getHost() + ":" + mysql.getMappedPort(3306);
+        List<String> command = new ArrayList<>(List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java")
+                        .toString(),
+                "-Dquarkus.http.port=" + port,
+                "-Dquarkus.datasource.reactive.url=mysql://" + host + "/"
+                        + DATABASE,
+                "-Dquarkus.datasource.jdbc.url=jdbc:mysql://" + host + "/"
+                        + DATABASE,
+                "-Dquarkus.datasource.username=orion",
+                "-Dquarkus.datasource.password=orion",
+                "-Dquarkus.log.level=WARN",
+                "-jar", application));
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(new File("target/load-application.log"))
+                .start();
+    }
+
+    private void awaitReady(final Process process)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofMinutes(2).toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("The application exited, "
+                        + "see target/load-application.log");
+            }
+            try {
+                if (client.send(HttpRequest.newBuilder(
+                        base.resolve("/workflows/plans/stats")).build(),
+                        HttpResponse.BodyHandlers.discarding())
+                        .statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet.
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException("The application did not start");
+    }
+
+    private Result measure(final Connection connection, final String name)
+            throws Exception {
+        long questions = questions(connection);
+        LongAdder errors = new LongAdder();
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        List<Future<long[]>> futures = new ArrayList<>(clients);
+        try (ExecutorService executor = Executors
+                .newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                futures.add(executor.submit(() -> {
+                    LongStream.Builder latencies = LongStream.builder();
+                    String body = "name=" + URLEncoder.encode(name,
+                            StandardCharsets.UTF_8);
+                    while (System.nanoTime() < deadline) {
+                        long sent = System.nanoTime();
+                        try {
+                            post("/workflows/start",
+                                    "application/x-www-form-urlencoded",
+                                    body);
+                            latencies.add(System.nanoTime() - sent);
+                        } catch (IllegalStateException | IOException e) {
+                            errors.increment();
+                        }
+                    }
+                    return latencies.build().toArray();
+                }));
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        long[] latencies = futures.stream()
+                .flatMapToLong(future -> LongStream.of(join(future)))
+                .sorted()
+                .toArray();
+        awaitExecutions(connection);
+        return new Result(latencies, errors.sum(), elapsed,
+                executions(connection), questions(connection) - questions);
+    }
+
+    private static long[] join(final Future<long[]> future) {
+        try {
+            return future.get();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void awaitExecutions(final Connection connection)
+            throws SQLException, InterruptedException {
+        while (true) {
+            try (Statement statement = connection.createStatement();
+                    ResultSet rows = statement.executeQuery(
+                            "select count(*) from " + DATABASE + ".execution "
+                                    + "where status = 'RUNNING'")) {
+                rows.next();
+                if (rows.getLong(1) == 0) {
+                    return;
+                }
+            }
+            Thread.sleep(500);
+        }
+    }
+
+    /**
+     * Reads the executions that ended: their number, their steps, the time
+     * between the first start and the last end, and their durations.
+     */
+    private static Executions executions(final Connection connection)
+            throws SQLException {
+        List<Long> durations = new ArrayList<>();
+        long steps = 0;
+        long failed = 0;
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        try (Statement statement = connection.createStatement();
+                ResultSet rows = statement.executeQuery(
+                        "select status, step_number, started, updated from "
+                                + DATABASE + ".execution "
+                                + "where status in ('COMPLETED', 'FAILED')")) {
+            while (rows.next()) {
+                long started = rows.getTimestamp(3).getTime();
+                long updated = rows.getTimestamp(4).getTime();
+                steps += rows.getLong(2);
+                failed += "FAILED".equals(rows.getString(1)) ? 1 : 0;
+                first = Math.min(first, started);
+                last = Math.max(last, updated);
+                durations.add(updated - started);
+            }
+        }
+        long[] sorted = durations.stream().mapToLong(Long::longValue)
+                .sorted().toArray();
+        return new Executions(sorted, steps, failed,
+                sorted.length == 0 ? 0 : last - first);
+    }
+
+    private static long questions(final Connection connection)
+            throws SQLException {
+        try (Statement statement = connection.createStatement();
+                ResultSet rows = statement.executeQuery(
+                        "show global status like 'Questions'")) {
+            rows.next();
+            return rows.getLong(2);
+        }
+    }
+
+    private String post(final String path, final String contentType,
+            final String body) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest
+                .newBuilder(base.resolve(path))
+                .header("Content-Type", contentType)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException(path + " answered with status "
+                    + response.statusCode());
+        }
+        return response.body();
+    }
+
+    private void report(final Result result, final StubService stub)
+            throws IOException {
+        double seconds = result.elapsed() / 1e9;
+        Executions executions = result.executions();
+        int ended = executions.durations().length;
+        double executionSeconds = executions.span() / 1e3;
+        String json = String.format(Locale.ROOT, "{%n"
+                + "  \"clients\": %d,%n"
+                + "  \"joins\": %d,%n"
+                + "  \"serviceLatencyMillis\": %d,%n"
+                + "  \"serviceErrorRate\": %s,%n"
+                + "  \"starts\": %d,%n"
+                + "  \"startErrors\": %d,%n"
+                + "  \"startsPerSecond\": %.1f,%n"
+                + "  \"startLatencyMillis\": {\"p50\": %.3f, \"p99\": %.3f, "
+                + "\"p999\": %.3f},%n"
+                + "  \"executions\": %d,%n"
+                + "  \"failedExecutions\": %d,%n"
+                + "  \"steps\": %d,%n"
+                + "  \"stepsPerSecond\": %.1f,%n"
+                + "  \"executionLatencyMillis\": {\"p50\": %d, \"p99\": %d, "
+                + "\"p999\": %d},%n"
+                + "  \"serviceCalls\": %d,%n"
+                + "  \"mysqlStatementsPerExecution\": %.1f%n"
+                + "}%n",
+                clients, joins, latency.toMillis(), errorRate,
+                result.latencies().length, result.errors(),
+                result.latencies().length / seconds,
+                percentile(result.latencies(), 0.50) / 1e6,
+                percentile(result.latencies(), 0.99) / 1e6,
+                percentile(result.latencies(), 0.999) / 1e6,
+                ended, executions.failed(), executions.steps(),
+                executionSeconds == 0 ? 0 : executions.steps()
+                        / executionSeconds,
+                percentile(executions.durations(), 0.50),
+                percentile(executions.durations(), 0.99),
+                percentile(executions.durations(), 0.999),
+                stub.calls(),
+                ended == 0 ? 0 : (double) result.questions() / ended);
+        System.out.print(json);
+        Files.writeString(Path.of("target", "load-report.json"), json);
+    }
+
+    /**
+     * Returns the value below which a fraction of sorted values fall, with
+     * the nearest-rank method.
+     */
+    static long percentile(final long[] sorted, final double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(fraction * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)];
+    }
+
+    /**
+     * The outcome of the start phase.
+     *
+     * @param latencies  The sorted latencies of the successful starts, in
+     *                   nanoseconds.
+     * @param errors     The number of failed starts.
+     * @param elapsed    The duration of the phase in nanoseconds.
+     * @param executions The executions that ended.
+     * @param questions  The statements received by MySQL meanwhile.
+     */
+    private record Result(long[] latencies, long errors, long elapsed,
+            Executions executions, long questions) {
+    }
+
+    /**
+     * The executions that ended.
+     *
+     * @param durations The sorted durations of the executions, in
+     *                  milliseconds.
+     * @param steps     The number of steps they ran.
+     * @param failed    The number of failed executions.
+     * @param span      The time from the first start to the last end, in
+     *                  milliseconds.
+     */
+    private record Executions(long[] durations, long steps, long failed,
+            long span) {
+    }
+}
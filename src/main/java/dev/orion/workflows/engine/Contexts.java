@@ -0,0 +1,78 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.engine;
+
+import java.util.function.Supplier;
+
+import io.quarkus.vertx.core.runtime.context.VertxContextSafetyToggle;
+import io.smallrye.common.vertx.VertxContext;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.Context;
+import io.vertx.mutiny.core.Vertx;
+
+/**
+ * Helpers to run reactive pipelines outside of an HTTP request.
+ *
+ * Hibernate Reactive keeps its session in the local data of a duplicated
+ * Vert.x context. Work started by the engine (a new execution, a timer, a
+ * background flush) must therefore run on a fresh duplicated context of its
+ * own instead of borrowing the one of the request that triggered it.
+ */
+public final class Contexts {
+
+	private Contexts() {
+	}
+
+	/**
+	 * Subscribes to the pipeline produced by the supplier on a new duplicated
+	 * context that is marked as safe for Hibernate Reactive.
+	 *
+	 * @param vertx    The Vert.x instance.
+	 * @param supplier The supplier of the pipeline to run.
+	 * @param <T>      The type of the item produced by the pipeline.
+	 * @return A Uni that runs the pipeline on its own context.
+	 */
+	public static <T> Uni<T> onNewContext(final Vertx vertx,
+			final Supplier<Uni<? extends T>> supplier) {
+		Context context = VertxContext.createNewDuplicatedContext(
+				vertx.getDelegate().getOrCreateContext());
+		VertxContextSafetyToggle.setContextSafe(context, true);
+		return Uni.createFrom().deferred(supplier)
+				.runSubscriptionOn(command -> context
+						.runOnContext(ignored -> command.run()));
+	}
+
+	/**
+	 * Makes the item of a Uni that may complete on another thread be emitted
+	 * on the Vert.x context of the caller, if there is one. This is needed
+	 * when a pipeline waits for a result shared between several callers,
+	 * such as a cached future.
+	 *
+	 * @param uni The Uni whose item is to be emitted.
+	 * @param <T> The type of the item.
+	 * @return A Uni that emits on the caller's context.
+	 */
+	public static <T> Uni<T> onCallerContext(final Uni<T> uni) {
+		Context context = io.vertx.core.Vertx.currentContext();
+		if (context == null) {
+			return uni;
+		}
+		return uni.emitOn(command -> context
+				.runOnContext(ignored -> command.run()));
+	}
+}
@@ -0,0 +1,811 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.engine;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import dev.orion.workflows.model.Execution;
+import dev.orion.workflows.model.ExecutionStatus;
+import dev.orion.workflows.model.History;
+import dev.orion.workflows.model.Service;
+import dev.orion.workflows.model.Signal;
+import dev.orion.workflows.plan.PlanCache;
+import dev.orion.workflows.plan.Step;
+import dev.orion.workflows.plan.WorkflowPlan;
+import dev.orion.workflows.repository.ExecutionRepository;
+import dev.orion.workflows.repository.SignalRepository;
+import io.quarkus.hibernate.reactive.panache.Panache;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.core.Vertx;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Interprets the compiled plan of a workflow for an execution.
+ *
+ * The engine runs the steps of the plan starting at
+ * {@link Execution#getCurrentControl()}. Jumps, loop counters and conditions
+ * are evaluated in memory; each CALL step invokes its service and hands a
+ * History row, together with the position of the execution and the time of
+ * the update, to the {@link HistoryWriter}. The execution continues once the
+ * writer has committed the step. The variables are kept parsed for the whole
+ * run and are only written to the execution row at the checkpoints of the
+ * history; a run that resumes an execution rebuilds the variables of the
+ * steps recorded since from the patches of the history.
+ *
+ * A WAIT step whose inputs have not been signaled parks the execution: its state is
+ * persisted with the WAITING status and the run ends, holding no thread and
+ * no memory. The {@link TimerScheduler} or a signal resumes it later.
+ *
+ * A FORK step runs the branches of a parallel control on forked states,
+ * concurrently, and merges their local variables once they join. The
+ * position of the execution stays on the FORK step until then. An ITERATE
+ * step does the same with the iterations of a parallel loop.
+ *
+ * The calls of a summarized loop are merged into the variables without
+ * being recorded; the last of them is recorded, with their number, before
+ * the next step that is not part of the loop, and at least once every
+ * checkpoint interval of calls. Those calls are made at least once: a
+ * failure in between resumes the execution from the last recorded step,
+ * which replays the calls made since, at most a checkpoint interval.
+ */
+@ApplicationScoped
+public class ExecutionEngine {
+
+	private static final Logger LOG = Logger.getLogger(ExecutionEngine.class);
+
+	/**
+	 * The Vert.x instance on which the executions run.
+	 */
+	@Inject
+	private Vertx vertx;
+
+	/**
+	 * The mapper used to parse the signal values and the service responses.
+	 */
+	@Inject
+	private ObjectMapper mapper;
+
+	/**
+	 * The invoker of the workflow services.
+	 */
+	@Inject
+	private ServiceInvoker invoker;
+
+	/**
+	 * The repository for managing executions.
+	 */
+	@Inject
+	private ExecutionRepository executionRepository;
+
+	/**
+	 * The number of steps between two full copies of the variables in the
+	 * execution history.
+	 */
+	@ConfigProperty(name = "workflows.history.checkpoint-interval",
+			defaultValue = "16")
+	private int checkpointInterval;
+
+	/**
+	 * The encoder of the request and response bodies.
+	 */
+	@Inject
+	private PayloadEncoder payloadEncoder;
+
+	/**
+	 * The writer of the execution history.
+	 */
+	@Inject
+	private HistoryWriter historyWriter;
+
+	/**
+	 * The scheduler of the wake-ups of the waiting executions.
+	 */
+	@Inject
+	private TimerScheduler timers;
+
+	/**
+	 * The repository for managing the signals consumed by WAIT steps.
+	 */
+	@Inject
+	private SignalRepository signalRepository;
+
+	/**
+	 * The router of the signals, which tells when signals were delivered.
+	 */
+	@Inject
+	private SignalRouter signalRouter;
+
+	/**
+	 * The cache of the compiled plans, used to resume executions.
+	 */
+	@Inject
+	private PlanCache planCache;
+
+	/**
+	 * The publisher of the progress of the executions to their subscribers.
+	 */
+	@Inject
+	private ExecutionEvents events;
+
+	/**
+	 * The leases under which this node runs executions.
+	 */
+	@Inject
+	private ExecutionLeases leases;
+
+	/**
+	 * The metrics and traces of the executions.
+	 */
+	@Inject
+	private WorkflowTelemetry telemetry;
+
+	/**
+	 * The encoding of the variables in the execution rows and the history.
+	 */
+	@Inject
+	private VariableCodec variableCodec;
+
+	/**
+	 * The history of the variables, from which the variables of the steps
+	 * recorded since the last checkpoint are rebuilt.
+	 */
+	@Inject
+	private VariableHistory variableHistory;
+
+	/**
+	 * Starts advancing an execution in the background. The execution runs on
+	 * its own Vert.x context and does not hold the caller.
+	 *
+	 * @param execution The execution to be advanced.
+	 * @param plan      The compiled plan of the workflow of the execution.
+	 */
+	public void start(final Execution execution, final WorkflowPlan plan) {
+		telemetry.started(plan.getName());
+		launch(execution.id, () -> run(execution, plan));
+	}
+
+	/**
+	 * Resumes a waiting execution in the background. Nothing happens if the
+	 * execution is no longer waiting, for instance because another caller
+	 * resumed it first.
+	 *
+	 * @param executionId The identifier of the execution.
+	 */
+	public void resume(final Long executionId) {
+		launch(executionId, () -> leases.claim(executionId)
+				.chain(claimed -> !claimed ? Uni.createFrom().nullItem()
+						: reload(executionId)));
+	}
+
+	/**
+	 * Takes over in the background a running execution whose node stopped
+	 * renewing its lease, and resumes it from its last recorded step. Nothing
+	 * happens if another node took it over first.
+	 *
+	 * @param executionId The identifier of the execution.
+	 */
+	public void recover(final Long executionId) {
+		launch(executionId, () -> leases.takeOver(executionId)
+				.chain(taken -> !taken ? Uni.createFrom().nullItem()
+						: reload(executionId)));
+	}
+
+	/**
+	 * Reads an execution owned by this node and runs it from its last
+	 * recorded state.
+	 */
+	private Uni<ExecutionStatus> reload(final Long executionId) {
+		return executionRepository.findWithWorkflowHash(executionId)
+				.chain(row -> planCache.findByHash((String) row[1])
+						.chain(plan -> run((Execution) row[0], plan)));
+	}
+
+	private void launch(final Long executionId,
+			final Supplier<Uni<? extends ExecutionStatus>> supplier) {
+		leases.started(executionId);
+		Contexts.<ExecutionStatus>onNewContext(vertx, supplier)
+				.eventually(() -> leases.ended(executionId))
+				.subscribe().with(
+						status -> LOG.debugf("Execution %d is %s", executionId,
+								status),
+						failure -> LOG.warnf(failure, "Execution %d failed",
+								executionId));
+	}
+
+	/**
+	 * Advances an execution until the end of its plan, or until it parks on
+	 * a WAIT step.
+	 *
+	 * @param execution The execution to be advanced.
+	 * @param plan      The compiled plan of the workflow of the execution.
+	 * @return A Uni containing the status of the execution when the run
+	 *         ends: COMPLETED or WAITING. It fails with the cause of the
+	 *         failure after the execution has been marked as failed.
+	 */
+	public Uni<ExecutionStatus> run(final Execution execution,
+			final WorkflowPlan plan) {
+		return telemetry.traced(execution.getHash(), plan.getName(),
+				() -> variables(execution).chain(
+						variables -> run(execution, plan, variables)));
+	}
+
+	/**
+	 * Reads the variables of an execution as of its last recorded step: the
+	 * ones of its row, with the patches recorded since the last checkpoint
+	 * applied if the row is behind.
+	 */
+	private Uni<VariableSnapshot> variables(final Execution execution) {
+		Integer step = execution.getVariablesStep();
+		if (step == null || step == execution.getStepNumber()) {
+			return Uni.createFrom().item(new VariableSnapshot(
+					execution.getStepNumber(),
+					variableCodec.decodeObject(execution.getLocalVariables()),
+					variableCodec.decodeObject(
+							execution.getGlobalVariables())));
+		}
+		return variableHistory.at(execution.getHash(),
+				execution.getStepNumber())
+				.onItem().ifNull().failWith(() -> new IllegalStateException(
+						"Step " + execution.getStepNumber() + " of execution "
+								+ execution.getHash() + " is not recorded"));
+	}
+
+	private Uni<ExecutionStatus> run(final Execution execution,
+			final WorkflowPlan plan, final VariableSnapshot variables) {
+		ExecutionState state = new ExecutionState(execution, plan,
+				variables.globalVariables(), variables.localVariables());
+		events.publish(execution.getHash(),
+				() -> ExecutionEvents.status(state, ExecutionStatus.RUNNING));
+
+		return Multi.createBy().repeating().uni(() -> next(state))
+				.whilst(running -> running)
+				.onItem().ignoreAsUni()
+				.chain(() -> state.isParked() ? park(state)
+						: advance(state, ExecutionStatus.COMPLETED)
+								.invoke(() -> telemetry.ended(plan.getName(),
+										ExecutionStatus.COMPLETED))
+								.replaceWith(ExecutionStatus.COMPLETED))
+				.onFailure(failure -> !(failure instanceof LeaseLostException))
+				.call(failure -> flush(state).onFailure().recoverWithNull()
+						.chain(() -> advance(state, ExecutionStatus.FAILED))
+						.invoke(() -> telemetry.ended(plan.getName(),
+								ExecutionStatus.FAILED)))
+				.onFailure(LeaseLostException.class)
+				.invoke(() -> events.released(execution.getHash()));
+	}
+
+	/**
+	 * Runs the steps that need no I/O up to the next CALL step, then performs
+	 * that call.
+	 *
+	 * @param state The state of the execution.
+	 * @return A Uni containing true while steps remain to be run.
+	 */
+	private Uni<Boolean> next(final ExecutionState state) {
+		WorkflowPlan plan = state.getPlan();
+		int[] counters = state.getCounters();
+		while (state.getCurrentControl() < plan.size()) {
+			int current = state.getCurrentControl();
+			Step step = plan.step(current);
+			if (state.getSummaryCalls() > 0 && !step.isSummarized()) {
+				return flush(state).replaceWith(Boolean.TRUE);
+			}
+			switch (step.getKind()) {
+				case CALL:
+					return call(state, step).replaceWith(Boolean.TRUE);
+				case LOOP_START:
+					counters[step.getSlot()] = 0;
+					state.setCurrentControl(enter(state, step, 0)
+							? current + 1 : step.getJump());
+					break;
+				case LOOP_END:
+					if (step.getSignal() != null) {
+						return loopEnd(state, step);
+					}
+					repeat(state, step);
+					break;
+				case JUMP:
+					state.setCurrentControl(step.getJump());
+					break;
+				case BRANCH:
+					state.setCurrentControl(step.getCondition().test(state)
+							? current + 1 : step.getJump());
+					break;
+				case WAIT:
+					return await(state, step);
+				case FORK:
+					return fork(state, step).replaceWith(Boolean.TRUE);
+				case ITERATE:
+					return iterate(state, step).replaceWith(Boolean.TRUE);
+				case FORK_END:
+					return Uni.createFrom().item(Boolean.FALSE);
+				default:
+					throw new IllegalStateException(
+							"Unknown step " + step.getKind());
+			}
+		}
+		if (state.getSummaryCalls() > 0) {
+			return flush(state).replaceWith(Boolean.TRUE);
+		}
+		return Uni.createFrom().item(Boolean.FALSE);
+	}
+
+	/**
+	 * Tells whether a loop runs an iteration, and sets the local variable of
+	 * a loop over a collection to the item of that iteration.
+	 *
+	 * @param iteration The index of the iteration, from zero.
+	 */
+	private static boolean enter(final ExecutionState state, final Step step,
+			final int iteration) {
+		if (step.getCondition() == null) {
+			return iteration < step.getIterations();
+		}
+		ArrayNode items = items(state, step);
+		if (iteration >= items.size()) {
+			return false;
+		}
+		state.getLocals().set(step.getVariable(),
+				items.get(iteration).deepCopy());
+		return true;
+	}
+
+	/**
+	 * Evaluates the collection of a loop. A value that is not an array is
+	 * iterated as an empty array.
+	 */
+	private static ArrayNode items(final ExecutionState state,
+			final Step step) {
+		return step.getCondition().evaluate(state) instanceof ArrayNode items
+				? items : JsonNodeFactory.instance.arrayNode();
+	}
+
+	/**
+	 * Runs the LOOP_END step of a loop broken by a signal: a pending signal
+	 * is consumed and ends the loop, otherwise the loop goes on as usual.
+	 * The signal is only looked for when the router queued signals for the
+	 * execution since the last look, or when that look is older than the
+	 * poll interval of the router.
+	 */
+	private Uni<Boolean> loopEnd(final ExecutionState state, final Step step) {
+		long now = System.currentTimeMillis();
+		if (!signalRouter.due(state.getExecution().id,
+				state.getSignalsChecked(), now)) {
+			return Uni.createFrom().item(repeat(state, step));
+		}
+		state.setSignalsChecked(now);
+		int next = state.getCurrentControl() + 1;
+		return signalRepository.findNext(state.getExecution().id,
+				List.of(step.getSignal()))
+				.chain(signals -> signals.isEmpty()
+						? Uni.createFrom().item(repeat(state, step))
+						: consume(state, signals, next));
+	}
+
+	/**
+	 * Ends an iteration of a loop at its LOOP_END step, continuing with the
+	 * next iteration or after the loop.
+	 */
+	private static Boolean repeat(final ExecutionState state, final Step step) {
+		state.setCurrentControl(enter(state, step,
+				++state.getCounters()[step.getSlot()]) ? step.getJump()
+						: state.getCurrentControl() + 1);
+		return Boolean.TRUE;
+	}
+
+	/**
+	 * Runs a WAIT step. The step stops waiting when a signal is pending for
+	 * each of its inputs, which are then consumed into the local variables,
+	 * or when its duration has elapsed. Its wake-up time is set when it is
+	 * first reached. A pending signal of an enclosing loop is consumed
+	 * instead, and breaks that loop.
+	 *
+	 * @return A Uni containing true if the execution goes on, or false if it
+	 *         is to be parked.
+	 */
+	private Uni<Boolean> await(final ExecutionState state, final Step step) {
+		long now = System.currentTimeMillis();
+		if (step.getDuration() > 0 && state.getWakeAt() == null) {
+			state.setWakeAt(Instant.ofEpochMilli(now + step.getDuration()));
+		}
+		boolean elapsed = state.getWakeAt() != null
+				&& now >= state.getWakeAt().toEpochMilli();
+		if (step.getInputs().isEmpty() && step.getInterrupts().isEmpty()) {
+			return Uni.createFrom().item(elapsed || step.getDuration() == 0
+					? proceed(state) : suspend(state));
+		}
+		int next = state.getCurrentControl() + 1;
+		return signalRepository.findNext(state.getExecution().id,
+				signalNames(step))
+				.chain(signals -> {
+					for (int i = 0; i < step.getInterrupts().size(); i++) {
+						String name = step.getInterrupts().get(i);
+						for (Signal signal : signals) {
+							if (signal.getName().equals(name)) {
+								return consume(state, List.of(signal),
+										step.exit(i));
+							}
+						}
+					}
+					if (ready(step, signals)) {
+						return consume(state, signals, next);
+					}
+					return Uni.createFrom().item(elapsed ? proceed(state)
+							: suspend(state));
+				});
+	}
+
+	/**
+	 * Returns the names of the signals a WAIT step looks for: its inputs,
+	 * then the signals of its enclosing loops.
+	 */
+	private static List<String> signalNames(final Step step) {
+		if (step.getInterrupts().isEmpty()) {
+			return step.getInputs();
+		}
+		List<String> names = new ArrayList<>(step.getInputs());
+		names.addAll(step.getInterrupts());
+		return names;
+	}
+
+	/**
+	 * Tells whether pending signals end a WAIT step: either all its inputs
+	 * or the signal of an enclosing loop are pending.
+	 */
+	private static boolean ready(final Step step, final List<Signal> signals) {
+		for (Signal signal : signals) {
+			if (step.getInterrupts().contains(signal.getName())) {
+				return true;
+			}
+		}
+		return !step.getInputs().isEmpty()
+				&& signals.size() == step.getInputs().size();
+	}
+
+	private static Boolean proceed(final ExecutionState state) {
+		state.setWakeAt(null);
+		state.setCurrentControl(state.getCurrentControl() + 1);
+		return Boolean.TRUE;
+	}
+
+	private static Boolean suspend(final ExecutionState state) {
+		state.setParked(true);
+		return Boolean.FALSE;
+	}
+
+	/**
+	 * Moves the values of signals into the local variables, continues with
+	 * a given step, and deletes the signals in the transaction that records
+	 * the new variables and position.
+	 */
+	private Uni<Boolean> consume(final ExecutionState state,
+			final List<Signal> signals, final int next) {
+		List<Long> ids = new ArrayList<>(signals.size());
+		for (Signal signal : signals) {
+			state.getLocals().set(signal.getName(), parseValue(signal));
+			ids.add(signal.id);
+		}
+		state.setWakeAt(null);
+		state.setCurrentControl(next);
+		Execution execution = snapshot(state.root(),
+				ExecutionStatus.RUNNING);
+		// Losing the lease rolls the consumption of the signals back.
+		return Panache.withTransaction(() -> signalRepository.consume(ids)
+				.chain(() -> executionRepository.updateProgress(execution))
+				.invoke(updated -> {
+					if (updated == 0) {
+						throw new LeaseLostException(execution.id);
+					}
+				}))
+				.replaceWith(Boolean.TRUE);
+	}
+
+	private JsonNode parseValue(final Signal signal) {
+		try {
+			return mapper.readTree(signal.getValue());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Persists a parked execution and schedules its wake-up. The signals are
+	 * looked up once more after the execution is marked as waiting, since
+	 * the ones delivered in between could not resume it.
+	 */
+	private Uni<ExecutionStatus> park(final ExecutionState state) {
+		Long id = state.getExecution().id;
+		Step step = state.getPlan().step(state.getCurrentControl());
+		List<String> names = signalNames(step);
+		return advance(state, ExecutionStatus.WAITING)
+				.invoke(() -> {
+					if (state.getWakeAt() != null) {
+						timers.schedule(id, state.getWakeAt());
+					}
+				})
+				.chain(() -> names.isEmpty() ? Uni.createFrom().nullItem()
+						: signalRepository.findNext(id, names)
+								.invoke(signals -> {
+									if (ready(step, signals)) {
+										resume(id);
+									}
+								}))
+				.replaceWith(ExecutionStatus.WAITING);
+	}
+
+	/**
+	 * Runs the branches of a FORK step, at most its concurrency at a time,
+	 * until the required number of them complete. The other branches are
+	 * cancelled, and a failed branch only fails the step if too few branches
+	 * are left to join.
+	 */
+	private Uni<Void> fork(final ExecutionState state, final Step step) {
+		return join(state, step, step.branchCount(), step.getRequired(),
+				step.getConcurrency(),
+				branch -> state.fork(branch, step.branch(branch)));
+	}
+
+	/**
+	 * Runs the iterations of a parallel loop, at most its concurrency at a
+	 * time, each with its own item of the collection. All of them must
+	 * complete.
+	 */
+	private Uni<Void> iterate(final ExecutionState state, final Step step) {
+		ArrayNode items = step.getCondition() == null ? null
+				: items(state, step);
+		int count = items == null ? step.getIterations() : items.size();
+		int body = state.getCurrentControl() + 1;
+		return join(state, step, count, count,
+				step.getConcurrency() > 0 ? step.getConcurrency() : count,
+				iteration -> {
+					ExecutionState branch = state.fork(iteration, body);
+					if (items != null) {
+						branch.getLocals().set(step.getVariable(),
+								items.get(iteration).deepCopy());
+					}
+					return branch;
+				});
+	}
+
+	/**
+	 * Runs branches on forked states, at most a given number at a time,
+	 * until the required number of them complete, then merges them and jumps
+	 * past the step.
+	 */
+	private Uni<Void> join(final ExecutionState state, final Step step,
+			final int count, final int required, final int concurrency,
+			final IntFunction<ExecutionState> branches) {
+		List<Throwable> failures = new CopyOnWriteArrayList<>();
+		return Multi.createFrom().range(0, count)
+				.onItem().transformToMulti(branch -> run(
+						branches.apply(branch))
+						.onFailure().recoverWithUni(failure -> {
+							failures.add(failure);
+							return Uni.createFrom().nullItem();
+						})
+						.toMulti())
+				.merge(Math.max(1, concurrency))
+				.select().first(required)
+				.collect().asList()
+				.chain(joined -> {
+					if (joined.size() < required) {
+						return Uni.createFrom().failure(failures.isEmpty()
+								? new IllegalStateException("Parallel "
+										+ "branches did not join")
+								: failures.get(0));
+					}
+					state.join(joined);
+					state.setCurrentControl(step.getJump());
+					return Uni.createFrom().voidItem();
+				});
+	}
+
+	/**
+	 * Runs a branch of a parallel control, or an iteration of a parallel
+	 * loop, up to its FORK_END step.
+	 */
+	private Uni<ExecutionState> run(final ExecutionState branch) {
+		return Multi.createBy().repeating().uni(() -> next(branch))
+				.whilst(running -> running)
+				.onItem().ignoreAsUni()
+				.replaceWith(branch);
+	}
+
+	private Uni<Void> call(final ExecutionState state, final Step step) {
+		Service service = step.getService();
+		long start = System.nanoTime();
+		return invoker.invoke(service, state.variables())
+				.chain(call -> {
+					merge(state.getLocals(), call);
+					state.setCurrentControl(state.getCurrentControl() + 1);
+					if (step.isSummarized()) {
+						state.summarize(service, call);
+						return state.getSummaryCalls() < checkpointInterval
+								? Uni.createFrom().voidItem()
+								: flush(state);
+					}
+					return record(state, service, call, 1);
+				})
+				.invoke(() -> telemetry.step(step.getControlType(),
+						System.nanoTime() - start));
+	}
+
+	/**
+	 * Records the summary of the calls of a summarized loop made since the
+	 * last recorded step, if any.
+	 */
+	private Uni<Void> flush(final ExecutionState state) {
+		int calls = state.getSummaryCalls();
+		if (calls == 0) {
+			return Uni.createFrom().voidItem();
+		}
+		Service service = state.getSummaryService();
+		ServiceCall call = state.getSummaryCall();
+		state.clearSummary();
+		return record(state, service, call, calls);
+	}
+
+	private void merge(final ObjectNode locals, final ServiceCall call) {
+		if (call.responseData().length == 0
+				|| !call.responseMimeType().contains("json")) {
+			return;
+		}
+		try {
+			JsonNode response = mapper.readTree(call.responseData());
+			if (response.isObject()) {
+				locals.setAll((ObjectNode) response);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private Uni<Void> record(final ExecutionState state,
+			final Service service, final ServiceCall call, final int calls) {
+		History history = new History();
+		history.setStepNumber(state.nextStep());
+		history.setCalls(calls);
+		history.setExecution(state.getExecution());
+		history.setService(service);
+		history.setRequestPayload(payloadEncoder.encode(call.requestData()));
+		history.setRequestMimeType(call.requestMimeType());
+		history.setResponsePayload(
+				payloadEncoder.encode(call.responseData()));
+		history.setResponseMimeType(call.responseMimeType());
+		snapshotVariables(state, history, checkpointInterval, variableCodec);
+		history.setExecuted(Instant.now());
+		events.publish(state.getExecution().getHash(),
+				() -> new ExecutionEvent(state.getExecution().getHash(),
+						ExecutionEvent.Type.STEP, ExecutionStatus.RUNNING,
+						history.getStepNumber(), state.getCurrentControl(),
+						service.getName(), history.isCheckpoint(),
+						variableCodec.toJson(history.getLocalVariablesStatus()),
+						variableCodec.toJson(
+								history.getGlobalVariablesStatus())));
+		return historyWriter.write(history,
+				snapshot(state.root(), ExecutionStatus.RUNNING, false));
+	}
+
+	/**
+	 * Stores the variables of a step in its History row: in full for the
+	 * first step of a run, every checkpoint interval and every step of a
+	 * parallel branch, as a patch relative to the previous step otherwise.
+	 * The variables of the execution row are only written at checkpoints,
+	 * from the same bytes when the step is not in a branch, and the copy of
+	 * the recorded variables is only patched in between, so the variables
+	 * are serialized and copied in full once per checkpoint interval.
+	 *
+	 * @param state              The state of the execution or branch.
+	 * @param history            The History row of the step.
+	 * @param checkpointInterval The number of steps between checkpoints.
+	 * @param codec              The encoding of the variables.
+	 */
+	static void snapshotVariables(final ExecutionState state,
+			final History history, final int checkpointInterval,
+			final VariableCodec codec) {
+		boolean checkpoint = state.getParent() != null
+				|| state.getRecordedLocals() == null
+				|| (history.getStepNumber() - 1) % checkpointInterval == 0;
+		history.setCheckpoint(checkpoint);
+		if (checkpoint) {
+			byte[] locals = codec.encode(state.getLocals());
+			byte[] globals = codec.encode(state.getGlobals());
+			history.setLocalVariablesStatus(locals);
+			history.setGlobalVariablesStatus(globals);
+			// The branches share the global variables of the root.
+			ExecutionState root = state.root();
+			storeVariables(root, globals,
+					root == state ? locals : codec.encode(root.getLocals()));
+			state.recorded();
+		} else {
+			ArrayNode localPatch = VariableDelta.diff(
+					state.getRecordedLocals(), state.getLocals());
+			ArrayNode globalPatch = VariableDelta.diff(
+					state.getRecordedGlobals(), state.getGlobals());
+			history.setLocalVariablesStatus(codec.encode(localPatch));
+			history.setGlobalVariablesStatus(codec.encode(globalPatch));
+			state.recorded(globalPatch, localPatch);
+		}
+	}
+
+	private Uni<Void> advance(final ExecutionState state,
+			final ExecutionStatus status) {
+		Execution execution = snapshot(state, status);
+		return Panache.withTransaction(
+				() -> executionRepository.updateProgress(execution))
+				.invoke(updated -> {
+					if (updated == 0) {
+						throw new LeaseLostException(execution.id);
+					}
+				})
+				.invoke(() -> events.publish(execution.getHash(),
+						() -> ExecutionEvents.status(state, status)))
+				.replaceWithVoid();
+	}
+
+	private Execution snapshot(final ExecutionState state,
+			final ExecutionStatus status) {
+		return snapshot(state, status, true);
+	}
+
+	/**
+	 * Copies the progress of the state of an execution into its row, with
+	 * its variables or leaving them as of the last checkpoint.
+	 */
+	private Execution snapshot(final ExecutionState state,
+			final ExecutionStatus status, final boolean variables) {
+		Execution execution = state.getExecution();
+		execution.setCurrentControl(state.getCurrentControl());
+		execution.setStatus(status);
+		execution.setLoopCounters(ExecutionState.encode(state.getCounters()));
+		if (variables) {
+			storeVariables(state, variableCodec.encode(state.getGlobals()),
+					variableCodec.encode(state.getLocals()));
+		}
+		execution.setStepNumber(state.getStepNumber());
+		execution.setWakeAt(state.getWakeAt());
+		execution.setUpdated(Instant.now());
+		return execution;
+	}
+
+	private static void storeVariables(final ExecutionState state,
+			final byte[] globals, final byte[] locals) {
+		Execution execution = state.getExecution();
+		execution.setGlobalVariables(globals);
+		execution.setLocalVariables(locals);
+		execution.setVariablesStep(state.getStepNumber());
+	}
+}
@@ -0,0 +1,70 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.orion.workflows.engine;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import dev.orion.workflows.model.ExecutionStatus;
+
+/**
+ * A change of an execution pushed to its subscribers: either a step that was
+ * run, with the variables it changed, or a new status.
+ *
+ * @param execution       The hash of the execution.
+ * @param type            The type of the event.
+ * @param status          The status of the execution.
+ * @param stepNumber      The number of the last recorded step.
+ * @param currentControl  The index of the next step of the plan.
+ * @param service         The name of the service invoked by the step, or
+ *                        null for a status event.
+ * @param checkpoint      Whether the variables are full copies rather than
+ *                        patches of the previous step.
+ * @param localVariables  The local variables, or their patch, or null for a
+ *                        status event.
+ * @param globalVariables The global variables, or their patch, or null for
+ *                        a status event.
+ */
+public record ExecutionEvent(String execution, Type type,
+		ExecutionStatus status, int stepNumber, int currentControl,
+		String service, boolean checkpoint, String localVariables,
+		String globalVariables) {
+
+	/**
+	 * The types of events.
+	 */
+	public enum Type {
+		/**
+		 * A step of the execution was run.
+		 */
+		STEP,
+		/**
+		 * The status of the execution changed.
+		 */
+		STATUS
+	}
+
+	/**
+	 * Tells whether no event follows this one.
+	 *
+	 * @return Whether the execution completed or failed.
+	 */
+	@JsonIgnore
+	public boolean isFinal() {
+		return type == Type.STATUS && (status == ExecutionStatus.COMPLETED
+				|| status == ExecutionStatus.FAILED);
+	}
+}
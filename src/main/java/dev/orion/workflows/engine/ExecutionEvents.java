@@ -0,0 +1,372 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.engine;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import dev.orion.workflows.model.Execution;
+import dev.orion.workflows.model.ExecutionStatus;
+import dev.orion.workflows.repository.ExecutionRepository;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.vertx.LocalEventBusCodec;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.subscription.MultiEmitter;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.core.eventbus.EventBus;
+import io.vertx.mutiny.core.eventbus.MessageConsumer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Pushes the progress of executions to their subscribers through the
+ * in-process event bus, with one address per execution.
+ *
+ * The engine reports every step and status change, but an event is only
+ * built and published when the execution has subscribers on this node, so
+ * watching a few executions costs nothing to the others. While this node
+ * runs an execution, its subscribers get everything from the engine and the
+ * database is only read once, when they subscribe.
+ *
+ * The event bus does not reach other nodes, so the executions watched here
+ * but run elsewhere, or waiting for a signal that another node may receive,
+ * are followed by reading their rows at the poll interval: all of them with
+ * a single query per poll, whatever the number of subscribers. A status
+ * event is emitted when a row moved past the last event. Subscribers of an
+ * execution run elsewhere see its status and step number, not the variables
+ * of each step.
+ */
+@ApplicationScoped
+public class ExecutionEvents {
+
+	private static final Logger LOG = Logger.getLogger(ExecutionEvents.class);
+
+	/**
+	 * The prefix of the addresses of the executions.
+	 */
+	private static final String ADDRESS = "workflows.execution.";
+
+	/**
+	 * The maximum number of executions read by a single query of a poll.
+	 */
+	private static final int POLL_SIZE = 1000;
+
+	/**
+	 * The event bus the events are published on.
+	 */
+	@Inject
+	private EventBus eventBus;
+
+	/**
+	 * The repository for managing executions.
+	 */
+	@Inject
+	private ExecutionRepository executionRepository;
+
+	/**
+	 * The Vert.x instance that drives the polls.
+	 */
+	@Inject
+	private Vertx vertx;
+
+	/**
+	 * The leases, which tell the executions run by this node.
+	 */
+	@Inject
+	private ExecutionLeases leases;
+
+	/**
+	 * How often the executions watched here but not run here are read.
+	 */
+	@ConfigProperty(name = "workflows.events.poll-interval",
+			defaultValue = "PT1S")
+	private Duration pollInterval;
+
+	/**
+	 * The number of subscribers indexed by execution hash.
+	 */
+	private final Map<String, Integer> subscribers = new ConcurrentHashMap<>();
+
+	/**
+	 * The subscriptions to executions not run by this node, indexed by
+	 * execution hash.
+	 */
+	private final Map<String, Set<Subscription>> remote =
+			new ConcurrentHashMap<>();
+
+	/**
+	 * Whether a poll is in progress.
+	 */
+	private final AtomicBoolean polling = new AtomicBoolean();
+
+	/**
+	 * The identifier of the poll timer.
+	 */
+	private long timer = -1;
+
+	@PostConstruct
+	void init() {
+		eventBus.getDelegate().registerDefaultCodec(ExecutionEvent.class,
+				new LocalEventBusCodec<>(ExecutionEvent.class.getName()));
+	}
+
+	void start(@Observes final StartupEvent event) {
+		timer = vertx.setPeriodic(pollInterval.toMillis(), ignored -> poll());
+	}
+
+	@PreDestroy
+	void close() {
+		if (timer >= 0) {
+			vertx.cancelTimer(timer);
+		}
+	}
+
+	/**
+	 * Publishes an event to the subscribers of an execution, if it has any.
+	 *
+	 * @param execution The hash of the execution.
+	 * @param event     The supplier of the event, called only if there are
+	 *                  subscribers.
+	 */
+	public void publish(final String execution,
+			final Supplier<ExecutionEvent> event) {
+		if (subscribers.containsKey(execution)) {
+			eventBus.publish(ADDRESS + execution, event.get());
+		}
+	}
+
+	/**
+	 * Tells the subscribers of an execution that this node no longer runs
+	 * it, because another node took it over. They follow it through the
+	 * polls from then on. The notice is an event without a status, which is
+	 * not passed on to the subscribers.
+	 *
+	 * @param execution The hash of the execution.
+	 */
+	public void released(final String execution) {
+		if (subscribers.containsKey(execution)) {
+			eventBus.publish(ADDRESS + execution, new ExecutionEvent(execution,
+					ExecutionEvent.Type.STATUS, null, -1, -1, null, false,
+					null, null));
+		}
+	}
+
+	/**
+	 * Subscribes to the events of an execution. The first event is a status
+	 * event with the current state of the execution, and the stream completes
+	 * after the execution completes or fails.
+	 *
+	 * @param execution The hash of the execution.
+	 * @return A Multi of the events of the execution, empty if it does not
+	 *         exist.
+	 */
+	public Multi<ExecutionEvent> subscribe(final String execution) {
+		return Multi.createFrom().<ExecutionEvent>emitter(emitter -> {
+			Subscription subscription = new Subscription(execution, emitter);
+			subscribers.merge(execution, 1, Integer::sum);
+			MessageConsumer<ExecutionEvent> consumer = eventBus
+					.localConsumer(ADDRESS + execution,
+							message -> subscription.local(message.body()));
+			emitter.onTermination(() -> {
+				consumer.unregisterAndForget();
+				subscription.close();
+				subscribers.computeIfPresent(execution,
+						(hash, count) -> count == 1 ? null : count - 1);
+			});
+			executionRepository.findByHash(execution).subscribe().with(
+					current -> {
+						if (current == null) {
+							emitter.complete();
+							return;
+						}
+						subscription.emit(status(current));
+						subscription.follow(!runsHere(current));
+					}, emitter::fail);
+		});
+	}
+
+	/**
+	 * Reads the executions followed by the polls and updates their
+	 * subscribers.
+	 */
+	private void poll() {
+		if (remote.isEmpty() || !polling.compareAndSet(false, true)) {
+			return;
+		}
+		List<String> hashes = new ArrayList<>(remote.keySet());
+		Contexts.<Void>onNewContext(vertx, () -> Multi.createFrom()
+				.range(0, (hashes.size() + POLL_SIZE - 1) / POLL_SIZE)
+				.onItem().transformToUniAndConcatenate(
+						chunk -> executionRepository.findAllByHash(
+								hashes.subList(chunk * POLL_SIZE,
+										Math.min(hashes.size(),
+												(chunk + 1) * POLL_SIZE))))
+				.onItem().invoke(executions -> executions.forEach(
+						current -> remote.getOrDefault(current.getHash(),
+								Set.of()).forEach(
+										subscription -> subscription
+												.poll(current))))
+				.onItem().ignoreAsUni())
+				.eventually(() -> polling.set(false))
+				.subscribe().with(ignored -> {
+				}, failure -> LOG.debug("Failed to poll the executions",
+						failure));
+	}
+
+	/**
+	 * Tells whether the engine of this node reports the progress of an
+	 * execution.
+	 */
+	private boolean runsHere(final Execution execution) {
+		return execution.getStatus() == ExecutionStatus.RUNNING
+				&& leases.owner().equals(execution.getOwner());
+	}
+
+	/**
+	 * The events sent to a subscriber, whether they come from the engine of
+	 * this node or from the polls of the execution.
+	 */
+	private final class Subscription {
+
+		/**
+		 * The hash of the execution.
+		 */
+		private final String execution;
+
+		/**
+		 * The emitter of the subscriber.
+		 */
+		private final MultiEmitter<? super ExecutionEvent> emitter;
+
+		/**
+		 * The step number of the last event.
+		 */
+		private int stepNumber = -1;
+
+		/**
+		 * The status of the last event.
+		 */
+		private ExecutionStatus status;
+
+		/**
+		 * Whether the stream of the subscriber ended.
+		 */
+		private boolean closed;
+
+		private Subscription(final String execution,
+				final MultiEmitter<? super ExecutionEvent> emitter) {
+			this.execution = execution;
+			this.emitter = emitter;
+		}
+
+		synchronized void emit(final ExecutionEvent event) {
+			if (emitter.isCancelled()) {
+				return;
+			}
+			stepNumber = Math.max(stepNumber, event.stepNumber());
+			status = event.status();
+			emitter.emit(event);
+			if (event.isFinal()) {
+				closed = true;
+				emitter.complete();
+			}
+		}
+
+		/**
+		 * Handles an event of the engine of this node. The execution is
+		 * followed by the polls once it is parked or taken over, since
+		 * another node may resume it.
+		 */
+		synchronized void local(final ExecutionEvent event) {
+			if (event.status() == null) {
+				follow(true);
+				return;
+			}
+			emit(event);
+			follow(event.status() != ExecutionStatus.RUNNING);
+		}
+
+		synchronized void poll(final Execution current) {
+			if (runsHere(current)) {
+				follow(false);
+				return;
+			}
+			if (current.getStepNumber() > stepNumber
+					|| current.getStepNumber() == stepNumber
+							&& current.getStatus() != status) {
+				emit(status(current));
+			}
+		}
+
+		synchronized void close() {
+			closed = true;
+			follow(false);
+		}
+
+		/**
+		 * Adds the subscription to the polls, or removes it.
+		 */
+		synchronized void follow(final boolean polled) {
+			if (polled && !closed && !emitter.isCancelled()) {
+				remote.computeIfAbsent(execution,
+						hash -> ConcurrentHashMap.newKeySet()).add(this);
+			} else {
+				remote.computeIfPresent(execution, (hash, subscriptions) -> {
+					subscriptions.remove(this);
+					return subscriptions.isEmpty() ? null : subscriptions;
+				});
+			}
+		}
+	}
+
+	/**
+	 * Creates the status event of a stored execution.
+	 */
+	private static ExecutionEvent status(final Execution execution) {
+		return new ExecutionEvent(execution.getHash(),
+				ExecutionEvent.Type.STATUS, execution.getStatus(),
+				execution.getStepNumber(), execution.getCurrentControl(), null,
+				false, null, null);
+	}
+
+	/**
+	 * Creates the status event of an execution.
+	 *
+	 * @param state  The state of the execution.
+	 * @param status The new status.
+	 * @return The event.
+	 */
+	static ExecutionEvent status(final ExecutionState state,
+			final ExecutionStatus status) {
+		return new ExecutionEvent(state.getExecution().getHash(),
+				ExecutionEvent.Type.STATUS, status, state.getStepNumber(),
+				state.getCurrentControl(), null, false, null, null);
+	}
+}
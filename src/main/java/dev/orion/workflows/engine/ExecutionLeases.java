@@ -0,0 +1,270 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.orion.workflows.engine;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import dev.orion.workflows.model.TimeOrderedId;
+import dev.orion.workflows.repository.ExecutionRepository;
+import io.quarkus.hibernate.reactive.panache.Panache;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.core.Vertx;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Gives each running execution an owner, the node running it, and recovers
+ * the executions whose owner died.
+ *
+ * A node holds its running executions under a lease that it renews for all
+ * the runs it has in progress at once, with one update per renewal
+ * interval. An execution whose run ended without completing it, for
+ * instance because it could not be reloaded, is no longer renewed, so its
+ * lease expires and it is recovered like the executions of a dead node. When a node stops
+ * renewing, the leases of its executions expire, and the sweeper of any
+ * node takes them over one by one with a conditional update and resumes them
+ * from their last recorded step. Progress is only written while the writer
+ * still owns the execution, so a node that lost an execution stops running
+ * it at its next step. A node configured with a stable name ends the leases
+ * it held before a restart as soon as it starts, to resume its executions
+ * without waiting for them to expire. Each node only sweeps the
+ * partitions it owns, and sweeps first once its first heartbeat assigned
+ * them.
+ */
+@ApplicationScoped
+public class ExecutionLeases {
+
+	private static final Logger LOG = Logger.getLogger(ExecutionLeases.class);
+
+	/**
+	 * The maximum number of leases renewed by a single update.
+	 */
+	private static final int RENEW_SIZE = 1000;
+
+	/**
+	 * The Vert.x instance used to renew the leases and sweep.
+	 */
+	@Inject
+	private Vertx vertx;
+
+	/**
+	 * The engine that resumes the executions taken over.
+	 */
+	@Inject
+	private ExecutionEngine engine;
+
+	/**
+	 * The repository for managing executions.
+	 */
+	@Inject
+	private ExecutionRepository executionRepository;
+
+	/**
+	 * The partitions of the executions owned by this node.
+	 */
+	@Inject
+	private PartitionOwnership ownership;
+
+	/**
+	 * The name of this node, a new one on each start unless configured.
+	 */
+	@ConfigProperty(name = "workflows.leases.node")
+	private Optional<String> node;
+
+	/**
+	 * The duration of a lease.
+	 */
+	@ConfigProperty(name = "workflows.leases.duration", defaultValue = "PT30S")
+	private Duration duration;
+
+	/**
+	 * The interval between two renewals of the leases of this node.
+	 */
+	@ConfigProperty(name = "workflows.leases.renew-interval",
+			defaultValue = "PT10S")
+	private Duration renewInterval;
+
+	/**
+	 * The interval between two searches for executions with expired leases.
+	 */
+	@ConfigProperty(name = "workflows.leases.sweep-interval",
+			defaultValue = "PT15S")
+	private Duration sweepInterval;
+
+	/**
+	 * The maximum number of executions taken over by a sweep.
+	 */
+	@ConfigProperty(name = "workflows.leases.sweep-size", defaultValue = "100")
+	private int sweepSize;
+
+	/**
+	 * The name of this node.
+	 */
+	private String owner;
+
+	/**
+	 * The number of runs in progress on this node, indexed by execution
+	 * identifier.
+	 */
+	private final Map<Long, Integer> runs = new ConcurrentHashMap<>();
+
+	/**
+	 * The identifiers of the periodic timers.
+	 */
+	private long[] timers = {};
+
+	@PostConstruct
+	void init() {
+		owner = node.orElseGet(TimeOrderedId::next);
+	}
+
+	void start(@Observes final StartupEvent event) {
+		Contexts.<Integer>onNewContext(vertx, () -> Panache.withTransaction(
+				() -> executionRepository.expireLeases(owner)))
+				.chain(ownership::ready)
+				.subscribe().with(
+						partitions -> sweep(),
+						failure -> LOG.warn("Failed to release the leases",
+								failure));
+		timers = new long[] {
+			vertx.setPeriodic(renewInterval.toMillis(), ignored -> renew()),
+			vertx.setPeriodic(sweepInterval.toMillis(), ignored -> sweep())
+		};
+	}
+
+	@PreDestroy
+	void close() {
+		for (long timer : timers) {
+			vertx.cancelTimer(timer);
+		}
+	}
+
+	/**
+	 * Returns the name of this node, which owns the executions it runs.
+	 *
+	 * @return The name of the node.
+	 */
+	public String owner() {
+		return owner;
+	}
+
+	/**
+	 * Records that a run of an execution started on this node, so its lease
+	 * is renewed until the run ends.
+	 *
+	 * @param executionId The identifier of the execution.
+	 */
+	void started(final Long executionId) {
+		runs.merge(executionId, 1, Integer::sum);
+	}
+
+	/**
+	 * Records that a run of an execution ended on this node, whatever the
+	 * outcome. Unless another run of it is in progress, its lease is no
+	 * longer renewed, so an execution left running by a failed run expires
+	 * and is recovered by a sweep.
+	 *
+	 * @param executionId The identifier of the execution.
+	 */
+	void ended(final Long executionId) {
+		runs.computeIfPresent(executionId,
+				(id, count) -> count == 1 ? null : count - 1);
+	}
+
+	/**
+	 * Returns the end of a lease taken now.
+	 *
+	 * @return The time until which a lease taken now is held.
+	 */
+	public Instant expiry() {
+		return Instant.now().plus(duration);
+	}
+
+	private void renew() {
+		List<Long> ids = new ArrayList<>(runs.keySet());
+		if (ids.isEmpty()) {
+			return;
+		}
+		Instant until = expiry();
+		Contexts.<Integer>onNewContext(vertx, () -> Panache.withTransaction(
+				() -> Multi.createFrom()
+						.range(0, (ids.size() + RENEW_SIZE - 1) / RENEW_SIZE)
+						.onItem().transformToUniAndConcatenate(
+								chunk -> executionRepository.renewLeases(owner,
+										ids.subList(chunk * RENEW_SIZE,
+												Math.min(ids.size(),
+														(chunk + 1)
+																* RENEW_SIZE)),
+										until))
+						.collect().with(Collectors.summingInt(
+								Integer::intValue))))
+				.subscribe().with(
+						renewed -> LOG.debugf("Renewed %d leases", renewed),
+						failure -> LOG.warn("Failed to renew the leases",
+								failure));
+	}
+
+	private void sweep() {
+		List<Integer> partitions = ownership.owned();
+		if (partitions.isEmpty()) {
+			return;
+		}
+		Contexts.<List<Long>>onNewContext(vertx,
+				() -> executionRepository.findOrphans(partitions, sweepSize))
+				.subscribe().with(
+						orphans -> orphans.forEach(engine::recover),
+						failure -> LOG.warn("Failed to sweep the executions",
+								failure));
+	}
+
+	/**
+	 * Takes over a running execution whose lease has expired.
+	 *
+	 * @param executionId The identifier of the execution.
+	 * @return A Uni containing true if this node now owns the execution.
+	 */
+	Uni<Boolean> takeOver(final Long executionId) {
+		return Panache.withTransaction(() -> executionRepository
+				.takeOver(executionId, owner, expiry()));
+	}
+
+	/**
+	 * Claims a waiting execution to resume it.
+	 *
+	 * @param executionId The identifier of the execution.
+	 * @return A Uni containing true if this node now owns the execution.
+	 */
+	Uni<Boolean> claim(final Long executionId) {
+		return Panache.withTransaction(() -> executionRepository
+				.claim(executionId, owner, expiry()));
+	}
+}
@@ -0,0 +1,312 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.engine;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import dev.orion.workflows.expression.Scope;
+import dev.orion.workflows.model.Execution;
+import dev.orion.workflows.model.Service;
+import dev.orion.workflows.plan.WorkflowPlan;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The in-memory state of an execution while the engine advances it. The
+ * variables are kept parsed for the whole run and written back to the
+ * Execution entity whenever its progress is persisted. As a {@link Scope},
+ * the state resolves the variables of conditions in place, local ones first.
+ *
+ * The branches of a parallel control, and the iterations of a parallel
+ * loop, run on states forked from the state of the execution: they share its
+ * plan, global variables and step counter, and work on a copy of its local
+ * variables and loop counters.
+ *
+ * The calls of a summarized loop are not recorded one by one: the state
+ * keeps the last of them, and their number, until the next recorded step.
+ */
+@Getter
+public class ExecutionState implements Scope {
+
+	/**
+	 * The execution being advanced.
+	 */
+	private final Execution execution;
+
+	/**
+	 * The state this branch was forked from, or null for the state of the
+	 * execution itself.
+	 */
+	private final ExecutionState parent;
+
+	/**
+	 * The index of the branch among the branches of its parallel control.
+	 */
+	private final int branch;
+
+	/**
+	 * The compiled plan of the workflow of the execution.
+	 */
+	private final WorkflowPlan plan;
+
+	/**
+	 * The global variables of the execution.
+	 */
+	private final ObjectNode globals;
+
+	/**
+	 * The local variables of the execution.
+	 */
+	private final ObjectNode locals;
+
+	/**
+	 * The iteration counters of the loops of the plan.
+	 */
+	private final int[] counters;
+
+	/**
+	 * The index of the plan step to run next.
+	 */
+	@Setter
+	private int currentControl;
+
+	/**
+	 * The number of the last recorded step.
+	 */
+	private int stepNumber;
+
+	/**
+	 * The time at which the current WAIT step stops waiting, or null if the
+	 * execution is not waiting or waits for signals only.
+	 */
+	@Setter
+	private Instant wakeAt;
+
+	/**
+	 * Whether the run stopped on a WAIT step rather than at the end of the
+	 * plan.
+	 */
+	@Setter
+	private boolean parked;
+
+	/**
+	 * When the state last looked for the signal of a loop, in milliseconds,
+	 * or zero if it never did.
+	 */
+	@Setter
+	private long signalsChecked;
+
+	/**
+	 * The global variables as of the last recorded step, or null if no step
+	 * has been recorded by this run.
+	 */
+	private ObjectNode recordedGlobals;
+
+	/**
+	 * The local variables as of the last recorded step, or null if no step
+	 * has been recorded by this run.
+	 */
+	private ObjectNode recordedLocals;
+
+	/**
+	 * The service of the last call not recorded yet, or null.
+	 */
+	private Service summaryService;
+
+	/**
+	 * The last call not recorded yet, or null.
+	 */
+	private ServiceCall summaryCall;
+
+	/**
+	 * The number of calls made since the last recorded step and not recorded
+	 * yet.
+	 */
+	private int summaryCalls;
+
+	/**
+	 * Creates the state of an execution.
+	 *
+	 * @param execution The execution being advanced.
+	 * @param plan      The compiled plan of the workflow.
+	 * @param globals   The parsed global variables.
+	 * @param locals    The parsed local variables.
+	 */
+	public ExecutionState(final Execution execution, final WorkflowPlan plan,
+			final ObjectNode globals, final ObjectNode locals) {
+		this.execution = execution;
+		this.parent = null;
+		this.branch = 0;
+		this.plan = plan;
+		this.globals = globals;
+		this.locals = locals;
+		this.counters = decode(execution.getLoopCounters(), plan.getSlots());
+		this.currentControl = execution.getCurrentControl() == null ? 0
+				: execution.getCurrentControl();
+		this.stepNumber = execution.getStepNumber();
+		this.wakeAt = execution.getWakeAt();
+	}
+
+	private ExecutionState(final ExecutionState parent, final int branch,
+			final int start) {
+		this.execution = parent.execution;
+		this.parent = parent;
+		this.branch = branch;
+		this.plan = parent.plan;
+		this.globals = parent.globals;
+		this.locals = parent.locals.deepCopy();
+		this.counters = parent.counters.clone();
+		this.currentControl = start;
+	}
+
+	/**
+	 * Creates the state of a branch of a parallel control, or of an iteration
+	 * of a parallel loop.
+	 *
+	 * @param branch The index of the branch or iteration.
+	 * @param start  The index of the first step of the branch.
+	 * @return The state of the branch.
+	 */
+	public ExecutionState fork(final int branch, final int start) {
+		return new ExecutionState(this, branch, start);
+	}
+
+	/**
+	 * Merges the local variables of the branches that joined, in the order
+	 * of the branches. The next recorded step will hold a full copy of the
+	 * variables, since the steps of the branches were recorded in between.
+	 *
+	 * @param branches The states of the branches that joined.
+	 */
+	public void join(final List<ExecutionState> branches) {
+		branches.stream()
+				.sorted(Comparator.comparingInt(ExecutionState::getBranch))
+				.forEach(joined -> locals.setAll(joined.locals));
+		recordedGlobals = null;
+		recordedLocals = null;
+	}
+
+	/**
+	 * Returns the state of the execution this state belongs to.
+	 *
+	 * @return The outermost state.
+	 */
+	public ExecutionState root() {
+		return parent == null ? this : parent.root();
+	}
+
+	/**
+	 * Returns the variables visible to the current step: the global variables
+	 * overridden by the local ones.
+	 *
+	 * @return A new object holding the visible variables.
+	 */
+	public ObjectNode variables() {
+		ObjectNode variables = globals.deepCopy();
+		variables.setAll(locals);
+		return variables;
+	}
+
+	@Override
+	public JsonNode variable(final String name) {
+		JsonNode value = locals.get(name);
+		return value != null ? value : globals.get(name);
+	}
+
+	/**
+	 * Advances the step counter.
+	 *
+	 * @return The number of the new step.
+	 */
+	public int nextStep() {
+		return parent != null ? parent.nextStep() : ++stepNumber;
+	}
+
+	/**
+	 * Remembers the current variables as the ones of the last recorded step.
+	 */
+	public void recorded() {
+		recordedGlobals = globals.deepCopy();
+		recordedLocals = locals.deepCopy();
+	}
+
+	/**
+	 * Brings the variables of the last recorded step up to date with the
+	 * patches of a step, which copies the changed values only.
+	 *
+	 * @param globalPatch The patch of the global variables.
+	 * @param localPatch  The patch of the local variables.
+	 */
+	public void recorded(final JsonNode globalPatch,
+			final JsonNode localPatch) {
+		VariableDelta.apply(recordedGlobals, globalPatch);
+		VariableDelta.apply(recordedLocals, localPatch);
+	}
+
+	/**
+	 * Adds a call to the summary of the calls not recorded yet.
+	 *
+	 * @param service The service invoked.
+	 * @param call    The call.
+	 */
+	public void summarize(final Service service, final ServiceCall call) {
+		summaryService = service;
+		summaryCall = call;
+		summaryCalls++;
+	}
+
+	/**
+	 * Forgets the summary of the calls once it has been recorded.
+	 */
+	public void clearSummary() {
+		summaryService = null;
+		summaryCall = null;
+		summaryCalls = 0;
+	}
+
+	/**
+	 * Encodes loop counters as they are stored in an execution.
+	 *
+	 * @param counters The counters.
+	 * @return The counters separated by commas.
+	 */
+	static String encode(final int[] counters) {
+		StringBuilder text = new StringBuilder(counters.length * 2);
+		for (int i = 0; i < counters.length; i++) {
+			text.append(i == 0 ? "" : ",").append(counters[i]);
+		}
+		return text.toString();
+	}
+
+	private static int[] decode(final String text, final int slots) {
+		int[] counters = new int[slots];
+		if (text == null || text.isEmpty()) {
+			return counters;
+		}
+		String[] values = text.split(",");
+		for (int i = 0; i < values.length && i < slots; i++) {
+			counters[i] = Integer.parseInt(values[i]);
+		}
+		return counters;
+	}
+}
@@ -0,0 +1,43 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.orion.workflows.engine;
+
+import java.time.Instant;
+
+/**
+ * A step of the history of an execution, as it is streamed to clients.
+ *
+ * @param stepNumber       The number of the step.
+ * @param service          The name of the service invoked by the step.
+ * @param executed         The time the step was executed.
+ * @param checkpoint       Whether full copies of the variables were recorded.
+ * @param requestMimeType  The MIME type of the request.
+ * @param requestPayload   The hash of the request payload, or null.
+ * @param requestData      The request body, or null if the bodies were not
+ *                         requested.
+ * @param responseMimeType The MIME type of the response.
+ * @param responsePayload  The hash of the response payload, or null.
+ * @param responseData     The response body, or null if the bodies were not
+ *                         requested.
+ * @param calls            The number of calls the step stands for, more
+ *                         than one for the summary of a loop.
+ */
+public record HistoryEntry(int stepNumber, String service, Instant executed,
+		boolean checkpoint, String requestMimeType, String requestPayload,
+		String requestData, String responseMimeType, String responsePayload,
+		String responseData, int calls) {
+}
@@ -0,0 +1,148 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.orion.workflows.engine;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import dev.orion.workflows.model.Payload;
+import dev.orion.workflows.repository.HistoryRepository;
+import dev.orion.workflows.repository.PayloadRepository;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Streams the history of an execution and the payloads it refers to.
+ *
+ * The history is read one page at a time, each page starting after the last
+ * step of the previous one, so the memory used does not depend on the length
+ * of the history and the next page is read only once the client has taken
+ * the current one. Bodies can be left out of the pages and fetched on their
+ * own, as slices of their stored data.
+ */
+@ApplicationScoped
+public class HistoryReader {
+
+	/**
+	 * The repository for managing the execution history.
+	 */
+	@Inject
+	private HistoryRepository historyRepository;
+
+	/**
+	 * The repository for managing payloads.
+	 */
+	@Inject
+	private PayloadRepository payloadRepository;
+
+	/**
+	 * The encoder restoring the bodies of the payloads.
+	 */
+	@Inject
+	private PayloadEncoder payloadEncoder;
+
+	/**
+	 * The number of history records read by a query.
+	 */
+	@ConfigProperty(name = "workflows.history.page-size",
+			defaultValue = "100")
+	private int pageSize;
+
+	/**
+	 * The number of payload bytes read by a query.
+	 */
+	@ConfigProperty(name = "workflows.payloads.slice-size",
+			defaultValue = "65536")
+	private int sliceSize;
+
+	/**
+	 * Streams the history of an execution in step order.
+	 *
+	 * @param executionHash The hash of the execution.
+	 * @param afterStep     The step number after which the stream starts.
+	 * @param bodies        Whether to include the request and response bodies.
+	 * @return A Multi of the steps.
+	 */
+	public Multi<HistoryEntry> stream(final String executionHash,
+			final int afterStep, final boolean bodies) {
+		return Multi.createBy().repeating()
+				.uni(() -> new int[] {afterStep},
+						last -> historyRepository.findPage(executionHash,
+								last[0], pageSize, bodies)
+								.invoke(page -> {
+									if (!page.isEmpty()) {
+										last[0] = (Integer) page
+												.get(page.size() - 1)[0];
+									}
+								}))
+				.whilst(page -> page.size() == pageSize)
+				.onItem().transformToIterable(page -> page.stream()
+						.map(row -> entry(row, bodies)).toList());
+	}
+
+	/**
+	 * Streams the data of a payload as it is stored, one slice at a time.
+	 *
+	 * @param hash The hash of the payload.
+	 * @return A Uni containing the encoding of the payload and the Multi of
+	 *         its slices, or null if the payload does not exist.
+	 */
+	public Uni<PayloadStream> payload(final String hash) {
+		return payloadRepository.findLayout(hash)
+				.onItem().ifNotNull().transform(layout -> {
+					long size = ((Number) layout[1]).longValue();
+					return new PayloadStream((String) layout[0], size,
+							slices(hash, size));
+				});
+	}
+
+	private Multi<byte[]> slices(final String hash, final long size) {
+		return Multi.createFrom()
+				.range(0, (int) ((size + sliceSize - 1) / sliceSize))
+				.onItem().transformToUniAndConcatenate(slice -> payloadRepository
+						.readSlice(hash, (long) slice * sliceSize, sliceSize));
+	}
+
+	private HistoryEntry entry(final Object[] row, final boolean bodies) {
+		return new HistoryEntry((Integer) row[0], (String) row[1],
+				(Instant) row[2], (Boolean) row[3], (String) row[4],
+				(String) row[5], bodies ? body((Payload) row[9]) : null,
+				(String) row[6], (String) row[7],
+				bodies ? body((Payload) row[10]) : null, (Integer) row[8]);
+	}
+
+	private String body(final Payload payload) {
+		return payload == null ? null
+				: new String(payloadEncoder.decode(payload),
+						StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * The stored data of a payload.
+	 *
+	 * @param encoding The encoding of the data, either identity or deflate.
+	 * @param size     The size of the stored data in bytes.
+	 * @param data     The slices of the data.
+	 */
+	public record PayloadStream(String encoding, long size,
+			Multi<byte[]> data) {
+	}
+}
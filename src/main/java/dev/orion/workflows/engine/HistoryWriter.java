@@ -0,0 +1,417 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.engine;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.reactive.mutiny.Mutiny;
+import org.jboss.logging.Logger;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import dev.orion.workflows.model.Execution;
+import dev.orion.workflows.model.History;
+import dev.orion.workflows.model.Payload;
+import dev.orion.workflows.repository.ExecutionRepository;
+import dev.orion.workflows.repository.HistoryRepository;
+import dev.orion.workflows.repository.PayloadRepository;
+import io.quarkus.hibernate.reactive.panache.Panache;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.UniEmitter;
+import io.vertx.mutiny.core.Vertx;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Writes the History rows produced by the engine together with the progress
+ * of their executions.
+ *
+ * With {@link Durability#STEP} every step is committed in its own
+ * transaction. With {@link Durability#GROUP} the steps of all executions are
+ * buffered and committed together, with one update of the progress of
+ * their executions and one batch of inserts, when the buffer reaches the
+ * batch size or when the flush interval elapses. If a batch fails, its steps
+ * are committed again one by one, so a failure only affects the executions
+ * whose own step cannot be written. In both modes
+ * the Uni returned by {@link #write(History, Execution)} completes only once
+ * the step is committed, so an execution never runs ahead of its history.
+ * When the buffer is full, new steps wait until a flush makes room for them.
+ *
+ * The request and response bodies of the steps are stored once per distinct
+ * content in the payload table; History rows only refer to them.
+ */
+@ApplicationScoped
+public class HistoryWriter {
+
+	private static final Logger LOG = Logger.getLogger(HistoryWriter.class);
+
+	/**
+	 * The commit policies of the writer.
+	 */
+	public enum Durability {
+
+		/**
+		 * Each step is committed in its own transaction.
+		 */
+		STEP,
+
+		/**
+		 * Steps are buffered and committed in batches.
+		 */
+		GROUP
+	}
+
+	/**
+	 * A step waiting to be committed.
+	 *
+	 * @param history   The History row of the step.
+	 * @param execution The execution holding the progress to be persisted.
+	 * @param emitter   The emitter notified when the step is committed.
+	 */
+	private record Pending(History history, Execution execution,
+			UniEmitter<? super Void> emitter) {
+	}
+
+	/**
+	 * The Vert.x instance that drives the flush timer.
+	 */
+	@Inject
+	private Vertx vertx;
+
+	/**
+	 * The repository for managing the execution history.
+	 */
+	@Inject
+	private HistoryRepository historyRepository;
+
+	/**
+	 * The repository for managing executions.
+	 */
+	@Inject
+	private ExecutionRepository executionRepository;
+
+	/**
+	 * The repository for managing the request and response payloads.
+	 */
+	@Inject
+	private PayloadRepository payloadRepository;
+
+	/**
+	 * The commit policy.
+	 */
+	@ConfigProperty(name = "workflows.history.durability",
+			defaultValue = "GROUP")
+	private Durability durability;
+
+	/**
+	 * The number of buffered steps that triggers a flush.
+	 */
+	@ConfigProperty(name = "workflows.history.batch-size",
+			defaultValue = "256")
+	private int batchSize;
+
+	/**
+	 * The maximum time a buffered step waits for a flush.
+	 */
+	@ConfigProperty(name = "workflows.history.flush-interval",
+			defaultValue = "PT0.02S")
+	private Duration flushInterval;
+
+	/**
+	 * The maximum number of buffered steps.
+	 */
+	@ConfigProperty(name = "workflows.history.buffer-capacity",
+			defaultValue = "4096")
+	private int capacity;
+
+	/**
+	 * The hashes of the payloads known to be stored, so they are not sent to
+	 * the database again.
+	 */
+	private final Cache<String, Boolean> stored = Caffeine.newBuilder()
+			.maximumSize(10_000)
+			.build();
+
+	/**
+	 * The buffered steps.
+	 */
+	private final Queue<Pending> buffer = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * The steps waiting for room in the buffer.
+	 */
+	private final Queue<Pending> blocked = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * The number of buffered steps.
+	 */
+	private final AtomicInteger buffered = new AtomicInteger();
+
+	/**
+	 * Whether a flush is in progress.
+	 */
+	private final AtomicBoolean flushing = new AtomicBoolean();
+
+	/**
+	 * The identifier of the flush timer.
+	 */
+	private long timer = -1;
+
+	@PostConstruct
+	void init() {
+		if (durability == Durability.GROUP) {
+			timer = vertx.setPeriodic(flushInterval.toMillis(),
+					ignored -> flush());
+		}
+	}
+
+	@PreDestroy
+	void close() {
+		if (timer >= 0) {
+			vertx.cancelTimer(timer);
+		}
+		flush();
+	}
+
+	/**
+	 * Writes the History row of a step and the progress of its execution.
+	 *
+	 * @param history   The History row of the step.
+	 * @param execution The execution holding the progress to be persisted.
+	 * @return A Uni that completes when the step is committed. It fails with
+	 *         a {@link LeaseLostException} if the execution has been taken
+	 *         over by another node, in which case its progress is not
+	 *         written.
+	 */
+	public Uni<Void> write(final History history, final Execution execution) {
+		if (durability == Durability.STEP) {
+			return commit(List.of(history), List.of(execution))
+					.invoke(updated -> {
+						if (updated.get(0) == 0) {
+							throw new LeaseLostException(execution.id);
+						}
+					})
+					.replaceWithVoid();
+		}
+		return Contexts.onCallerContext(Uni.createFrom().emitter(
+				emitter -> enqueue(new Pending(history, execution, emitter))));
+	}
+
+	/**
+	 * Returns the number of steps waiting to be written, whether buffered or
+	 * waiting for room in the buffer.
+	 *
+	 * @return The number of pending steps.
+	 */
+	public int pending() {
+		return buffered.get() + blocked.size();
+	}
+
+	private void enqueue(final Pending pending) {
+		if (buffered.get() >= capacity) {
+			blocked.add(pending);
+			flush();
+			return;
+		}
+		buffer.add(pending);
+		if (buffered.incrementAndGet() >= batchSize) {
+			flush();
+		}
+	}
+
+	private void flush() {
+		if (!flushing.compareAndSet(false, true)) {
+			return;
+		}
+		List<Pending> batch = new ArrayList<>(batchSize);
+		Pending pending;
+		while (batch.size() < batchSize && (pending = buffer.poll()) != null) {
+			buffered.decrementAndGet();
+			batch.add(pending);
+		}
+		while (buffered.get() < capacity
+				&& (pending = blocked.poll()) != null) {
+			buffer.add(pending);
+			buffered.incrementAndGet();
+		}
+		if (batch.isEmpty()) {
+			flushing.set(false);
+			return;
+		}
+
+		List<History> rows = new ArrayList<>(batch.size());
+		List<Execution> executions = new ArrayList<>(batch.size());
+		for (Pending step : batch) {
+			rows.add(step.history());
+			executions.add(step.execution());
+		}
+		Contexts.onNewContext(vertx, () -> commit(rows, executions))
+				.subscribe().with(
+						updated -> {
+							for (int i = 0; i < batch.size(); i++) {
+								settle(batch.get(i), updated.get(i));
+							}
+							flushed();
+						},
+						failure -> {
+							if (batch.size() == 1) {
+								failed(batch.get(0), failure);
+								flushed();
+								return;
+							}
+							LOG.debugf(failure, "Failed to write %d steps "
+									+ "together, writing them one by one",
+									batch.size());
+							retry(batch);
+						});
+	}
+
+	/**
+	 * Commits the steps of a failed batch one by one, so a step that cannot
+	 * be written only fails its own execution.
+	 */
+	private void retry(final List<Pending> batch) {
+		Contexts.onNewContext(vertx, () -> Multi.createFrom().iterable(batch)
+				.onItem().transformToUniAndConcatenate(step -> commit(
+						List.of(step.history()), List.of(step.execution()))
+						.invoke(updated -> settle(step, updated.get(0)))
+						.onFailure().invoke(failure -> failed(step, failure))
+						.onFailure().recoverWithNull())
+				.onItem().ignoreAsUni())
+				.subscribe().with(ignored -> flushed(), ignored -> flushed());
+	}
+
+	private static void settle(final Pending step, final int updated) {
+		if (updated == 0) {
+			step.emitter().fail(new LeaseLostException(step.execution().id));
+		} else {
+			step.emitter().complete(null);
+		}
+	}
+
+	private static void failed(final Pending step, final Throwable failure) {
+		LOG.warnf(failure, "Failed to write step %d of execution %d",
+				step.history().getStepNumber(), step.execution().id);
+		step.emitter().fail(failure);
+	}
+
+	private void flushed() {
+		flushing.set(false);
+		if (buffered.get() >= batchSize || !blocked.isEmpty()) {
+			flush();
+		}
+	}
+
+	/**
+	 * Commits the progress of executions and their History rows in one
+	 * transaction. The progress is written first, with one update fenced on
+	 * the owner of each execution, and only the rows of the executions whose
+	 * progress was written are inserted, so a node that lost an execution
+	 * adds nothing to its history. The payloads referenced by those rows are
+	 * stored before them, with a single insert that skips the ones already
+	 * stored. The Uni contains the number of rows updated for each
+	 * execution, 0 for the executions that are owned by another node. If the
+	 * transaction fails, the rows are left as they were given, so they can
+	 * be committed again.
+	 */
+	private Uni<List<Integer>> commit(final List<History> rows,
+			final List<Execution> executions) {
+		Map<String, Payload> payloads = new LinkedHashMap<>();
+		List<Payload[]> bodies = rows.stream()
+				.map(row -> new Payload[] { row.getRequestPayload(),
+						row.getResponsePayload() })
+				.toList();
+		return Panache.withTransaction(() -> executionRepository
+				.updateProgress(executions)
+				.call(updated -> insert(owned(rows, updated), payloads)))
+				.invoke(() -> payloads.keySet()
+						.forEach(hash -> stored.put(hash, Boolean.TRUE)))
+				.onFailure().invoke(() -> {
+					for (int i = 0; i < rows.size(); i++) {
+						History row = rows.get(i);
+						row.id = null;
+						row.setRequestPayload(bodies.get(i)[0]);
+						row.setResponsePayload(bodies.get(i)[1]);
+					}
+				});
+	}
+
+	/**
+	 * Returns the rows whose execution was updated.
+	 */
+	private static List<History> owned(final List<History> rows,
+			final List<Integer> updated) {
+		List<History> owned = new ArrayList<>(rows.size());
+		for (int i = 0; i < rows.size(); i++) {
+			if (updated.get(i) > 0) {
+				owned.add(rows.get(i));
+			}
+		}
+		return owned;
+	}
+
+	/**
+	 * Inserts History rows and the payloads they refer to, collecting the
+	 * stored payloads by hash.
+	 */
+	private Uni<Void> insert(final List<History> rows,
+			final Map<String, Payload> payloads) {
+		if (rows.isEmpty()) {
+			return Uni.createFrom().voidItem();
+		}
+		for (History row : rows) {
+			collect(payloads, row.getRequestPayload());
+			collect(payloads, row.getResponsePayload());
+		}
+		return payloadRepository.storeAll(payloads.values())
+				.chain(Panache::getSession)
+				.invoke(session -> rows.forEach(row -> {
+					row.setRequestPayload(reference(session,
+							row.getRequestPayload()));
+					row.setResponsePayload(reference(session,
+							row.getResponsePayload()));
+				}))
+				.chain(() -> historyRepository.persist(rows));
+	}
+
+	private void collect(final Map<String, Payload> payloads,
+			final Payload payload) {
+		if (payload != null && stored.getIfPresent(payload.getHash()) == null) {
+			payloads.putIfAbsent(payload.getHash(), payload);
+		}
+	}
+
+	private static Payload reference(final Mutiny.Session session,
+			final Payload payload) {
+		return payload == null ? null
+				: session.getReference(Payload.class, payload.getHash());
+	}
+}
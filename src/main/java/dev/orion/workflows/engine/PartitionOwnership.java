@@ -0,0 +1,200 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.orion.workflows.engine;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import dev.orion.workflows.repository.ClusterRepository;
+import io.quarkus.hibernate.reactive.panache.Panache;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.core.Vertx;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Shares the partitions of the executions among the nodes of the cluster.
+ *
+ * Executions are spread over a fixed number of partitions by hash. The
+ * owner of a partition is the only node that polls the timers of its
+ * executions and recovers the ones whose node died, so this background work
+ * is split among the nodes instead of being repeated by each of them.
+ * Executions are still started and resumed by any node, under their own
+ * lease.
+ *
+ * On every heartbeat a node renews its partitions and compares their number
+ * with its fair share, the number of partitions divided by the number of
+ * live nodes: it gives the extra ones back when nodes joined, and takes
+ * free or expired ones when nodes left. Ownership thus converges to an even
+ * split within a few heartbeats of a change. A node that stops gives its
+ * partitions back at once.
+ */
+@ApplicationScoped
+public class PartitionOwnership {
+
+	private static final Logger LOG = Logger
+			.getLogger(PartitionOwnership.class);
+
+	/**
+	 * The Vert.x instance used to send the heartbeats.
+	 */
+	@Inject
+	private Vertx vertx;
+
+	/**
+	 * The leases of the executions, which name this node.
+	 */
+	@Inject
+	private ExecutionLeases leases;
+
+	/**
+	 * The repository for managing the cluster.
+	 */
+	@Inject
+	private ClusterRepository clusterRepository;
+
+	/**
+	 * The number of partitions of the executions.
+	 */
+	@ConfigProperty(name = "workflows.cluster.partitions", defaultValue = "64")
+	private int partitions;
+
+	/**
+	 * The interval between two heartbeats.
+	 */
+	@ConfigProperty(name = "workflows.cluster.heartbeat", defaultValue = "PT5S")
+	private Duration heartbeat;
+
+	/**
+	 * The time after its last heartbeat at which a node and its partitions
+	 * are considered gone.
+	 */
+	@ConfigProperty(name = "workflows.cluster.timeout", defaultValue = "PT15S")
+	private Duration timeout;
+
+	/**
+	 * The partitions owned by this node, replaced as a whole on each
+	 * heartbeat.
+	 */
+	private volatile List<Integer> owned = List.of();
+
+	/**
+	 * Completed with the partitions assigned by the first heartbeat.
+	 */
+	private final CompletableFuture<List<Integer>> joined =
+			new CompletableFuture<>();
+
+	/**
+	 * The identifier of the heartbeat timer.
+	 */
+	private long timer = -1;
+
+	void start(@Observes final StartupEvent event) {
+		Contexts.<Void>onNewContext(vertx, () -> Panache.withTransaction(
+				() -> clusterRepository.createPartitions(partitions)))
+				.subscribe().with(
+						created -> beat(),
+						failure -> LOG.warn("Failed to create the partitions",
+								failure));
+		timer = vertx.setPeriodic(heartbeat.toMillis(), ignored -> beat());
+	}
+
+	void stop(@Observes final ShutdownEvent event) {
+		if (timer >= 0) {
+			vertx.cancelTimer(timer);
+		}
+		owned = List.of();
+		Contexts.<Void>onNewContext(vertx, () -> Panache.withTransaction(
+				() -> clusterRepository.leave(leases.owner())))
+				.await().atMost(timeout);
+	}
+
+	/**
+	 * Returns the partitions owned by this node.
+	 *
+	 * @return The numbers of the partitions, possibly empty.
+	 */
+	public List<Integer> owned() {
+		return owned;
+	}
+
+	/**
+	 * Waits for the first heartbeat of this node.
+	 *
+	 * @return A Uni containing the partitions assigned by the first
+	 *         heartbeat.
+	 */
+	public Uni<List<Integer>> ready() {
+		return Uni.createFrom().completionStage(joined);
+	}
+
+	/**
+	 * Returns the number of partitions.
+	 *
+	 * @return The number of partitions.
+	 */
+	public int partitions() {
+		return partitions;
+	}
+
+	private void beat() {
+		Contexts.<List<Integer>>onNewContext(vertx, this::rebalance)
+				.subscribe().with(
+						partitions -> {
+							owned = partitions;
+							joined.complete(partitions);
+						},
+						failure -> LOG.warn("Failed to send the heartbeat",
+								failure));
+	}
+
+	/**
+	 * Renews the partitions of this node and takes or gives back partitions
+	 * to reach its share.
+	 */
+	private Uni<List<Integer>> rebalance() {
+		String owner = leases.owner();
+		Instant until = Instant.now().plus(timeout);
+		return Panache.withTransaction(() -> clusterRepository
+				.heartbeat(owner, until)
+				.chain(() -> clusterRepository.renew(owner, until))
+				.chain(() -> clusterRepository.countNodes())
+				.chain(nodes -> clusterRepository.findOwned(owner)
+						.chain(current -> {
+							int share = (int) ((partitions + nodes - 1)
+									/ Math.max(1, nodes));
+							if (current.size() > share) {
+								return clusterRepository.release(owner,
+										current.subList(share, current.size()));
+							}
+							if (current.size() < share) {
+								return clusterRepository.take(owner, until,
+										share - current.size());
+							}
+							return Uni.createFrom().item(0);
+						})))
+				.chain(() -> clusterRepository.findOwned(owner));
+	}
+}
@@ -0,0 +1,134 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.engine;
+
+import java.io.ByteArrayOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import dev.orion.workflows.model.Payload;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Turns request and response bodies into content addressed payloads and
+ * back. Bodies are identified by their SHA-256 digest and compressed with
+ * DEFLATE when they are larger than a threshold and compression pays off.
+ */
+@ApplicationScoped
+public class PayloadEncoder {
+
+	/**
+	 * The size, in bytes, from which bodies are compressed.
+	 */
+	@ConfigProperty(name = "workflows.payloads.compression-threshold",
+			defaultValue = "1024")
+	private int compressionThreshold;
+
+	/**
+	 * Creates the payload of a body.
+	 *
+	 * @param data The body.
+	 * @return The payload, or null if the body is empty.
+	 */
+	public Payload encode(final byte[] data) {
+		if (data == null || data.length == 0) {
+			return null;
+		}
+		Payload payload = new Payload();
+		payload.setHash(digest(data));
+		payload.setOriginalSize(data.length);
+		byte[] compressed = data.length >= compressionThreshold
+				? deflate(data) : null;
+		if (compressed != null && compressed.length < data.length) {
+			payload.setEncoding(Payload.DEFLATE);
+			payload.setData(compressed);
+		} else {
+			payload.setEncoding(Payload.IDENTITY);
+			payload.setData(data);
+		}
+		return payload;
+	}
+
+	/**
+	 * Restores the body of a payload.
+	 *
+	 * @param payload The payload.
+	 * @return The uncompressed body, or an empty array if the payload is
+	 *         null.
+	 */
+	public byte[] decode(final Payload payload) {
+		if (payload == null) {
+			return new byte[0];
+		}
+		if (!Payload.DEFLATE.equals(payload.getEncoding())) {
+			return payload.getData();
+		}
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(payload.getData());
+			byte[] data = new byte[payload.getOriginalSize()];
+			int length = 0;
+			while (length < data.length && !inflater.finished()) {
+				int inflated = inflater.inflate(data, length,
+						data.length - length);
+				if (inflated == 0 && inflater.needsInput()) {
+					throw new DataFormatException("Truncated data");
+				}
+				length += inflated;
+			}
+			return data;
+		} catch (DataFormatException e) {
+			throw new IllegalStateException(
+					"Corrupted payload " + payload.getHash(), e);
+		} finally {
+			inflater.end();
+		}
+	}
+
+	private static String digest(final byte[] data) {
+		try {
+			return HexFormat.of().formatHex(
+					MessageDigest.getInstance("SHA-256").digest(data));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static byte[] deflate(final byte[] data) {
+		Deflater deflater = new Deflater();
+		try {
+			deflater.setInput(data);
+			deflater.finish();
+			ByteArrayOutputStream output = new ByteArrayOutputStream(
+					data.length / 2);
+			byte[] chunk = new byte[4096];
+			while (!deflater.finished()) {
+				output.write(chunk, 0, deflater.deflate(chunk));
+			}
+			return output.toByteArray();
+		} finally {
+			deflater.end();
+		}
+	}
+}
@@ -0,0 +1,32 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.engine;
+
+/**
+ * The outcome of a single service invocation.
+ *
+ * @param status           The HTTP status code returned by the service.
+ * @param requestData      The body sent to the service.
+ * @param requestMimeType  The MIME type of the body sent to the service.
+ * @param responseData     The body returned by the service.
+ * @param responseMimeType The MIME type of the body returned by the service.
+ */
+public record ServiceCall(int status, byte[] requestData,
+		String requestMimeType, byte[] responseData,
+		String responseMimeType) {
+}
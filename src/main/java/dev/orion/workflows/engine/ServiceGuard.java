@@ -0,0 +1,338 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.engine;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import dev.orion.workflows.model.Service;
+import io.vertx.core.http.ConnectionPoolTooBusyException;
+
+/**
+ * Protects the engine from a single service: a bulkhead caps the calls in
+ * flight to the service, and a circuit breaker fails the calls fast while
+ * the service keeps failing or answering too slowly. The guard also counts
+ * the outcomes and latencies of the calls.
+ *
+ * The breaker opens after a number of consecutive failures, where a call
+ * slower than the slow-call threshold counts as a failure. Once the open
+ * duration has elapsed it lets a single trial call through, and closes
+ * again if that call succeeds.
+ *
+ * Every change of state starts a new generation of the breaker, and each
+ * admitted call carries the generation it was admitted in. Only the calls of
+ * the current generation move the breaker: a call admitted before it opened
+ * cannot close it, and the trial call is the only one admitted while it is
+ * half open.
+ */
+final class ServiceGuard {
+
+	/**
+	 * The states of the circuit breaker.
+	 */
+	enum State {
+
+		/**
+		 * Calls go through.
+		 */
+		CLOSED,
+
+		/**
+		 * Calls are rejected.
+		 */
+		OPEN,
+
+		/**
+		 * A single trial call goes through.
+		 */
+		HALF_OPEN
+	}
+
+	/**
+	 * The upper bounds of the latency buckets in milliseconds.
+	 */
+	private static final long[] BOUNDS = {1, 2, 5, 10, 20, 50, 100, 200, 500,
+		1000, 2000, 5000, 10000, 30000};
+
+	/**
+	 * The guarded service.
+	 */
+	private final Service service;
+
+	/**
+	 * The maximum number of calls in flight.
+	 */
+	private final int maxConcurrent;
+
+	/**
+	 * The number of consecutive failures that opens the breaker.
+	 */
+	private final int failureThreshold;
+
+	/**
+	 * How long the breaker stays open, in nanoseconds.
+	 */
+	private final long openNanos;
+
+	/**
+	 * The latency above which a call counts as a failure, in nanoseconds.
+	 */
+	private final long slowCallNanos;
+
+	/**
+	 * The number of calls in flight.
+	 */
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	/**
+	 * The number of rejected calls.
+	 */
+	private final LongAdder rejected = new LongAdder();
+
+	/**
+	 * The number of completed calls.
+	 */
+	private final LongAdder calls = new LongAdder();
+
+	/**
+	 * The number of failed calls.
+	 */
+	private final LongAdder failures = new LongAdder();
+
+	/**
+	 * The number of calls per latency bucket; the last bucket is unbounded.
+	 */
+	private final LongAdder[] latencies = new LongAdder[BOUNDS.length + 1];
+
+	/**
+	 * The state of the breaker.
+	 */
+	private State state = State.CLOSED;
+
+	/**
+	 * The generation of the breaker, incremented on every change of state.
+	 */
+	private long generation;
+
+	/**
+	 * The number of consecutive failures.
+	 */
+	private int consecutiveFailures;
+
+	/**
+	 * When the breaker opened, in nanoseconds.
+	 */
+	private long openedAt;
+
+	/**
+	 * Creates the guard of a service.
+	 *
+	 * @param service          The guarded service.
+	 * @param maxConcurrent    The maximum number of calls in flight.
+	 * @param failureThreshold The number of consecutive failures that opens
+	 *                         the breaker.
+	 * @param openMillis       How long the breaker stays open.
+	 * @param slowCallMillis   The latency above which a call fails.
+	 */
+	ServiceGuard(final Service service, final int maxConcurrent,
+			final int failureThreshold, final long openMillis,
+			final long slowCallMillis) {
+		this.service = service;
+		this.maxConcurrent = maxConcurrent;
+		this.failureThreshold = failureThreshold;
+		this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+		this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMillis);
+		for (int i = 0; i < latencies.length; i++) {
+			latencies[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * Admits a call to the service.
+	 *
+	 * @return The generation of the breaker the call is admitted in, to be
+	 *         passed to {@link #exit(long, long, Throwable, boolean)}.
+	 * @throws ServiceInvocationException If the bulkhead is full or the
+	 *                                    breaker is open.
+	 */
+	long enter() {
+		if (inFlight.incrementAndGet() > maxConcurrent) {
+			inFlight.decrementAndGet();
+			rejected.increment();
+			throw new ServiceInvocationException("Too many calls in flight "
+					+ "to service " + service.getName());
+		}
+		long admitted = admit();
+		if (admitted < 0) {
+			inFlight.decrementAndGet();
+			rejected.increment();
+			throw new ServiceInvocationException("The circuit breaker of "
+					+ "service " + service.getName() + " is open");
+		}
+		return admitted;
+	}
+
+	/**
+	 * Records the end of an admitted call.
+	 *
+	 * @param admitted  The generation returned by {@link #enter()}.
+	 * @param nanos     The duration of the call.
+	 * @param failure   The failure of the call, or null if it succeeded.
+	 * @param cancelled Whether the call was cancelled before it ended.
+	 */
+	void exit(final long admitted, final long nanos, final Throwable failure,
+			final boolean cancelled) {
+		inFlight.decrementAndGet();
+		if (cancelled) {
+			abandoned(admitted);
+			return;
+		}
+		calls.increment();
+		latencies[bucket(TimeUnit.NANOSECONDS.toMillis(nanos))].increment();
+		if (failure != null) {
+			failures.increment();
+		}
+		if (trips(failure) || nanos > slowCallNanos) {
+			failed(admitted);
+		} else {
+			succeeded(admitted);
+		}
+	}
+
+	/**
+	 * Returns the guarded service.
+	 *
+	 * @return The service.
+	 */
+	Service service() {
+		return service;
+	}
+
+	/**
+	 * Returns the number of calls in progress.
+	 *
+	 * @return The number of calls in flight.
+	 */
+	int inFlight() {
+		return inFlight.get();
+	}
+
+	/**
+	 * Returns the statistics of the calls to the service.
+	 *
+	 * @return A snapshot of the statistics.
+	 */
+	ServiceStats stats() {
+		Map<String, Long> buckets = new LinkedHashMap<>();
+		for (int i = 0; i < latencies.length; i++) {
+			buckets.put(i < BOUNDS.length ? Long.toString(BOUNDS[i]) : "+Inf",
+					latencies[i].sum());
+		}
+		return new ServiceStats(service.getHash(), service.getName(),
+				inFlight.get(), maxConcurrent, rejected.sum(), calls.sum(),
+				failures.sum(), state().name(), buckets);
+	}
+
+	/**
+	 * Returns the state of the breaker.
+	 *
+	 * @return The state.
+	 */
+	synchronized State state() {
+		return state;
+	}
+
+	/**
+	 * Returns the generation a call is admitted in, or -1 if it is rejected.
+	 */
+	private synchronized long admit() {
+		switch (state) {
+			case CLOSED:
+				return generation;
+			case OPEN:
+				if (System.nanoTime() - openedAt < openNanos) {
+					return -1;
+				}
+				transition(State.HALF_OPEN);
+				return generation;
+			default:
+				return -1;
+		}
+	}
+
+	private synchronized void succeeded(final long admitted) {
+		if (admitted != generation) {
+			return;
+		}
+		consecutiveFailures = 0;
+		if (state == State.HALF_OPEN) {
+			transition(State.CLOSED);
+		}
+	}
+
+	private synchronized void failed(final long admitted) {
+		if (admitted != generation) {
+			return;
+		}
+		if (state == State.HALF_OPEN
+				|| ++consecutiveFailures >= failureThreshold) {
+			transition(State.OPEN);
+			openedAt = System.nanoTime();
+		}
+	}
+
+	private synchronized void abandoned(final long admitted) {
+		if (admitted == generation && state == State.HALF_OPEN) {
+			// Let the next call be the trial.
+			transition(State.OPEN);
+			openedAt = System.nanoTime() - openNanos;
+		}
+	}
+
+	private void transition(final State next) {
+		state = next;
+		consecutiveFailures = 0;
+		generation++;
+	}
+
+	/**
+	 * Tells whether a failure is the service's fault: client errors, which
+	 * depend on the request, and a busy connection pool, which is local, do
+	 * not trip the breaker.
+	 */
+	private static boolean trips(final Throwable failure) {
+		if (failure == null
+				|| failure instanceof ConnectionPoolTooBusyException) {
+			return false;
+		}
+		return !(failure instanceof ServiceInvocationException invocation)
+				|| invocation.getStatus() == 0 || invocation.getStatus() >= 500;
+	}
+
+	private static int bucket(final long millis) {
+		for (int i = 0; i < BOUNDS.length; i++) {
+			if (millis <= BOUNDS[i]) {
+				return i;
+			}
+		}
+		return BOUNDS.length;
+	}
+}
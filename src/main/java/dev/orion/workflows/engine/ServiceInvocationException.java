@@ -0,0 +1,62 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.engine;
+
+/**
+ * Signals that a service referenced by a workflow could not be invoked or
+ * answered with an error status.
+ */
+public class ServiceInvocationException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The status the service answered with, or zero if it did not answer.
+	 */
+	private final int status;
+
+	/**
+	 * Creates the exception with a message describing the failure.
+	 *
+	 * @param message The failure description.
+	 */
+	public ServiceInvocationException(final String message) {
+		this(message, 0);
+	}
+
+	/**
+	 * Creates the exception for a service that answered with an error
+	 * status.
+	 *
+	 * @param message The failure description.
+	 * @param status  The status of the answer.
+	 */
+	public ServiceInvocationException(final String message, final int status) {
+		super(message);
+		this.status = status;
+	}
+
+	/**
+	 * Returns the status the service answered with.
+	 *
+	 * @return The status, or zero if the service did not answer.
+	 */
+	public int getStatus() {
+		return status;
+	}
+}
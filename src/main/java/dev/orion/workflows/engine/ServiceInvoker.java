@@ -0,0 +1,355 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.engine;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.orion.workflows.model.Service;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpVersion;
+import io.vertx.core.http.RequestOptions;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.core.buffer.Buffer;
+import io.vertx.mutiny.core.http.HttpClient;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Invokes the services referenced by workflow controls with the non-blocking
+ * Vert.x HTTP client. Requests are issued from the caller's event loop and
+ * their responses are delivered back on it, so no worker thread is held while
+ * a service call is in flight.
+ *
+ * Each host gets its own client, with a pool of keep-alive connections that
+ * negotiate HTTP/2 when the host supports it, so the calls of many
+ * executions to the same host are multiplexed over a few connections.
+ * Requests that find the pool busy wait in a bounded queue. Each service is
+ * additionally protected by a {@link ServiceGuard}, whose statistics are
+ * reported per service hash.
+ */
+@ApplicationScoped
+public class ServiceInvoker {
+
+	/**
+	 * The MIME type used when a service does not declare one.
+	 */
+	static final String DEFAULT_MIME_TYPE = "application/json";
+
+	/**
+	 * The metrics of the service calls.
+	 */
+	@Inject
+	private WorkflowTelemetry telemetry;
+
+	/**
+	 * The Vert.x instance that owns the HTTP client.
+	 */
+	@Inject
+	private Vertx vertx;
+
+	/**
+	 * The mapper used to encode the request bodies.
+	 */
+	@Inject
+	private ObjectMapper mapper;
+
+	/**
+	 * The maximum number of pooled connections per host.
+	 */
+	@ConfigProperty(name = "workflows.engine.max-pool-size",
+			defaultValue = "100")
+	private int maxPoolSize;
+
+	/**
+	 * The time, in milliseconds, a service has to answer a request.
+	 */
+	@ConfigProperty(name = "workflows.engine.service-timeout",
+			defaultValue = "30000")
+	private long timeout;
+
+	/**
+	 * The maximum number of requests waiting for a pooled connection per
+	 * host.
+	 */
+	@ConfigProperty(name = "workflows.engine.max-wait-queue-size",
+			defaultValue = "1024")
+	private int maxWaitQueueSize;
+
+	/**
+	 * The time, in milliseconds, allowed to open a connection.
+	 */
+	@ConfigProperty(name = "workflows.engine.connect-timeout",
+			defaultValue = "5000")
+	private int connectTimeout;
+
+	/**
+	 * The time after which an idle pooled connection is closed.
+	 */
+	@ConfigProperty(name = "workflows.engine.idle-timeout",
+			defaultValue = "PT60S")
+	private Duration idleTimeout;
+
+	/**
+	 * Whether HTTP/2 is negotiated with the hosts that support it.
+	 */
+	@ConfigProperty(name = "workflows.engine.http2", defaultValue = "true")
+	private boolean http2;
+
+	/**
+	 * Whether HTTP/1.1 requests are pipelined on the pooled connections.
+	 */
+	@ConfigProperty(name = "workflows.engine.pipelining",
+			defaultValue = "false")
+	private boolean pipelining;
+
+	/**
+	 * The maximum number of calls in flight to a single service.
+	 */
+	@ConfigProperty(name = "workflows.services.max-concurrent",
+			defaultValue = "256")
+	private int maxConcurrent;
+
+	/**
+	 * The number of consecutive failures of a service that opens its
+	 * circuit breaker.
+	 */
+	@ConfigProperty(name = "workflows.services.failure-threshold",
+			defaultValue = "5")
+	private int failureThreshold;
+
+	/**
+	 * How long an open circuit breaker rejects the calls to its service.
+	 */
+	@ConfigProperty(name = "workflows.services.open-duration",
+			defaultValue = "PT30S")
+	private Duration openDuration;
+
+	/**
+	 * The latency above which a call counts as a failure of its service.
+	 */
+	@ConfigProperty(name = "workflows.services.slow-call-threshold",
+			defaultValue = "PT10S")
+	private Duration slowCallThreshold;
+
+	/**
+	 * The HTTP clients indexed by origin.
+	 */
+	private final Map<String, HttpClient> clients = new ConcurrentHashMap<>();
+
+	/**
+	 * The guards and clients of the services indexed by service hash.
+	 */
+	private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+	/**
+	 * The guard of a service and the client of its host.
+	 *
+	 * @param guard  The guard of the service.
+	 * @param client The client of the host of the service.
+	 */
+	private record Endpoint(ServiceGuard guard, HttpClient client) {
+	}
+
+	@PreDestroy
+	void close() {
+		clients.values().forEach(HttpClient::closeAndForget);
+	}
+
+	/**
+	 * Returns the statistics of the calls to each service invoked so far.
+	 *
+	 * @return The statistics, one entry per service hash.
+	 */
+	public List<ServiceStats> stats() {
+		List<ServiceStats> stats = new ArrayList<>(endpoints.size());
+		endpoints.values().forEach(endpoint -> stats.add(
+				endpoint.guard().stats()));
+		return stats;
+	}
+
+	/**
+	 * Invokes a service sending the given variables as the request body.
+	 *
+	 * @param service   The service to be invoked.
+	 * @param variables The variables visible to the current step.
+	 * @return A Uni containing the outcome of the call. It fails with a
+	 *         {@link ServiceInvocationException} when the service answers with
+	 *         an error status, or when its guard rejects the call.
+	 */
+	public Uni<ServiceCall> invoke(final Service service,
+			final JsonNode variables) {
+		HttpMethod method = HttpMethod.valueOf(
+				service.getMethod() == null ? "GET"
+						: service.getMethod().toUpperCase(Locale.ROOT));
+		String consumes = mimeType(service.getConsumes());
+		String produces = mimeType(service.getProduces());
+		byte[] body = hasBody(method) ? encode(consumes, variables)
+				: new byte[0];
+
+		RequestOptions options = new RequestOptions()
+				.setAbsoluteURI(service.getUrl())
+				.setMethod(method)
+				.setTimeout(timeout)
+				.putHeader(HttpHeaders.ACCEPT, produces);
+		if (body.length > 0) {
+			options.putHeader(HttpHeaders.CONTENT_TYPE, consumes);
+		}
+
+		Endpoint endpoint = endpoints.computeIfAbsent(service.getHash(),
+				hash -> {
+					telemetry.watch(service.getName(),
+							() -> inFlight(service.getName()));
+					return new Endpoint(new ServiceGuard(service,
+							maxConcurrent, failureThreshold,
+							openDuration.toMillis(),
+							slowCallThreshold.toMillis()),
+							client(service.getUrl()));
+				});
+		ServiceGuard guard = endpoint.guard();
+		return Uni.createFrom().deferred(() -> {
+			long admitted = guard.enter();
+			long start = System.nanoTime();
+			return send(endpoint.client(), options, service, body, consumes,
+					produces)
+					.onTermination().invoke((call, failure, cancelled) -> {
+						long latency = System.nanoTime() - start;
+						guard.exit(admitted, latency, failure, cancelled);
+						telemetry.call(service, call, failure, latency);
+					});
+		});
+	}
+
+	/**
+	 * Returns the number of calls in progress to the services of a name,
+	 * whatever the workflow versions they belong to.
+	 */
+	private int inFlight(final String name) {
+		int inFlight = 0;
+		for (Endpoint endpoint : endpoints.values()) {
+			if (name.equals(endpoint.guard().service().getName())) {
+				inFlight += endpoint.guard().inFlight();
+			}
+		}
+		return inFlight;
+	}
+
+	private Uni<ServiceCall> send(final HttpClient client,
+			final RequestOptions options, final Service service,
+			final byte[] body, final String consumes, final String produces) {
+		return client.request(options)
+				.chain(request -> request.send(Buffer.buffer(body)))
+				.chain(response -> response.body().map(buffer -> {
+					if (response.statusCode() >= 400) {
+						throw new ServiceInvocationException(
+								"Service " + service.getName()
+										+ " answered with status "
+										+ response.statusCode(),
+								response.statusCode());
+					}
+					String contentType = response
+							.getHeader(HttpHeaders.CONTENT_TYPE.toString());
+					return new ServiceCall(response.statusCode(), body,
+							consumes, buffer.getBytes(),
+							contentType == null ? produces : contentType);
+				}));
+	}
+
+	/**
+	 * Returns the client of the host of a URL, creating it on first use.
+	 */
+	private HttpClient client(final String url) {
+		URI uri = URI.create(url);
+		boolean ssl = "https".equalsIgnoreCase(uri.getScheme());
+		int port = uri.getPort() >= 0 ? uri.getPort() : ssl ? 443 : 80;
+		String origin = (ssl ? "https://" : "http://") + uri.getHost() + ":"
+				+ port;
+		return clients.computeIfAbsent(origin, ignored -> vertx
+				.createHttpClient(new HttpClientOptions()
+						.setDefaultHost(uri.getHost())
+						.setDefaultPort(port)
+						.setSsl(ssl)
+						.setKeepAlive(true)
+						.setPipelining(pipelining)
+						.setProtocolVersion(http2 ? HttpVersion.HTTP_2
+								: HttpVersion.HTTP_1_1)
+						.setUseAlpn(http2)
+						.setMaxPoolSize(maxPoolSize)
+						.setHttp2MaxPoolSize(maxPoolSize)
+						.setMaxWaitQueueSize(maxWaitQueueSize)
+						.setConnectTimeout(connectTimeout)
+						.setIdleTimeout((int) idleTimeout.toSeconds())));
+	}
+
+	private static boolean hasBody(final HttpMethod method) {
+		return !HttpMethod.GET.equals(method)
+				&& !HttpMethod.HEAD.equals(method)
+				&& !HttpMethod.DELETE.equals(method)
+				&& !HttpMethod.OPTIONS.equals(method);
+	}
+
+	private static String mimeType(final String declared) {
+		return declared == null || declared.isBlank() ? DEFAULT_MIME_TYPE
+				: declared;
+	}
+
+	private byte[] encode(final String mimeType, final JsonNode variables) {
+		if (mimeType.startsWith("application/x-www-form-urlencoded")) {
+			StringBuilder form = new StringBuilder();
+			Iterator<Map.Entry<String, JsonNode>> fields = variables.fields();
+			while (fields.hasNext()) {
+				Map.Entry<String, JsonNode> field = fields.next();
+				if (!field.getValue().isValueNode()) {
+					continue;
+				}
+				if (form.length() > 0) {
+					form.append('&');
+				}
+				form.append(URLEncoder.encode(field.getKey(),
+						StandardCharsets.UTF_8))
+						.append('=')
+						.append(URLEncoder.encode(field.getValue().asText(),
+								StandardCharsets.UTF_8));
+			}
+			return form.toString().getBytes(StandardCharsets.UTF_8);
+		}
+		try {
+			return mapper.writeValueAsBytes(variables);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
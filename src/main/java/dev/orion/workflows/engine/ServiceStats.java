@@ -0,0 +1,41 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.engine;
+
+import java.util.Map;
+
+/**
+ * A snapshot of the statistics of the calls to a service.
+ *
+ * @param hash      The hash of the service.
+ * @param name      The name of the service.
+ * @param inFlight  The number of calls in progress.
+ * @param limit     The maximum number of calls in flight; the ratio of
+ *                  inFlight to limit is the saturation of the bulkhead.
+ * @param rejected  The number of calls rejected by a full bulkhead or an
+ *                  open circuit breaker.
+ * @param calls     The number of completed calls.
+ * @param failures  The number of failed calls.
+ * @param breaker   The state of the circuit breaker.
+ * @param latencies The number of completed calls by latency bucket, keyed by
+ *                  the upper bound of the bucket in milliseconds.
+ */
+public record ServiceStats(String hash, String name, int inFlight,
+		int limit, long rejected, long calls, long failures, String breaker,
+		Map<String, Long> latencies) {
+}
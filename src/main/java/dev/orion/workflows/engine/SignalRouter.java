@@ -0,0 +1,236 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.engine;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import dev.orion.workflows.model.Execution;
+import dev.orion.workflows.model.Signal;
+import dev.orion.workflows.repository.ExecutionRepository;
+import dev.orion.workflows.repository.SignalRepository;
+import io.quarkus.hibernate.reactive.panache.Panache;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Delivers external signals to the executions they are addressed to.
+ *
+ * Signals address executions by hash. The correlation cache maps the hashes
+ * of recent executions to their identifiers, and the hashes it misses are
+ * resolved together with one query on the unique index of the hash, so
+ * routing a signal never scans a table. A batch of signals is queued with
+ * multi-row inserts in one transaction. The executions it addresses that
+ * are waiting are then found with one query on their primary keys, and
+ * each of them is resumed once; executions that are not waiting are left
+ * alone, without a claim, and find their signals when they reach their
+ * next wait.
+ *
+ * The router also remembers when it last queued signals for each execution,
+ * so that the loops broken by a signal only look for one after a delivery.
+ * Deliveries made by other nodes are not seen here; those loops also look
+ * for signals at the poll interval.
+ */
+@ApplicationScoped
+public class SignalRouter {
+
+	/**
+	 * The engine that resumes the executions.
+	 */
+	@Inject
+	private ExecutionEngine engine;
+
+	/**
+	 * The repository for managing executions.
+	 */
+	@Inject
+	private ExecutionRepository executionRepository;
+
+	/**
+	 * The repository for managing signals.
+	 */
+	@Inject
+	private SignalRepository signalRepository;
+
+	/**
+	 * The maximum number of execution hashes kept in the correlation cache.
+	 */
+	@ConfigProperty(name = "workflows.signals.correlation-size",
+			defaultValue = "100000")
+	private long correlationSize;
+
+	/**
+	 * The maximum number of signals stored by a single insert.
+	 */
+	@ConfigProperty(name = "workflows.signals.batch-size",
+			defaultValue = "1000")
+	private int batchSize;
+
+	/**
+	 * How often a loop broken by a signal looks for it without having been
+	 * notified of a delivery.
+	 */
+	@ConfigProperty(name = "workflows.signals.poll-interval",
+			defaultValue = "PT1S")
+	private Duration pollInterval;
+
+	/**
+	 * The identifiers of the executions indexed by hash.
+	 */
+	private Cache<String, Long> correlation;
+
+	/**
+	 * The time signals were last queued for each execution, in milliseconds,
+	 * indexed by execution identifier. Entries older than the poll interval
+	 * are dropped, since the polls cover them.
+	 */
+	private Cache<Long, Long> delivered;
+
+	@PostConstruct
+	void init() {
+		correlation = Caffeine.newBuilder()
+				.maximumSize(correlationSize)
+				.build();
+		delivered = Caffeine.newBuilder()
+				.maximumSize(correlationSize)
+				.expireAfterWrite(pollInterval)
+				.build();
+	}
+
+	/**
+	 * Makes an execution known to the router, so the signals addressed to it
+	 * are routed without a query.
+	 *
+	 * @param execution The execution.
+	 */
+	public void correlate(final Execution execution) {
+		correlation.put(execution.getHash(), execution.id);
+	}
+
+	/**
+	 * Tells whether an execution must look for the signal of a loop: when
+	 * signals were queued for it by this node since its last look, or when
+	 * its last look is older than the poll interval.
+	 *
+	 * @param executionId The identifier of the execution.
+	 * @param checked     When the execution last looked for signals, in
+	 *                    milliseconds, or zero if it never did.
+	 * @param now         The current time in milliseconds.
+	 * @return Whether the execution looks for signals.
+	 */
+	public boolean due(final Long executionId, final long checked,
+			final long now) {
+		if (now - checked >= pollInterval.toMillis()) {
+			return true;
+		}
+		Long time = delivered.getIfPresent(executionId);
+		return time != null && time >= checked;
+	}
+
+	/**
+	 * Queues signals and resumes the executions they are addressed to.
+	 *
+	 * @param signals The signals to be delivered.
+	 * @return A Uni containing the number of signals delivered. Signals
+	 *         addressed to unknown executions are dropped.
+	 */
+	public Uni<Integer> deliver(final List<IncomingSignal> signals) {
+		return resolve(signals).chain(ids -> {
+			Instant received = Instant.now();
+			List<Signal> rows = new ArrayList<>(signals.size());
+			Set<Long> executions = new LinkedHashSet<>();
+			for (IncomingSignal incoming : signals) {
+				Long id = ids.get(incoming.hash());
+				if (id == null || incoming.name() == null) {
+					continue;
+				}
+				Signal signal = new Signal();
+				signal.setExecutionId(id);
+				signal.setName(incoming.name());
+				signal.setValue(incoming.value() == null ? "null"
+						: incoming.value().toString());
+				signal.setReceived(received);
+				rows.add(signal);
+				executions.add(id);
+			}
+			return Panache.withTransaction(() -> Multi.createFrom()
+					.range(0, (rows.size() + batchSize - 1) / batchSize)
+					.onItem().transformToUniAndConcatenate(
+							chunk -> signalRepository.storeAll(rows.subList(
+									chunk * batchSize, Math.min(rows.size(),
+											(chunk + 1) * batchSize))))
+					.onItem().ignoreAsUni())
+					.chain(() -> {
+						long now = System.currentTimeMillis();
+						executions.forEach(id -> delivered.put(id, now));
+						return executions.isEmpty()
+								? Uni.createFrom().item(List.<Long>of())
+								: executionRepository
+										.findWaitingIds(executions);
+					})
+					.invoke(waiting -> waiting.forEach(engine::resume))
+					.replaceWith(rows.size());
+		});
+	}
+
+	/**
+	 * Maps the hashes of the signals to execution identifiers.
+	 */
+	private Uni<Map<String, Long>> resolve(
+			final List<IncomingSignal> signals) {
+		Map<String, Long> ids = new HashMap<>();
+		Set<String> missing = new HashSet<>();
+		for (IncomingSignal signal : signals) {
+			if (signal.hash() == null || ids.containsKey(signal.hash())) {
+				continue;
+			}
+			Long id = correlation.getIfPresent(signal.hash());
+			if (id != null) {
+				ids.put(signal.hash(), id);
+			} else {
+				missing.add(signal.hash());
+			}
+		}
+		if (missing.isEmpty()) {
+			return Uni.createFrom().item(ids);
+		}
+		return executionRepository.findIdsByHash(missing)
+				.map(rows -> {
+					for (Object[] row : rows) {
+						correlation.put((String) row[0], (Long) row[1]);
+						ids.put((String) row[0], (Long) row[1]);
+					}
+					return ids;
+				});
+	}
+}
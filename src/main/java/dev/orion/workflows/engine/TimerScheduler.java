@@ -0,0 +1,173 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.engine;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import dev.orion.workflows.repository.ExecutionRepository;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.quarkus.runtime.StartupEvent;
+import io.vertx.mutiny.core.Vertx;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Wakes up the executions parked on a WAIT step when their time comes.
+ *
+ * The wake-up time of a waiting execution is stored in its row, so pending
+ * timers survive a restart and cost an index entry each. Only the timers
+ * due within the horizon are loaded into memory, in a hashed wheel whose
+ * insertion and expiry are constant time; the rows are polled again every
+ * half horizon, by the owner of their partition only. When a timer fires
+ * the execution is handed to the engine, which claims it before running it,
+ * so a timer that fires on several nodes or races with a signal resumes the
+ * execution once.
+ */
+@ApplicationScoped
+public class TimerScheduler {
+
+	private static final Logger LOG = Logger.getLogger(TimerScheduler.class);
+
+	/**
+	 * The Vert.x instance used to poll the timers.
+	 */
+	@Inject
+	private Vertx vertx;
+
+	/**
+	 * The engine that resumes the executions.
+	 */
+	@Inject
+	private ExecutionEngine engine;
+
+	/**
+	 * The repository for managing executions.
+	 */
+	@Inject
+	private ExecutionRepository executionRepository;
+
+	/**
+	 * The partitions of the executions owned by this node.
+	 */
+	@Inject
+	private PartitionOwnership ownership;
+
+	/**
+	 * The duration of a tick of the wheel, which bounds the precision of the
+	 * timers.
+	 */
+	@ConfigProperty(name = "workflows.timers.tick", defaultValue = "PT0.1S")
+	private Duration tick;
+
+	/**
+	 * How far ahead the timers are loaded into memory.
+	 */
+	@ConfigProperty(name = "workflows.timers.horizon", defaultValue = "PT1M")
+	private Duration horizon;
+
+	/**
+	 * The timers in memory indexed by execution identifier.
+	 */
+	private final Map<Long, Timeout> scheduled = new ConcurrentHashMap<>();
+
+	/**
+	 * The wheel holding the timers due within the horizon.
+	 */
+	private HashedWheelTimer wheel;
+
+	/**
+	 * The identifier of the polling timer.
+	 */
+	private long timer = -1;
+
+	void start(@Observes final StartupEvent event) {
+		wheel = new HashedWheelTimer(tick.toMillis(), TimeUnit.MILLISECONDS);
+		timer = vertx.setPeriodic(0, Math.max(1, horizon.toMillis() / 2),
+				ignored -> load());
+	}
+
+	@PreDestroy
+	void close() {
+		if (timer >= 0) {
+			vertx.cancelTimer(timer);
+		}
+		if (wheel != null) {
+			wheel.stop();
+		}
+	}
+
+	/**
+	 * Schedules the wake-up of an execution. Times beyond the horizon are
+	 * left to the polling, which loads them when they get close.
+	 *
+	 * @param executionId The identifier of the execution.
+	 * @param wakeAt      The time at which the execution is to be resumed.
+	 */
+	public void schedule(final Long executionId, final Instant wakeAt) {
+		long delay = wakeAt.toEpochMilli() - System.currentTimeMillis();
+		if (wheel == null || delay > horizon.toMillis()) {
+			return;
+		}
+		scheduled.compute(executionId, (id, previous) -> {
+			if (previous != null) {
+				previous.cancel();
+			}
+			return wheel.newTimeout(timeout -> {
+				scheduled.remove(id, timeout);
+				engine.resume(id);
+			}, Math.max(0, delay), TimeUnit.MILLISECONDS);
+		});
+	}
+
+	/**
+	 * Returns the number of wake-ups held in memory.
+	 *
+	 * @return The number of scheduled timers.
+	 */
+	public int scheduled() {
+		return scheduled.size();
+	}
+
+	private void load() {
+		List<Integer> partitions = ownership.owned();
+		if (partitions.isEmpty()) {
+			return;
+		}
+		Instant limit = Instant.now().plus(horizon);
+		Contexts.<List<Object[]>>onNewContext(vertx,
+				() -> executionRepository.findWakeUps(partitions, limit))
+				.subscribe().with(
+						rows -> rows.stream()
+								.filter(row -> !scheduled.containsKey(row[0]))
+								.forEach(row -> schedule((Long) row[0],
+										(Instant) row[1])),
+						failure -> LOG.warn("Failed to load the timers",
+								failure));
+	}
+}
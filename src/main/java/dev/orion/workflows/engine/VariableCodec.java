@@ -0,0 +1,211 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.engine;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Encodes the variables of the executions, and the patches between them, as
+ * they are stored in the execution rows and the history.
+ *
+ * They are written in JSON, or in one of the binary encodings of the JSON
+ * data model, Smile or CBOR, which are smaller and cheaper to parse. Both
+ * start with a header, so stored values are decoded whatever the format
+ * they were written in, and the format can be changed at any time.
+ */
+@ApplicationScoped
+public class VariableCodec {
+
+	/**
+	 * The encodings of the variables.
+	 */
+	public enum Format {
+
+		/**
+		 * UTF-8 JSON text.
+		 */
+		JSON,
+
+		/**
+		 * Smile, the binary JSON of Jackson.
+		 */
+		SMILE,
+
+		/**
+		 * CBOR (RFC 8949), tagged as self-described.
+		 */
+		CBOR
+	}
+
+	/**
+	 * The header written at the start of Smile documents.
+	 */
+	private static final byte[] SMILE_HEADER = {':', ')', '\n'};
+
+	/**
+	 * The self-described CBOR tag written at the start of CBOR documents.
+	 */
+	private static final byte[] CBOR_HEADER = {
+		(byte) 0xD9, (byte) 0xD9, (byte) 0xF7
+	};
+
+	/**
+	 * The mapper of the JSON encoding, whose configuration the binary
+	 * encodings share.
+	 */
+	@Inject
+	private ObjectMapper mapper;
+
+	/**
+	 * The format in which the variables are written.
+	 */
+	@ConfigProperty(name = "workflows.variables.format",
+			defaultValue = "JSON")
+	private Format format;
+
+	/**
+	 * The mapper of the Smile encoding.
+	 */
+	private ObjectMapper smile;
+
+	/**
+	 * The mapper of the CBOR encoding.
+	 */
+	private ObjectMapper cbor;
+
+	@PostConstruct
+	void init() {
+		smile = mapper.copyWith(new SmileFactory());
+		cbor = mapper.copyWith(CBORFactory.builder()
+				.enable(CBORGenerator.Feature.WRITE_TYPE_HEADER)
+				.build());
+	}
+
+	/**
+	 * Creates a codec outside of the container.
+	 *
+	 * @param mapper The mapper of the JSON encoding.
+	 * @param format The format in which the variables are written.
+	 * @return The codec.
+	 */
+	static VariableCodec of(final ObjectMapper mapper, final Format format) {
+		VariableCodec codec = new VariableCodec();
+		codec.mapper = mapper;
+		codec.format = format;
+		codec.init();
+		return codec;
+	}
+
+	/**
+	 * Encodes variables or a patch in the configured format.
+	 *
+	 * @param node The variables or the patch.
+	 * @return The encoded bytes.
+	 */
+	public byte[] encode(final JsonNode node) {
+		try {
+			return mapper(format).writeValueAsBytes(node);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Decodes variables or a patch, in any of the formats.
+	 *
+	 * @param data The encoded bytes.
+	 * @return The variables or the patch, or null if there are no bytes.
+	 */
+	public JsonNode decode(final byte[] data) {
+		if (data == null || data.length == 0) {
+			return null;
+		}
+		try {
+			return mapper(formatOf(data)).readTree(data);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Decodes variables, in any of the formats.
+	 *
+	 * @param data The encoded bytes.
+	 * @return The variables, empty if there are no bytes or they do not hold
+	 *         an object.
+	 */
+	public ObjectNode decodeObject(final byte[] data) {
+		return decode(data) instanceof ObjectNode variables ? variables
+				: mapper.createObjectNode();
+	}
+
+	/**
+	 * Converts encoded variables or a patch into JSON text, for the clients.
+	 * Values written in JSON are not parsed again.
+	 *
+	 * @param data The encoded bytes.
+	 * @return The JSON text, or null if there are no bytes.
+	 */
+	public String toJson(final byte[] data) {
+		if (data == null || data.length == 0) {
+			return null;
+		}
+		return formatOf(data) == Format.JSON
+				? new String(data, StandardCharsets.UTF_8)
+				: decode(data).toString();
+	}
+
+	private ObjectMapper mapper(final Format encoding) {
+		return switch (encoding) {
+			case SMILE -> smile;
+			case CBOR -> cbor;
+			default -> mapper;
+		};
+	}
+
+	private static Format formatOf(final byte[] data) {
+		if (startsWith(data, SMILE_HEADER)) {
+			return Format.SMILE;
+		}
+		if (startsWith(data, CBOR_HEADER)) {
+			return Format.CBOR;
+		}
+		return Format.JSON;
+	}
+
+	private static boolean startsWith(final byte[] data, final byte[] header) {
+		return data.length >= header.length && Arrays.equals(data, 0,
+				header.length, header, 0, header.length);
+	}
+}
@@ -0,0 +1,131 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.engine;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Computes and applies the differences between two states of the variables
+ * of an execution, as a JSON Patch (RFC 6902) made of "add", "remove" and
+ * "replace" operations.
+ *
+ * Objects are compared member by member; any other changed value, arrays
+ * included, is replaced as a whole.
+ */
+public final class VariableDelta {
+
+	private VariableDelta() {
+	}
+
+	/**
+	 * Computes the patch that turns one object into another.
+	 *
+	 * @param source The previous state.
+	 * @param target The new state.
+	 * @return The operations of the patch, empty if both states are equal.
+	 */
+	public static ArrayNode diff(final ObjectNode source,
+			final ObjectNode target) {
+		ArrayNode patch = JsonNodeFactory.instance.arrayNode();
+		diff(patch, "", source, target);
+		return patch;
+	}
+
+	/**
+	 * Applies a patch to an object, in place.
+	 *
+	 * @param target The object to be patched.
+	 * @param patch  The operations of the patch.
+	 * @return The patched object.
+	 */
+	public static ObjectNode apply(final ObjectNode target,
+			final JsonNode patch) {
+		for (JsonNode operation : patch) {
+			String path = operation.path("path").asText();
+			int separator = path.lastIndexOf('/');
+			JsonNode parent = resolve(target, path.substring(0, separator));
+			String member = unescape(path.substring(separator + 1));
+			if (!(parent instanceof ObjectNode object)) {
+				throw new IllegalArgumentException("Invalid path " + path);
+			}
+			if ("remove".equals(operation.path("op").asText())) {
+				object.remove(member);
+			} else {
+				object.set(member, operation.get("value").deepCopy());
+			}
+		}
+		return target;
+	}
+
+	private static void diff(final ArrayNode patch, final String path,
+			final ObjectNode source, final ObjectNode target) {
+		Iterator<Map.Entry<String, JsonNode>> fields = source.fields();
+		while (fields.hasNext()) {
+			Map.Entry<String, JsonNode> field = fields.next();
+			if (!target.has(field.getKey())) {
+				patch.addObject()
+						.put("op", "remove")
+						.put("path", path + "/" + escape(field.getKey()));
+			}
+		}
+		fields = target.fields();
+		while (fields.hasNext()) {
+			Map.Entry<String, JsonNode> field = fields.next();
+			JsonNode before = source.get(field.getKey());
+			JsonNode after = field.getValue();
+			// The path of a member is only built when it has changed.
+			if (before == null) {
+				patch.addObject().put("op", "add")
+						.put("path", path + "/" + escape(field.getKey()))
+						.set("value", after);
+			} else if (before.isObject() && after.isObject()) {
+				diff(patch, path + "/" + escape(field.getKey()),
+						(ObjectNode) before, (ObjectNode) after);
+			} else if (!before.equals(after)) {
+				patch.addObject().put("op", "replace")
+						.put("path", path + "/" + escape(field.getKey()))
+						.set("value", after);
+			}
+		}
+	}
+
+	private static JsonNode resolve(final JsonNode root, final String path) {
+		JsonNode node = root;
+		if (path.isEmpty()) {
+			return node;
+		}
+		for (String member : path.substring(1).split("/", -1)) {
+			node = node.path(unescape(member));
+		}
+		return node;
+	}
+
+	private static String escape(final String member) {
+		return member.replace("~", "~0").replace("/", "~1");
+	}
+
+	private static String unescape(final String member) {
+		return member.replace("~1", "/").replace("~0", "~");
+	}
+}
@@ -0,0 +1,84 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.engine;
+
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import dev.orion.workflows.repository.HistoryRepository;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Rebuilds the variables of an execution at any recorded step from the
+ * closest full copy before it and the patches recorded since. The work is
+ * bounded by the checkpoint interval, whatever the length of the execution.
+ */
+@ApplicationScoped
+public class VariableHistory {
+
+	/**
+	 * The encoding of the variable statuses.
+	 */
+	@Inject
+	private VariableCodec variableCodec;
+
+	/**
+	 * The repository for managing the execution history.
+	 */
+	@Inject
+	private HistoryRepository historyRepository;
+
+	/**
+	 * Rebuilds the variables of an execution after a given step.
+	 *
+	 * @param executionHash The hash of the execution.
+	 * @param stepNumber    The number of the step.
+	 * @return A Uni containing the variables, or null if the step has not been
+	 *         recorded.
+	 */
+	public Uni<VariableSnapshot> at(final String executionHash,
+			final int stepNumber) {
+		return historyRepository.findVariableStatuses(executionHash, stepNumber)
+				.map(rows -> rows.isEmpty()
+						|| (Integer) rows.get(rows.size() - 1)[0] != stepNumber
+								? null : rebuild(rows));
+	}
+
+	private VariableSnapshot rebuild(final List<Object[]> rows) {
+		ObjectNode locals = null;
+		ObjectNode globals = null;
+		int step = 0;
+		for (Object[] row : rows) {
+			step = (Integer) row[0];
+			JsonNode local = variableCodec.decode((byte[]) row[2]);
+			JsonNode global = variableCodec.decode((byte[]) row[3]);
+			if (Boolean.TRUE.equals(row[1])) {
+				locals = (ObjectNode) local;
+				globals = (ObjectNode) global;
+			} else {
+				VariableDelta.apply(locals, local);
+				VariableDelta.apply(globals, global);
+			}
+		}
+		return new VariableSnapshot(step, locals, globals);
+	}
+}
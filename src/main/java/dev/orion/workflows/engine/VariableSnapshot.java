@@ -0,0 +1,31 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.engine;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * The variables of an execution as they were after a given step.
+ *
+ * @param stepNumber      The number of the step.
+ * @param localVariables  The local variables.
+ * @param globalVariables The global variables.
+ */
+public record VariableSnapshot(int stepNumber, ObjectNode localVariables,
+		ObjectNode globalVariables) {
+}
@@ -0,0 +1,295 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.engine;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import dev.orion.workflows.model.ExecutionStatus;
+import dev.orion.workflows.model.Service;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.quarkus.opentelemetry.runtime.QuarkusContextStorage;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.core.Vertx;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Publishes the metrics and traces of the executions.
+ *
+ * The meters are registered with Micrometer and scraped by Prometheus on
+ * /q/metrics: counters of the started, completed and failed executions by
+ * workflow name, histograms of the latency of the steps by control type, of
+ * the latency of the calls and the size of the payloads by service, and
+ * gauges of the queues of the engine. Each meter is looked up once per tag
+ * value and cached, so recording costs a map lookup and an atomic update,
+ * and the histograms have a bounded number of buckets.
+ *
+ * Each run of an execution is traced as a span carrying the hash of the
+ * execution and the name of its workflow. The HTTP client of the services
+ * is instrumented, so the spans of the calls of the run are its children.
+ */
+@ApplicationScoped
+public class WorkflowTelemetry {
+
+	/**
+	 * The attribute of the execution spans holding the execution hash.
+	 */
+	private static final String EXECUTION_HASH = "workflows.execution.hash";
+
+	/**
+	 * The attribute of the execution spans holding the workflow name.
+	 */
+	private static final String WORKFLOW_NAME = "workflows.workflow.name";
+
+	/**
+	 * The registry of the meters.
+	 */
+	@Inject
+	private MeterRegistry registry;
+
+	/**
+	 * The tracer of the executions.
+	 */
+	@Inject
+	private Tracer tracer;
+
+	/**
+	 * The Vert.x instance on which the traced runs get their contexts.
+	 */
+	@Inject
+	private Vertx vertx;
+
+	/**
+	 * The writer of the execution history, whose queue is measured.
+	 */
+	@Inject
+	private HistoryWriter historyWriter;
+
+	/**
+	 * The scheduler of the wake-ups, whose timers are measured.
+	 */
+	@Inject
+	private TimerScheduler timers;
+
+	/**
+	 * The counters of the executions by meter name and workflow name.
+	 */
+	private final Map<String, Map<String, Counter>> executions =
+			new ConcurrentHashMap<>();
+
+	/**
+	 * The timers of the steps by control type.
+	 */
+	private final Map<String, Timer> steps = new ConcurrentHashMap<>();
+
+	/**
+	 * The meters of the services by name.
+	 */
+	private final Map<String, ServiceMeters> services =
+			new ConcurrentHashMap<>();
+
+	/**
+	 * The meters of a service.
+	 *
+	 * @param succeeded The latency of the successful calls.
+	 * @param failed    The latency of the failed calls.
+	 * @param requests  The size of the request bodies.
+	 * @param responses The size of the response bodies.
+	 */
+	private record ServiceMeters(Timer succeeded, Timer failed,
+			DistributionSummary requests, DistributionSummary responses) {
+	}
+
+	void init(@Observes final StartupEvent event) {
+		Gauge.builder("workflows.history.pending", historyWriter,
+				HistoryWriter::pending)
+				.description("Steps waiting to be written to the history")
+				.register(registry);
+		Gauge.builder("workflows.timers.scheduled", timers,
+				TimerScheduler::scheduled)
+				.description("Wake-ups held in the timer wheel")
+				.register(registry);
+	}
+
+	/**
+	 * Counts an execution that starts.
+	 *
+	 * @param workflow The name of the workflow.
+	 */
+	public void started(final String workflow) {
+		count("workflows.executions.started", workflow);
+	}
+
+	/**
+	 * Counts an execution that completes or fails.
+	 *
+	 * @param workflow The name of the workflow.
+	 * @param status   COMPLETED or FAILED.
+	 */
+	public void ended(final String workflow, final ExecutionStatus status) {
+		count(status == ExecutionStatus.COMPLETED
+				? "workflows.executions.completed"
+				: "workflows.executions.failed", workflow);
+	}
+
+	private void count(final String name, final String workflow) {
+		executions.computeIfAbsent(name, ignored -> new ConcurrentHashMap<>())
+				.computeIfAbsent(workflow, ignored -> Counter.builder(name)
+						.tag("workflow", workflow)
+						.register(registry))
+				.increment();
+	}
+
+	/**
+	 * Records the latency of a step, from its start to its recording.
+	 *
+	 * @param controlType The type of the control of the step.
+	 * @param nanos       The latency in nanoseconds.
+	 */
+	public void step(final String controlType, final long nanos) {
+		steps.computeIfAbsent(controlType, type -> Timer
+				.builder("workflows.steps")
+				.description("Latency of the steps by control type")
+				.tag("control", type)
+				.publishPercentileHistogram()
+				.minimumExpectedValue(Duration.ofMillis(1))
+				.maximumExpectedValue(Duration.ofMinutes(1))
+				.register(registry))
+				.record(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Records a call to a service.
+	 *
+	 * @param service  The service.
+	 * @param call     The call, or null if it failed.
+	 * @param failure  The failure of the call, or null.
+	 * @param nanos    The latency in nanoseconds.
+	 */
+	public void call(final Service service, final ServiceCall call,
+			final Throwable failure, final long nanos) {
+		ServiceMeters meters = services.computeIfAbsent(service.getName(),
+				this::serviceMeters);
+		(failure == null ? meters.succeeded() : meters.failed())
+				.record(nanos, TimeUnit.NANOSECONDS);
+		if (call != null) {
+			meters.requests().record(call.requestData().length);
+			meters.responses().record(call.responseData().length);
+		}
+	}
+
+	private ServiceMeters serviceMeters(final String name) {
+		return new ServiceMeters(serviceTimer(name, "success"),
+				serviceTimer(name, "failure"),
+				payloadSummary(name, "request"),
+				payloadSummary(name, "response"));
+	}
+
+	private Timer serviceTimer(final String name, final String outcome) {
+		return Timer.builder("workflows.service.calls")
+				.description("Latency of the calls to the services")
+				.tag("service", name)
+				.tag("outcome", outcome)
+				.publishPercentileHistogram()
+				.minimumExpectedValue(Duration.ofMillis(1))
+				.maximumExpectedValue(Duration.ofMinutes(1))
+				.register(registry);
+	}
+
+	private DistributionSummary payloadSummary(final String name,
+			final String direction) {
+		return DistributionSummary.builder("workflows.service.payload")
+				.description("Size of the bodies exchanged with the services")
+				.baseUnit("bytes")
+				.tag("service", name)
+				.tag("direction", direction)
+				.publishPercentileHistogram()
+				.minimumExpectedValue(64.0)
+				.maximumExpectedValue(16.0 * 1024 * 1024)
+				.register(registry);
+	}
+
+	/**
+	 * Measures the calls in flight to the services of a name. Nothing
+	 * happens if they are measured already.
+	 *
+	 * @param service  The name of the services.
+	 * @param inFlight The number of calls in progress to the services.
+	 */
+	public void watch(final String service, final Supplier<Number> inFlight) {
+		Gauge.builder("workflows.service.in_flight", inFlight)
+				.description("Calls in progress to the services")
+				.tag("service", service)
+				.strongReference(true)
+				.register(registry);
+	}
+
+	/**
+	 * Runs an execution within a span. The run gets a Vert.x duplicated
+	 * context of its own, and the span is stored in the locals of that
+	 * context, where the OpenTelemetry context storage of Quarkus looks for
+	 * the current span. The span is thus current for the whole run, on any
+	 * thread the run continues on, so the spans of its service calls are its
+	 * children, and it leaves nothing behind on the caller's thread or
+	 * context. No scope is held across the run: the locals go away with the
+	 * context, and the span is ended when the run terminates.
+	 *
+	 * @param <T>      The type of the result of the run.
+	 * @param hash     The hash of the execution.
+	 * @param workflow The name of the workflow.
+	 * @param run      The run.
+	 * @return The Uni of the run, traced.
+	 */
+	public <T> Uni<T> traced(final String hash, final String workflow,
+			final Supplier<Uni<T>> run) {
+		return Uni.createFrom().deferred(() -> {
+			Context parent = Context.current();
+			Span span = tracer.spanBuilder("execution " + workflow)
+					.setParent(parent)
+					.setAttribute(EXECUTION_HASH, hash)
+					.setAttribute(WORKFLOW_NAME, workflow)
+					.startSpan();
+			return Contexts.<T>onNewContext(vertx, () -> {
+				QuarkusContextStorage.INSTANCE.attach(
+						io.vertx.core.Vertx.currentContext(),
+						parent.with(span));
+				return run.get();
+			}).onTermination().invoke((item, failure, cancelled) -> {
+				if (failure != null) {
+					span.recordException(failure);
+					span.setStatus(StatusCode.ERROR);
+				}
+				span.end();
+			});
+		});
+	}
+}
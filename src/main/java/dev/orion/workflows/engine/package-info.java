@@ -0,0 +1,12 @@
+/**
+ * This package contains the execution engine of the workflow system.
+ * The engine interprets the controls of a workflow for each execution,
+ * invokes the services they reference and records the outcome of every
+ * step in the execution history.
+ *
+ * The engine is fully non-blocking: service calls are issued with the
+ * Vert.x HTTP client and persistence goes through Hibernate Reactive, so
+ * a large number of executions can be in flight on a handful of event loop
+ * threads.
+ */
+package dev.orion.workflows.engine;
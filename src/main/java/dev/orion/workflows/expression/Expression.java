@@ -0,0 +1,46 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.expression;
+
+/**
+ * A compiled expression.
+ *
+ * The value of an expression is null, a Boolean, a Double, a String, or the
+ * JSON node of an object or array variable.
+ */
+@FunctionalInterface
+public interface Expression {
+
+	/**
+	 * Evaluates the expression.
+	 *
+	 * @param scope The variables the expression refers to.
+	 * @return The value of the expression.
+	 */
+	Object evaluate(Scope scope);
+
+	/**
+	 * Evaluates the expression as a condition.
+	 *
+	 * @param scope The variables the expression refers to.
+	 * @return Whether the value of the expression is truthy.
+	 */
+	default boolean test(final Scope scope) {
+		return Values.truthy(evaluate(scope));
+	}
+}
@@ -0,0 +1,415 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.expression;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Parses expressions and compiles them into trees of closures.
+ *
+ * The language supports number, string ('...' or "..."), true, false and
+ * null literals; variables, optionally prefixed by $, with member and index
+ * access such as {@code $group.members[0]}; the operators ! and unary -;
+ * the arithmetic operators * / % + - (+ concatenates when an operand is a
+ * string); the comparisons &lt; &lt;= &gt; &gt;= == != and the logical
+ * operators &amp;&amp; and || (also written "and" and "or"), with the usual
+ * precedences and parentheses. Sub-expressions made only of literals are
+ * evaluated at compile time.
+ */
+public final class ExpressionCompiler {
+
+	/**
+	 * The source of the expression.
+	 */
+	private final String source;
+
+	/**
+	 * The position of the next character to be read.
+	 */
+	private int position;
+
+	private ExpressionCompiler(final String source) {
+		this.source = source;
+	}
+
+	/**
+	 * Compiles an expression.
+	 *
+	 * @param source The source of the expression.
+	 * @return The compiled expression. A blank source compiles to an
+	 *         expression whose value is null.
+	 * @throws ExpressionException If the expression is not well formed.
+	 */
+	public static Expression compile(final String source) {
+		if (source == null || source.isBlank()) {
+			return constant(null);
+		}
+		ExpressionCompiler compiler = new ExpressionCompiler(source);
+		Expression expression = compiler.or();
+		compiler.skipSpaces();
+		if (compiler.position < source.length()) {
+			throw compiler.error("Unexpected character");
+		}
+		return expression;
+	}
+
+	private Expression or() {
+		Expression left = and();
+		while (accept("||") || acceptWord("or")) {
+			Expression a = left;
+			Expression b = and();
+			left = fold(scope -> Values.truthy(a.evaluate(scope))
+					|| Values.truthy(b.evaluate(scope)), a, b);
+		}
+		return left;
+	}
+
+	private Expression and() {
+		Expression left = equality();
+		while (accept("&&") || acceptWord("and")) {
+			Expression a = left;
+			Expression b = equality();
+			left = fold(scope -> Values.truthy(a.evaluate(scope))
+					&& Values.truthy(b.evaluate(scope)), a, b);
+		}
+		return left;
+	}
+
+	private Expression equality() {
+		Expression left = comparison();
+		while (true) {
+			Expression a = left;
+			if (accept("==")) {
+				Expression b = comparison();
+				left = fold(scope -> Values.equal(a.evaluate(scope),
+						b.evaluate(scope)), a, b);
+			} else if (accept("!=")) {
+				Expression b = comparison();
+				left = fold(scope -> !Values.equal(a.evaluate(scope),
+						b.evaluate(scope)), a, b);
+			} else {
+				return left;
+			}
+		}
+	}
+
+	private Expression comparison() {
+		Expression left = additive();
+		while (true) {
+			Expression a = left;
+			if (accept("<=")) {
+				Expression b = additive();
+				left = fold(scope -> compare(a, b, scope) <= 0, a, b);
+			} else if (accept(">=")) {
+				Expression b = additive();
+				left = fold(scope -> {
+					int result = compare(a, b, scope);
+					return result == 0 || result == 1;
+				}, a, b);
+			} else if (accept("<")) {
+				Expression b = additive();
+				left = fold(scope -> compare(a, b, scope) < 0, a, b);
+			} else if (accept(">")) {
+				Expression b = additive();
+				left = fold(scope -> compare(a, b, scope) == 1, a, b);
+			} else {
+				return left;
+			}
+		}
+	}
+
+	private static int compare(final Expression a, final Expression b,
+			final Scope scope) {
+		// Incomparable values compare as 2, which fails every test below.
+		return Values.compare(a.evaluate(scope), b.evaluate(scope));
+	}
+
+	private Expression additive() {
+		Expression left = multiplicative();
+		while (true) {
+			Expression a = left;
+			if (accept("+")) {
+				Expression b = multiplicative();
+				left = fold(scope -> {
+					Object x = a.evaluate(scope);
+					Object y = b.evaluate(scope);
+					if (x instanceof String || y instanceof String) {
+						return text(x) + text(y);
+					}
+					return Values.number(x) + Values.number(y);
+				}, a, b);
+			} else if (accept("-")) {
+				Expression b = multiplicative();
+				left = fold(scope -> Values.number(a.evaluate(scope))
+						- Values.number(b.evaluate(scope)), a, b);
+			} else {
+				return left;
+			}
+		}
+	}
+
+	private Expression multiplicative() {
+		Expression left = unary();
+		while (true) {
+			Expression a = left;
+			if (accept("*")) {
+				Expression b = unary();
+				left = fold(scope -> Values.number(a.evaluate(scope))
+						* Values.number(b.evaluate(scope)), a, b);
+			} else if (accept("/")) {
+				Expression b = unary();
+				left = fold(scope -> Values.number(a.evaluate(scope))
+						/ Values.number(b.evaluate(scope)), a, b);
+			} else if (accept("%")) {
+				Expression b = unary();
+				left = fold(scope -> Values.number(a.evaluate(scope))
+						% Values.number(b.evaluate(scope)), a, b);
+			} else {
+				return left;
+			}
+		}
+	}
+
+	private Expression unary() {
+		if (accept("!")) {
+			Expression a = unary();
+			return fold(scope -> !Values.truthy(a.evaluate(scope)), a);
+		}
+		if (accept("-")) {
+			Expression a = unary();
+			return fold(scope -> -Values.number(a.evaluate(scope)), a);
+		}
+		return primary();
+	}
+
+	private Expression primary() {
+		skipSpaces();
+		if (position >= source.length()) {
+			throw error("Unexpected end of expression");
+		}
+		char c = source.charAt(position);
+		if (accept("(")) {
+			Expression expression = or();
+			expect(")");
+			return expression;
+		}
+		if (c == '\'' || c == '"') {
+			return constant(string(c));
+		}
+		if (Character.isDigit(c) || c == '.') {
+			return constant(number());
+		}
+		if (c == '$' || Character.isJavaIdentifierStart(c)) {
+			return variable();
+		}
+		throw error("Unexpected character");
+	}
+
+	private Expression variable() {
+		if (source.charAt(position) == '$') {
+			position++;
+		}
+		String name = identifier();
+		switch (name) {
+			case "true":
+				return constant(Boolean.TRUE);
+			case "false":
+				return constant(Boolean.FALSE);
+			case "null":
+				return constant(null);
+			default:
+				break;
+		}
+		List<Object> path = new ArrayList<>();
+		while (true) {
+			if (acceptRaw('.')) {
+				path.add(identifier());
+			} else if (acceptRaw('[')) {
+				skipSpaces();
+				int start = position;
+				while (position < source.length()
+						&& Character.isDigit(source.charAt(position))) {
+					position++;
+				}
+				if (start == position) {
+					throw error("Expected an index");
+				}
+				path.add(Integer.valueOf(source.substring(start, position)));
+				expect("]");
+			} else {
+				break;
+			}
+		}
+		if (path.isEmpty()) {
+			return scope -> Values.of(scope.variable(name));
+		}
+		Object[] steps = path.toArray();
+		return scope -> {
+			JsonNode node = scope.variable(name);
+			for (int i = 0; i < steps.length && node != null; i++) {
+				node = steps[i] instanceof String field ? node.get(field)
+						: node.get((Integer) steps[i]);
+			}
+			return Values.of(node);
+		};
+	}
+
+	private String identifier() {
+		int start = position;
+		if (position < source.length()
+				&& Character.isJavaIdentifierStart(source.charAt(position))) {
+			position++;
+			while (position < source.length() && Character
+					.isJavaIdentifierPart(source.charAt(position))) {
+				position++;
+			}
+		}
+		if (start == position) {
+			throw error("Expected a name");
+		}
+		return source.substring(start, position);
+	}
+
+	private String string(final char quote) {
+		StringBuilder text = new StringBuilder();
+		position++;
+		while (position < source.length()) {
+			char c = source.charAt(position++);
+			if (c == quote) {
+				return text.toString();
+			}
+			if (c == '\\' && position < source.length()) {
+				c = source.charAt(position++);
+			}
+			text.append(c);
+		}
+		throw error("Unterminated string");
+	}
+
+	private Double number() {
+		int start = position;
+		while (position < source.length()
+				&& (Character.isDigit(source.charAt(position))
+						|| source.charAt(position) == '.')) {
+			position++;
+		}
+		try {
+			return Double.valueOf(source.substring(start, position));
+		} catch (NumberFormatException e) {
+			throw error("Invalid number");
+		}
+	}
+
+	private void skipSpaces() {
+		while (position < source.length()
+				&& Character.isWhitespace(source.charAt(position))) {
+			position++;
+		}
+	}
+
+	private boolean accept(final String token) {
+		skipSpaces();
+		if (!source.startsWith(token, position)) {
+			return false;
+		}
+		// Do not take the first character of a longer operator.
+		int end = position + token.length();
+		if (token.length() == 1 && end < source.length()
+				&& "<>!=".indexOf(token.charAt(0)) >= 0
+				&& source.charAt(end) == '=') {
+			return false;
+		}
+		if (("&".equals(token) || "|".equals(token)) && end < source.length()
+				&& source.charAt(end) == token.charAt(0)) {
+			return false;
+		}
+		position = end;
+		return true;
+	}
+
+	private boolean acceptWord(final String word) {
+		skipSpaces();
+		int end = position + word.length();
+		if (!source.startsWith(word, position) || (end < source.length()
+				&& Character.isJavaIdentifierPart(source.charAt(end)))) {
+			return false;
+		}
+		position = end;
+		return true;
+	}
+
+	private boolean acceptRaw(final char c) {
+		if (position < source.length() && source.charAt(position) == c) {
+			position++;
+			return true;
+		}
+		return false;
+	}
+
+	private void expect(final String token) {
+		if (!accept(token)) {
+			throw error("Expected '" + token + "'");
+		}
+	}
+
+	private ExpressionException error(final String message) {
+		return new ExpressionException(source, position, message);
+	}
+
+	private static String text(final Object value) {
+		if (value instanceof Double number && number == Math.rint(number)
+				&& !Double.isInfinite(number)) {
+			return Long.toString(number.longValue());
+		}
+		return String.valueOf(value);
+	}
+
+	/**
+	 * Evaluates an operation at compile time when all its operands are
+	 * constants.
+	 */
+	private static Expression fold(final Expression operation,
+			final Expression... operands) {
+		for (Expression operand : operands) {
+			if (!(operand instanceof Constant)) {
+				return operation;
+			}
+		}
+		return constant(operation.evaluate(name -> null));
+	}
+
+	private static Expression constant(final Object value) {
+		return new Constant(value);
+	}
+
+	/**
+	 * An expression whose value is known at compile time.
+	 *
+	 * @param value The value of the expression.
+	 */
+	private record Constant(Object value) implements Expression {
+
+		@Override
+		public Object evaluate(final Scope scope) {
+			return value;
+		}
+	}
+}
@@ -0,0 +1,39 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.expression;
+
+/**
+ * Signals that an expression is not well formed.
+ */
+public class ExpressionException extends IllegalArgumentException {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Creates the exception.
+	 *
+	 * @param expression The source of the expression.
+	 * @param position   The position of the error in the source.
+	 * @param message    The description of the error.
+	 */
+	public ExpressionException(final String expression, final int position,
+			final String message) {
+		super(message + " at position " + position + " of '" + expression
+				+ "'");
+	}
+}
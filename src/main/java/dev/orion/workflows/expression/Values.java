@@ -0,0 +1,123 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.expression;
+
+import java.util.Objects;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * The conversions and comparisons shared by the compiled expressions.
+ */
+final class Values {
+
+	/**
+	 * The result of comparing values that have no order between them.
+	 */
+	static final int INCOMPARABLE = 2;
+
+	private Values() {
+	}
+
+	/**
+	 * Converts a JSON node into an expression value.
+	 *
+	 * @param node The node.
+	 * @return The value of the node.
+	 */
+	static Object of(final JsonNode node) {
+		if (node == null || node.isNull() || node.isMissingNode()) {
+			return null;
+		}
+		if (node.isBoolean()) {
+			return node.booleanValue() ? Boolean.TRUE : Boolean.FALSE;
+		}
+		if (node.isNumber()) {
+			return node.doubleValue();
+		}
+		if (node.isTextual()) {
+			return node.textValue();
+		}
+		return node;
+	}
+
+	/**
+	 * Tells whether a value holds as a condition: null, false, zero, NaN, the
+	 * empty string and empty objects or arrays do not.
+	 *
+	 * @param value The value.
+	 * @return Whether the value is truthy.
+	 */
+	static boolean truthy(final Object value) {
+		if (value == null) {
+			return false;
+		}
+		if (value instanceof Boolean bool) {
+			return bool;
+		}
+		if (value instanceof Double number) {
+			return number != 0 && !number.isNaN();
+		}
+		if (value instanceof String text) {
+			return !text.isEmpty();
+		}
+		return ((JsonNode) value).size() > 0;
+	}
+
+	/**
+	 * Tells whether two values are equal. Numbers are compared by value.
+	 *
+	 * @param left  The first value.
+	 * @param right The second value.
+	 * @return Whether the values are equal.
+	 */
+	static boolean equal(final Object left, final Object right) {
+		if (left instanceof Double a && right instanceof Double b) {
+			return a.doubleValue() == b.doubleValue();
+		}
+		return Objects.equals(left, right);
+	}
+
+	/**
+	 * Compares two numbers or two strings.
+	 *
+	 * @param left  The first value.
+	 * @param right The second value.
+	 * @return -1, 0 or 1 as the first value is less than, equal to or greater
+	 *         than the second, or {@link #INCOMPARABLE}.
+	 */
+	static int compare(final Object left, final Object right) {
+		if (left instanceof Double a && right instanceof Double b) {
+			return Double.compare(a, b);
+		}
+		if (left instanceof String a && right instanceof String b) {
+			return Integer.signum(a.compareTo(b));
+		}
+		return INCOMPARABLE;
+	}
+
+	/**
+	 * Converts a value into a number for arithmetic.
+	 *
+	 * @param value The value.
+	 * @return The number, or NaN if the value is not a number.
+	 */
+	static double number(final Object value) {
+		return value instanceof Double number ? number : Double.NaN;
+	}
+}
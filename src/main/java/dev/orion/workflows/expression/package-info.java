@@ -0,0 +1,9 @@
+/**
+ * This package contains the expression language of the "if" controls.
+ *
+ * Expressions are parsed once, when the plan of a workflow is compiled, into
+ * a tree of small closures. Evaluating a condition then only walks that tree
+ * against the variables of the execution, without parsing, reflection or a
+ * script engine.
+ */
+package dev.orion.workflows.expression;
@@ -0,0 +1,52 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.model;
+
+import java.time.Instant;
+
+import io.quarkus.hibernate.reactive.panache.PanacheEntityBase;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Represents a node of the cluster, known to the others through its
+ * heartbeat. A node whose heartbeat has expired is considered gone.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "cluster_node")
+public class ClusterNode extends PanacheEntityBase {
+
+	/**
+	 * The name of the node.
+	 */
+	@Id
+	@Column(name = "name", length = 64)
+	private String name;
+
+	/**
+	 * The time until which the node is considered alive.
+	 */
+	@Column(name = "heartbeat_until", nullable = false)
+	private Instant heartbeatUntil;
+}
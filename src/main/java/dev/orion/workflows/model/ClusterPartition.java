@@ -0,0 +1,60 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.model;
+
+import java.time.Instant;
+
+import io.quarkus.hibernate.reactive.panache.PanacheEntityBase;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Represents a partition of the executions and the node that owns it.
+ * Executions are spread over a fixed number of partitions by hash, and the
+ * owner of a partition is the node that polls its timers and recovers its
+ * orphaned executions.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "cluster_partition")
+public class ClusterPartition extends PanacheEntityBase {
+
+	/**
+	 * The number of the partition.
+	 */
+	@Id
+	@Column(name = "id")
+	private Integer id;
+
+	/**
+	 * The node owning the partition, or null if it is free.
+	 */
+	@Column(name = "owner", length = 64)
+	private String owner;
+
+	/**
+	 * The time until which the owner holds the partition.
+	 */
+	@Column(name = "lease_until", nullable = false)
+	private Instant leaseUntil;
+}
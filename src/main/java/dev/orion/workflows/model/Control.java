@@ -19,23 +19,29 @@ package dev.orion.workflows.model;
 
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 
+import dev.orion.workflows.model.control.Break;
+import dev.orion.workflows.model.control.Continue;
 import dev.orion.workflows.model.control.Go;
 import dev.orion.workflows.model.control.If;
 import dev.orion.workflows.model.control.Loop;
+import dev.orion.workflows.model.control.Parallel;
 import dev.orion.workflows.model.control.Wait;
 import io.quarkus.hibernate.reactive.panache.PanacheEntity;
-import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.DiscriminatorColumn;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
 import jakarta.persistence.Inheritance;
 import jakarta.persistence.InheritanceType;
 import jakarta.persistence.JoinColumn;
-import jakarta.persistence.OneToMany;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -43,15 +49,22 @@ import lombok.Setter;
  * The Control class represents a control component in the workflow model.
  * It is an abstract class that provides common properties and behaviors for
  * different types of controls.
- * Controls can be of types: Go, Wait, Loop, and If.
+ * Controls can be of types: Go, Wait, Loop, If, Parallel, Break and
+ * Continue.
  *
  * Properties:
  * - type: The type of the control. It is determined by the subclass and used as
  * a discriminator.
  * - service: The service associated with the control.
  * - controls: The list of controls associated with this control.
+ *
+ * The controls of a workflow are stored as a flat list in pre-order, each
+ * with its depth in the tree, so the whole tree is read with a single query
+ * and reassembled by {@link ControlTree}.
  */
 @Entity
+@Table(indexes = @Index(name = "control_workflow_position",
+        columnList = "workflow_id, position"))
 @Getter
 @Setter
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
@@ -62,14 +75,19 @@ import lombok.Setter;
                 @JsonSubTypes.Type(value = Go.class, name = "go"),
                 @JsonSubTypes.Type(value = Wait.class, name = "wait"),
                 @JsonSubTypes.Type(value = Loop.class, name = "loop"),
-                @JsonSubTypes.Type(value = If.class, name = "if")
+                @JsonSubTypes.Type(value = If.class, name = "if"),
+                @JsonSubTypes.Type(value = Parallel.class, name = "parallel"),
+                @JsonSubTypes.Type(value = Break.class, name = "break"),
+                @JsonSubTypes.Type(value = Continue.class, name = "continue")
 })
 public abstract class Control extends PanacheEntity {
 
         /**
          * The type of the control. It is determined by the subclass and used as
-         * a discriminator.
+         * a discriminator. It is not bound to JSON, where the type id written
+         * and read by {@link JsonTypeInfo} stands for it.
          */
+        @JsonIgnore
         @Column(insertable = false, updatable = false)
         private String type;
 
@@ -81,8 +99,29 @@ public abstract class Control extends PanacheEntity {
         /**
          * The list of controls associated with this control.
          */
-        @OneToMany(cascade = CascadeType.ALL, fetch = FetchType.EAGER)
-        @JoinColumn(name = "control_id")
+        @Transient
         private List<Control> controls;
 
+        /**
+         * The workflow the control belongs to.
+         */
+        @JsonIgnore
+        @ManyToOne(fetch = FetchType.LAZY)
+        @JoinColumn(name = "workflow_id")
+        private Workflow workflow;
+
+        /**
+         * The index of the control in the pre-order walk of the workflow's
+         * control tree.
+         */
+        @JsonIgnore
+        private int position;
+
+        /**
+         * The depth of the control in the tree; top-level controls have
+         * depth zero.
+         */
+        @JsonIgnore
+        private int depth;
+
 }
@@ -0,0 +1,95 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Converts the control tree of a workflow to and from the flat pre-order
+ * list in which it is stored. Both directions take linear time and no
+ * recursion, so deeply nested workflows are handled like flat ones.
+ */
+public final class ControlTree {
+
+	private ControlTree() {
+	}
+
+	/**
+	 * Lists the controls of a workflow in pre-order, setting the workflow,
+	 * position and depth of each one.
+	 *
+	 * @param workflow The workflow whose control tree is to be flattened.
+	 * @return The controls in pre-order.
+	 */
+	public static List<Control> flatten(final Workflow workflow) {
+		List<Control> flat = new ArrayList<>();
+		Deque<Control> pending = new ArrayDeque<>();
+		Deque<Integer> depths = new ArrayDeque<>();
+		push(pending, depths, workflow.getControls(), 0);
+		while (!pending.isEmpty()) {
+			Control control = pending.pop();
+			int depth = depths.pop();
+			control.setWorkflow(workflow);
+			control.setPosition(flat.size());
+			control.setDepth(depth);
+			flat.add(control);
+			push(pending, depths, control.getControls(), depth + 1);
+		}
+		return flat;
+	}
+
+	/**
+	 * Rebuilds a control tree from its controls in pre-order.
+	 *
+	 * @param controls The controls in pre-order, with their depths.
+	 * @return The top-level controls, with their nested controls set.
+	 */
+	public static List<Control> assemble(final List<Control> controls) {
+		List<Control> roots = new ArrayList<>();
+		Deque<Control> path = new ArrayDeque<>();
+		for (Control control : controls) {
+			control.setControls(new ArrayList<>());
+			while (path.size() > control.getDepth()) {
+				path.pop();
+			}
+			if (path.isEmpty()) {
+				roots.add(control);
+			} else {
+				path.peek().getControls().add(control);
+			}
+			path.push(control);
+		}
+		return roots;
+	}
+
+	private static void push(final Deque<Control> pending,
+			final Deque<Integer> depths, final List<Control> children,
+			final int depth) {
+		if (children == null) {
+			return;
+		}
+		// Pushed in reverse so the first child is popped first.
+		for (int i = children.size() - 1; i >= 0; i--) {
+			pending.push(children.get(i));
+			depths.push(depth);
+		}
+	}
+}
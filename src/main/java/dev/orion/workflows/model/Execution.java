@@ -17,24 +17,26 @@
 
 package dev.orion.workflows.model;
 
-import java.util.Date;
+import java.time.Instant;
 import java.util.List;
-import java.util.UUID;
 
-import org.hibernate.annotations.Type;
-
-import io.quarkiverse.hibernate.types.json.JsonStringType;
-import io.quarkus.hibernate.reactive.panache.PanacheEntity;
+import io.quarkus.hibernate.reactive.panache.PanacheEntityBase;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.Lob;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
-import jakarta.persistence.Temporal;
-import jakarta.persistence.TemporalType;
+import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -46,52 +48,127 @@ import lombok.Setter;
 @Entity
 @Getter
 @Setter
-public class Execution extends PanacheEntity {
+@Table(name = "execution", indexes = {
+	@Index(name = "execution_hash", columnList = "hash", unique = true),
+	@Index(name = "execution_wake_at",
+			columnList = "status, partition_id, wake_at"),
+	@Index(name = "execution_lease",
+			columnList = "status, partition_id, lease_until")
+})
+public class Execution extends PanacheEntityBase {
+
+	/**
+	 * The identifier of the execution flow. It is generated by the database,
+	 * so that executions can be created by a multi-row insert.
+	 */
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	public Long id;
 
 	/**
 	 * Unique identifier for the execution flow.
 	 */
+	@Convert(converter = UuidConverter.class)
+	@Column(name = "hash", columnDefinition = "binary(16)")
 	private String hash;
 
 	/**
 	 * The current step number in the execution flow.
 	 */
+	@Column(name = "current_control")
 	private Integer currentControl;
 
+	/**
+	 * The lifecycle status of the execution flow.
+	 */
+	@Enumerated(EnumType.STRING)
+	@Column(name = "status")
+	private ExecutionStatus status;
+
+	/**
+	 * The number of the last step recorded in the history.
+	 */
+	@Column(name = "step_number")
+	private int stepNumber;
+
+	/**
+	 * The time at which a waiting execution is to be resumed, or null if it
+	 * waits for signals only.
+	 */
+	@Column(name = "wake_at")
+	private Instant wakeAt;
+
+	/**
+	 * The partition of the execution, derived from its hash, which decides
+	 * the node that polls its timers and recovers it.
+	 */
+	@Column(name = "partition_id")
+	private int partition;
+
+	/**
+	 * The iteration counters of the loops of the plan, separated by commas,
+	 * as of the last recorded step.
+	 */
+	@Column(name = "loop_counters")
+	private String loopCounters;
+
+	/**
+	 * The node running the execution, while it is running.
+	 */
+	@Column(name = "owner", length = 64)
+	private String owner;
+
+	/**
+	 * The time until which the owner holds the execution. A running
+	 * execution whose lease has expired has lost its node and is resumed by
+	 * another one.
+	 */
+	@Column(name = "lease_until")
+	private Instant leaseUntil;
+
 	/**
 	 * The workflow associated with this execution flow.
 	 */
-	@ManyToOne(optional = false)
+	@ManyToOne(optional = false, fetch = FetchType.LAZY)
 	@JoinColumn(name = "workflow_id", nullable = false)
 	private Workflow workflow;
 
 	/**
-	 * Global variables used during the execution.
+	 * Global variables used during the execution, in one of the formats of
+	 * the VariableCodec of the engine.
 	 */
 	@Lob
-	@Type(JsonStringType.class)
-	@Column(columnDefinition = "json")
-	private String globalVariables;
+	@Column(name = "global_variables", columnDefinition = "longblob")
+	private byte[] globalVariables;
 
 	/**
-	 * Local variables used during the execution.
+	 * Local variables used during the execution, in one of the formats of
+	 * the VariableCodec of the engine.
 	 */
 	@Lob
-	@Type(JsonStringType.class)
-	@Column(columnDefinition = "json")
-	private String localVariables;
+	@Column(name = "local_variables", columnDefinition = "longblob")
+	private byte[] localVariables;
+
+	/**
+	 * The number of the step the variables are as of, or null if they are as
+	 * of the last recorded step. The variables are only written at the
+	 * checkpoints of the history, so the ones of the steps recorded since
+	 * are rebuilt from the patches of the history.
+	 */
+	@Column(name = "variables_step")
+	private Integer variablesStep;
 
 	/**
 	 * The timestamp when the execution flow started.
 	 */
-	@Temporal(TemporalType.TIMESTAMP)
-	private Date started;
+	@Column(name = "started")
+	private Instant started;
 
 	/**
 	 * The timestamp when the execution flow was last updated.
 	 */
-	@Temporal(TemporalType.TIMESTAMP)
-	private Date updated;
+	@Column(name = "updated")
+	private Instant updated;
 
 	/**
 	 * The history of execution steps associated with this flow.
@@ -99,13 +176,4 @@ public class Execution extends PanacheEntity {
 	@OneToMany(cascade = CascadeType.ALL, mappedBy = "execution",
 		fetch = FetchType.LAZY)
 	private List<History> history;
-
-	/**
-	 * Default constructor that initializes the hash and started timestamp.
-	 */
-	public Execution() {
-		this.hash = UUID.randomUUID().toString();
-		this.started = new Date();
-	}
-
 }
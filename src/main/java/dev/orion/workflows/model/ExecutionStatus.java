@@ -0,0 +1,45 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.model;
+
+/**
+ * The lifecycle states of an execution flow.
+ */
+public enum ExecutionStatus {
+
+	/**
+	 * The execution is being advanced by the engine.
+	 */
+	RUNNING,
+
+	/**
+	 * The execution is parked on a wait until a signal or its timer resumes
+	 * it.
+	 */
+	WAITING,
+
+	/**
+	 * The execution reached the end of its workflow.
+	 */
+	COMPLETED,
+
+	/**
+	 * The execution stopped because a step could not be performed.
+	 */
+	FAILED
+}
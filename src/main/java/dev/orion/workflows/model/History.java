@@ -17,17 +17,19 @@
 
 package dev.orion.workflows.model;
 
-import java.util.Date;
-import java.util.UUID;
+import java.time.Instant;
 
 import io.quarkus.hibernate.reactive.panache.PanacheEntity;
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.Lob;
 import jakarta.persistence.ManyToOne;
-import jakarta.persistence.Temporal;
-import jakarta.persistence.TemporalType;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -39,16 +41,25 @@ import lombok.Setter;
 @Entity
 @Getter
 @Setter
+@Table(indexes = {
+	@Index(name = "history_execution_step",
+			columnList = "execution_id, step_number", unique = true),
+	@Index(name = "history_hash", columnList = "hash", unique = true)
+})
 public class History extends PanacheEntity {
 
 	/**
 	 * Unique identifier for the history record.
 	 */
+	@Convert(converter = UuidConverter.class)
+	@Column(name = "hash", columnDefinition = "binary(16)")
 	private String hash;
 
 	/**
-	 * The step number in the execution flow.
+	 * The step number in the execution flow. It is unique within an
+	 * execution, so a step cannot be recorded twice.
 	 */
+	@Column(name = "step_number")
 	private Integer stepNumber;
 
 	/**
@@ -66,11 +77,12 @@ public class History extends PanacheEntity {
 	private Service service;
 
 	/**
-	 * The request data sent to the service.
+	 * The request data sent to the service, or null if the request had no
+	 * body.
 	 */
-	@Lob
-	@Column(name = "request_data")
-	private byte[] requestData;
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "request_payload")
+	private Payload requestPayload;
 
 	/**
 	 * The MIME type of the request data.
@@ -79,11 +91,12 @@ public class History extends PanacheEntity {
 	private String requestMimeType;
 
 	/**
-	 * The response data received from the service.
+	 * The response data received from the service, or null if the response
+	 * had no body.
 	 */
-	@Lob
-	@Column(name = "response_data")
-	private byte[] responseData;
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "response_payload")
+	private Payload responsePayload;
 
 	/**
 	 * The MIME type of the response data.
@@ -92,29 +105,53 @@ public class History extends PanacheEntity {
 	private String responseMimeType;
 
 	/**
-	 * Local variables used during the execution.
+	 * Whether the variable statuses of this step are full copies of the
+	 * variables. When false, they are JSON Patch documents relative to the
+	 * statuses of the previous step.
+	 */
+	@Column(name = "variables_checkpoint", nullable = false)
+	private boolean checkpoint;
+
+	/**
+	 * Local variables used during the execution, either in full or as a patch
+	 * relative to the previous step, in one of the formats of the
+	 * VariableCodec of the engine.
 	 */
 	@Lob
-	@Column(columnDefinition = "json")
-	private String localVariablesStatus;
+	@Column(columnDefinition = "longblob")
+	private byte[] localVariablesStatus;
 
 	/**
-	 * Global variables used during the execution.
+	 * Global variables used during the execution, either in full or as a patch
+	 * relative to the previous step, in one of the formats of the
+	 * VariableCodec of the engine.
 	 */
 	@Lob
-	@Column(columnDefinition = "json")
-	private String globalVariablesStatus;
+	@Column(columnDefinition = "longblob")
+	private byte[] globalVariablesStatus;
+
+	/**
+	 * The number of service calls the record stands for: one, or all the
+	 * calls of a summarized loop made since the previous record, of which
+	 * the record holds the last.
+	 */
+	@Column(name = "calls", nullable = false)
+	private int calls = 1;
 
 	/**
 	 * The timestamp when the execution was performed.
 	 */
-	@Temporal(TemporalType.TIMESTAMP)
-	private Date executed;
+	private Instant executed;
 
 	/**
-	 * Default constructor that initializes the hash with a random UUID.
+	 * Initializes the hash with a time-ordered identifier when the record is
+	 * stored. It is not generated on construction, which also happens every
+	 * time a record is loaded.
 	 */
-	public History() {
-		this.hash = UUID.randomUUID().toString();
+	@PrePersist
+	void generateHash() {
+		if (hash == null) {
+			hash = TimeOrderedId.next();
+		}
 	}
 }
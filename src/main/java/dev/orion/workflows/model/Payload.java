@@ -0,0 +1,76 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.model;
+
+import io.quarkus.hibernate.reactive.panache.PanacheEntityBase;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Represents a request or response body exchanged with a service.
+ * Payloads are content addressed: they are identified by the SHA-256 digest
+ * of their uncompressed content, so a body sent or received many times is
+ * stored only once and History rows refer to it by its hash.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "payload")
+public class Payload extends PanacheEntityBase {
+
+	/**
+	 * The encoding of uncompressed payloads.
+	 */
+	public static final String IDENTITY = "identity";
+
+	/**
+	 * The encoding of payloads compressed with DEFLATE in the zlib format.
+	 */
+	public static final String DEFLATE = "deflate";
+
+	/**
+	 * The hexadecimal SHA-256 digest of the uncompressed content.
+	 */
+	@Id
+	@Column(name = "hash", length = 64)
+	private String hash;
+
+	/**
+	 * The encoding of the stored data, either identity or deflate.
+	 */
+	@Column(name = "encoding", nullable = false, length = 16)
+	private String encoding;
+
+	/**
+	 * The length of the uncompressed content in bytes.
+	 */
+	@Column(name = "original_size", nullable = false)
+	private int originalSize;
+
+	/**
+	 * The stored, possibly compressed, content.
+	 */
+	@Lob
+	@Column(name = "data", nullable = false)
+	private byte[] data;
+}
@@ -17,8 +17,15 @@
 
 package dev.orion.workflows.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import io.quarkus.hibernate.reactive.panache.PanacheEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -30,11 +37,17 @@ import lombok.Setter;
 @Entity
 @Getter
 @Setter
+@Table(indexes = @Index(name = "service_hash", columnList = "hash",
+		unique = true))
 public class Service extends PanacheEntity {
 
 	/**
-	 * Unique identifier for the service.
+	 * Unique identifier for the service. It is assigned on creation and
+	 * cannot be set from JSON.
 	 */
+	@JsonProperty(access = JsonProperty.Access.READ_ONLY)
+	@Convert(converter = UuidConverter.class)
+	@Column(name = "hash", columnDefinition = "binary(16)")
 	private String hash;
 
 	/**
@@ -63,9 +76,14 @@ public class Service extends PanacheEntity {
 	private String produces;
 
 	/**
-	 * Default constructor that initializes the hash with a random UUID.
+	 * Initializes the hash with a time-ordered identifier when the service is
+	 * stored. It is not generated on construction, which also happens every
+	 * time a service is loaded.
 	 */
-	public Service() {
-		this.hash = java.util.UUID.randomUUID().toString();
+	@PrePersist
+	void generateHash() {
+		if (hash == null) {
+			hash = TimeOrderedId.next();
+		}
 	}
 }
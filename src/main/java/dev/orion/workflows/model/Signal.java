@@ -0,0 +1,84 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.model;
+
+import java.time.Instant;
+
+import org.hibernate.annotations.Type;
+
+import io.quarkiverse.hibernate.types.json.JsonStringType;
+import io.quarkus.hibernate.reactive.panache.PanacheEntityBase;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Represents a value delivered to an execution from outside the workflow,
+ * such as a user joining a group. Signals are queued per execution and
+ * variable name until a "Wait" control of the execution consumes them, the
+ * oldest first.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "execution_signal", indexes = @Index(
+		name = "signal_execution_name", columnList = "execution_id, name"))
+public class Signal extends PanacheEntityBase {
+
+	/**
+	 * The identifier of the signal, which also orders the signals.
+	 */
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	public Long id;
+
+	/**
+	 * The identifier of the execution the signal is delivered to. Signals
+	 * refer to their execution by identifier only, so that routing one never
+	 * loads or references an Execution entity.
+	 */
+	@Column(name = "execution_id", nullable = false)
+	private Long executionId;
+
+	/**
+	 * The name of the variable the signal defines.
+	 */
+	@Column(name = "name", nullable = false)
+	private String name;
+
+	/**
+	 * The value of the variable.
+	 */
+	@Lob
+	@Type(JsonStringType.class)
+	@Column(name = "value", columnDefinition = "json")
+	private String value;
+
+	/**
+	 * The timestamp when the signal was received.
+	 */
+	@Column(name = "received", nullable = false)
+	private Instant received;
+}
@@ -0,0 +1,58 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.model;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * Generates time-ordered identifiers: version 7 UUIDs, whose first 48 bits
+ * are the creation time in milliseconds and whose remaining bits, but for
+ * the version and variant, are random. Identifiers created one after the
+ * other sort one after the other, so inserting them appends to the end of
+ * their index instead of splitting pages all over it.
+ */
+public final class TimeOrderedId {
+
+	private static final SecureRandom RANDOM = new SecureRandom();
+
+	private TimeOrderedId() {
+	}
+
+	/**
+	 * Generates a new identifier.
+	 *
+	 * @return The identifier in the textual form of UUIDs.
+	 */
+	public static String next() {
+		return generate(System.currentTimeMillis()).toString();
+	}
+
+	/**
+	 * Generates an identifier for a given time.
+	 *
+	 * @param millis The time in milliseconds since the epoch.
+	 * @return The identifier.
+	 */
+	static UUID generate(final long millis) {
+		long mostSignificant = millis << 16 | 0x7000L
+				| RANDOM.nextLong() >>> 52;
+		long leastSignificant = RANDOM.nextLong() >>> 2 | Long.MIN_VALUE;
+		return new UUID(mostSignificant, leastSignificant);
+	}
+}
@@ -0,0 +1,68 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.model;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores identifiers in the textual form of UUIDs as 16 bytes, in a
+ * BINARY(16) column. A text that is not a UUID is stored as no bytes at all,
+ * which matches no stored identifier, so looking up a malformed identifier
+ * finds nothing instead of failing.
+ */
+@Converter
+public class UuidConverter implements AttributeConverter<String, byte[]> {
+
+	@Override
+	public byte[] convertToDatabaseColumn(final String id) {
+		return id == null ? null : toBytes(id);
+	}
+
+	@Override
+	public String convertToEntityAttribute(final byte[] bytes) {
+		if (bytes == null || bytes.length != 16) {
+			return null;
+		}
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		return new UUID(buffer.getLong(), buffer.getLong()).toString();
+	}
+
+	/**
+	 * Converts an identifier into the bytes it is stored as, for the queries
+	 * that bind it themselves.
+	 *
+	 * @param id The identifier.
+	 * @return Its 16 bytes, or no bytes if it is not a UUID.
+	 */
+	public static byte[] toBytes(final String id) {
+		UUID uuid;
+		try {
+			uuid = UUID.fromString(id);
+		} catch (IllegalArgumentException e) {
+			return new byte[0];
+		}
+		return ByteBuffer.allocate(16)
+				.putLong(uuid.getMostSignificantBits())
+				.putLong(uuid.getLeastSignificantBits())
+				.array();
+	}
+}
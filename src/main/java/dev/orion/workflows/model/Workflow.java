@@ -17,15 +17,24 @@
 
 package dev.orion.workflows.model;
 
-import java.util.UUID;
 import java.util.List;
 
-import io.quarkus.hibernate.reactive.panache.PanacheEntity;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import io.quarkus.hibernate.reactive.panache.PanacheEntityBase;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.OrderBy;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -34,15 +43,33 @@ import lombok.Setter;
  * This class contains details about the workflow,
  * including its name, steps, and the original JSON
  * representation of the workflow.
+ * A stored workflow is an immutable version: storing a workflow under an
+ * existing name with a different definition adds the next version, and
+ * executions keep the version they were started on.
  */
 @Entity
 @Getter
 @Setter
-public class Workflow extends PanacheEntity {
+@Table(name = "workflow", indexes = {
+    @Index(name = "workflow_name_version", columnList = "name, version",
+            unique = true),
+    @Index(name = "workflow_hash", columnList = "hash", unique = true)
+})
+public class Workflow extends PanacheEntityBase {
+
+    /**
+     * The identifier of the workflow. It is generated by the database, so
+     * that a version can be claimed by a single insert.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    public Long id;
 
     /**
      * The hash of the workflow.
-     * This is a unique identifier for the workflow.
+     * This is a unique identifier for the workflow: the SHA-256 digest of
+     * the digest of its canonical JSON definition and of its version, set
+     * when the workflow is stored.
      */
     private String hash;
 
@@ -51,14 +78,31 @@ public class Workflow extends PanacheEntity {
      */
     private String name;
 
+    /**
+     * The version of the workflow, numbered from 1 for each name.
+     * It is set when the workflow is stored.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private int version;
+
     /**
      * The steps (controls) associated with this workflow.
      * Each control represents a step in the workflow process.
      */
-    @OneToMany(cascade = CascadeType.ALL, fetch = FetchType.EAGER)
-    @JoinColumn(name = "workflow_id")
+    @Transient
     private List<Control> controls;
 
+    /**
+     * All the controls of the workflow in pre-order, as they are stored.
+     * They are written from and read into the control tree by
+     * {@link ControlTree}.
+     */
+    @JsonIgnore
+    @OneToMany(mappedBy = "workflow", cascade = CascadeType.ALL,
+            fetch = FetchType.LAZY)
+    @OrderBy("position")
+    private List<Control> storedControls;
+
     /**
      * The services associated with this workflow.
      * Each service represents an external service used in the workflow.
@@ -66,12 +110,4 @@ public class Workflow extends PanacheEntity {
     @OneToMany(cascade = CascadeType.ALL, fetch = FetchType.EAGER)
     @JoinColumn(name = "workflow_id")
     private List<Service> services;
-
-    /**
-     * Creates a new workflow with a unique hash.
-     * The hash is generated using a random UUID.
-     */
-    public Workflow() {
-        this.hash = UUID.randomUUID().toString();
-    }
 }
@@ -0,0 +1,40 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.model.control;
+
+import dev.orion.workflows.model.Control;
+import jakarta.persistence.DiscriminatorValue;
+import jakarta.persistence.Entity;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Represents a "Continue" control in the workflow system.
+ * This class extends the base Control class and is
+ * distinguished by the discriminator value "continue".
+ * It invokes its service, if any, then ends the current iteration of the
+ * innermost enclosing loop and goes on with the next one.
+ * It is usually nested in an "if" control.
+ */
+@Entity
+@Getter
+@Setter
+@DiscriminatorValue("continue")
+public class Continue extends Control {
+
+}
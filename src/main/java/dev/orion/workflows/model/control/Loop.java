@@ -18,6 +18,7 @@
 package dev.orion.workflows.model.control;
 
 import dev.orion.workflows.model.Control;
+import jakarta.persistence.Column;
 import jakarta.persistence.DiscriminatorValue;
 import jakarta.persistence.Entity;
 import lombok.Getter;
@@ -29,7 +30,9 @@ import lombok.Setter;
  * distinguished by the discriminator value "loop".
  * It is used to represent a step in the workflow where
  * a set of actions should be repeated a specified number
- * of times.
+ * of times, once for each item of a collection, or until
+ * a signal breaks it. The "break" and "continue" controls
+ * end the loop or its current iteration.
  */
 @Entity
 @Getter
@@ -43,4 +46,52 @@ public class Loop extends Control {
 	 */
 	private int iterations;
 
+	/**
+	 * An expression whose value is the array iterated by the loop, evaluated
+	 * again before each iteration. It takes precedence over the number of
+	 * iterations.
+	 */
+	@Column(name = "loop_over")
+	private String over;
+
+	/**
+	 * The name of the local variable holding the current item of the
+	 * collection, "item" by default.
+	 */
+	@Column(name = "loop_as")
+	private String as;
+
+	/**
+	 * The name of the external signal that breaks the loop. A loop with a
+	 * signal and neither iterations nor a collection runs until the signal
+	 * is received.
+	 */
+	@Column(name = "loop_signal")
+	private String signal;
+
+	/**
+	 * Whether the iterations run concurrently, each on its own copy of the
+	 * local variables, like the branches of a parallel control.
+	 */
+	@Column(name = "loop_parallel")
+	private boolean parallel;
+
+	/**
+	 * The maximum number of parallel iterations running at the same time, or
+	 * zero to run all of them at once.
+	 */
+	@Column(name = "max_in_flight")
+	private int maxInFlight;
+
+	/**
+	 * How the steps of the loop are recorded in the execution history:
+	 * "full" (the default) records each of them, "summary" records one row
+	 * for all the calls made between two recorded steps, and at least one
+	 * every {@code workflows.history.checkpoint-interval} calls. The calls of
+	 * a summarized loop are made at least once: an execution resumed after a
+	 * failure replays the calls made since the last recorded row.
+	 */
+	@Column(name = "loop_history")
+	private String history;
+
 }
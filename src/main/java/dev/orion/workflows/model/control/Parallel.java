@@ -0,0 +1,55 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.model.control;
+
+import dev.orion.workflows.model.Control;
+import jakarta.persistence.Column;
+import jakarta.persistence.DiscriminatorValue;
+import jakarta.persistence.Entity;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Represents a "Parallel" control in the workflow system.
+ * This class extends the base Control class and is
+ * distinguished by the discriminator value "parallel".
+ * Each of its nested controls is a branch, and the branches
+ * run concurrently. The variables produced by the branches
+ * are merged, in branch order, once the branches join.
+ */
+@Entity
+@Getter
+@Setter
+@DiscriminatorValue("parallel")
+public class Parallel extends Control {
+
+	/**
+	 * The maximum number of branches running at the same time, or zero to
+	 * run all of them at once.
+	 */
+	@Column(name = "max_in_flight")
+	private int maxInFlight;
+
+	/**
+	 * How many branches must complete for the control to join: "all" (the
+	 * default), "any", or a number N of the M branches.
+	 */
+	@Column(name = "join_policy")
+	private String join;
+
+}
@@ -17,7 +17,11 @@
 
 package dev.orion.workflows.model.control;
 
+import java.util.List;
+
 import dev.orion.workflows.model.Control;
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.DiscriminatorValue;
 import jakarta.persistence.Entity;
 import lombok.Getter;
@@ -30,10 +34,29 @@ import lombok.Setter;
  * It is used to represent a step in the workflow where
  * the execution should pause or wait for a specified
  * duration or condition before proceeding to the next step.
+ *
+ * The execution is parked until every external input listed in "with" has
+ * been delivered, or until the duration has elapsed, whichever comes first.
+ * A wait with neither an external input nor a duration does not pause.
  */
 @Entity
 @Getter
 @Setter
 @DiscriminatorValue("wait")
 public class Wait extends Control {
+
+	/**
+	 * The maximum time to wait, as an ISO-8601 duration such as "PT30S".
+	 */
+	private String duration;
+
+	/**
+	 * The variables the control uses, some of which may be provided by
+	 * external signals. They are stored as JSON in the row of the control,
+	 * so reading a wait takes no query of its own.
+	 */
+	@Convert(converter = WaitInputsConverter.class)
+	@Column(name = "wait_inputs", columnDefinition = "json")
+	private List<WaitInput> with;
+
 }
@@ -0,0 +1,58 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.model.control;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * A variable used by a "Wait" control, such as
+ * {@code { "var": "hashUser", "input": "external" }}.
+ */
+@Getter
+@Setter
+public class WaitInput {
+
+	/**
+	 * The input of a variable that is delivered by an external signal.
+	 */
+	public static final String EXTERNAL = "external";
+
+	/**
+	 * The name of the variable.
+	 */
+	private String var;
+
+	/**
+	 * Where the value of the variable comes from, or null if it is already
+	 * defined by the execution.
+	 */
+	private String input;
+
+	/**
+	 * Tells whether the variable is delivered by an external signal.
+	 *
+	 * @return Whether the input is external.
+	 */
+	@JsonIgnore
+	public boolean isExternal() {
+		return EXTERNAL.equals(input);
+	}
+}
@@ -0,0 +1,65 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.model.control;
+
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores the inputs of a "Wait" control as a JSON array.
+ */
+@Converter
+public class WaitInputsConverter
+		implements AttributeConverter<List<WaitInput>, String> {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private static final TypeReference<List<WaitInput>> TYPE =
+			new TypeReference<>() {
+			};
+
+	@Override
+	public String convertToDatabaseColumn(final List<WaitInput> inputs) {
+		if (inputs == null) {
+			return null;
+		}
+		try {
+			return MAPPER.writeValueAsString(inputs);
+		} catch (JsonProcessingException e) {
+			throw new IllegalArgumentException(e);
+		}
+	}
+
+	@Override
+	public List<WaitInput> convertToEntityAttribute(final String json) {
+		if (json == null || json.isBlank()) {
+			return null;
+		}
+		try {
+			return MAPPER.readValue(json, TYPE);
+		} catch (JsonProcessingException e) {
+			throw new IllegalArgumentException(e);
+		}
+	}
+}
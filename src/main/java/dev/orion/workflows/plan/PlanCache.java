@@ -0,0 +1,233 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.plan;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import dev.orion.workflows.engine.Contexts;
+import dev.orion.workflows.model.Workflow;
+import dev.orion.workflows.repository.WorkflowRepository;
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * A bounded cache of compiled workflow plans, indexed by workflow name and by
+ * workflow hash.
+ *
+ * A miss loads the workflow once and compiles it; concurrent lookups of the
+ * same key wait for that single load instead of querying the database each.
+ * Plans expire after a configurable time and the least valuable ones are
+ * evicted when the cache is full.
+ *
+ * The name index holds the plan of the latest version of each workflow.
+ * Publishing a version compiles its plan before replacing the previous one
+ * in a single map update, so new executions move to the new version without
+ * ever finding the name missing, while the executions of older versions
+ * keep finding their plans by hash.
+ *
+ * Versions may also be stored by other nodes, which cannot reach this cache.
+ * A plan found by name is therefore checked against the hash of the latest
+ * stored version, with a query on the name index, when it was not checked
+ * for the configured interval; a node starts the versions stored elsewhere
+ * after at most that interval.
+ */
+@ApplicationScoped
+public class PlanCache {
+
+	/**
+	 * The repository for managing workflows.
+	 */
+	@Inject
+	private WorkflowRepository workflowRepository;
+
+	/**
+	 * The maximum number of plans kept by each index.
+	 */
+	@ConfigProperty(name = "workflows.plans.maximum-size",
+			defaultValue = "1000")
+	private long maximumSize;
+
+	/**
+	 * The time a plan is kept after it was compiled.
+	 */
+	@ConfigProperty(name = "workflows.plans.expire-after-write",
+			defaultValue = "PT1H")
+	private Duration expireAfterWrite;
+
+	/**
+	 * How long a plan found by name is used before it is checked against the
+	 * latest stored version again.
+	 */
+	@ConfigProperty(name = "workflows.plans.check-interval",
+			defaultValue = "PT5S")
+	private Duration checkInterval;
+
+	/**
+	 * The plans indexed by workflow name.
+	 */
+	private AsyncCache<String, WorkflowPlan> byName;
+
+	/**
+	 * The plans indexed by workflow hash.
+	 */
+	private AsyncCache<String, WorkflowPlan> byHash;
+
+	/**
+	 * The names whose plan was checked against the latest stored version
+	 * within the check interval.
+	 */
+	private Cache<String, Boolean> checked;
+
+	@PostConstruct
+	void init() {
+		byName = newCache();
+		byHash = newCache();
+		checked = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(checkInterval)
+				.build();
+	}
+
+	private AsyncCache<String, WorkflowPlan> newCache() {
+		return Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(expireAfterWrite)
+				.recordStats()
+				.buildAsync();
+	}
+
+	/**
+	 * Finds the plan of a workflow by the workflow name.
+	 *
+	 * @param name The name of the workflow.
+	 * @return A Uni containing the plan, or null if there is no workflow with
+	 *         the given name.
+	 */
+	public Uni<WorkflowPlan> findByName(final String name) {
+		return lookup(byName, name, key -> workflowRepository.findByName(key)
+				.invoke(() -> checked.put(key, Boolean.TRUE)))
+				.onItem().ifNotNull().transformToUni(this::latest)
+				.onItem().ifNotNull().invoke(plan -> byHash.asMap()
+						.putIfAbsent(plan.getHash(),
+								CompletableFuture.completedFuture(plan)));
+	}
+
+	/**
+	 * Finds the plan of a workflow by the workflow hash.
+	 *
+	 * @param hash The hash of the workflow.
+	 * @return A Uni containing the plan, or null if there is no workflow with
+	 *         the given hash.
+	 */
+	public Uni<WorkflowPlan> findByHash(final String hash) {
+		return lookup(byHash, hash, workflowRepository::findByHash);
+	}
+
+	/**
+	 * Makes a stored version of a workflow the one started by name. Its plan
+	 * is loaded once, by hash, and then swapped in unless a later version is
+	 * already there.
+	 *
+	 * @param workflow The stored version of the workflow.
+	 * @return A Uni containing the plan of the version.
+	 */
+	public Uni<WorkflowPlan> publish(final Workflow workflow) {
+		return findByHash(workflow.getHash())
+				.onItem().ifNotNull().invoke(this::promote);
+	}
+
+	/**
+	 * Returns the plan of the latest stored version of a workflow, given the
+	 * cached one. The stored version is only read when the name was not
+	 * checked within the check interval.
+	 */
+	private Uni<WorkflowPlan> latest(final WorkflowPlan plan) {
+		if (checked.getIfPresent(plan.getName()) != null) {
+			return Uni.createFrom().item(plan);
+		}
+		return workflowRepository.findLatestHash(plan.getName())
+				.chain(hash -> {
+					checked.put(plan.getName(), Boolean.TRUE);
+					if (hash == null || hash.equals(plan.getHash())) {
+						return Uni.createFrom().item(plan);
+					}
+					return findByHash(hash)
+							.onItem().ifNotNull().invoke(this::promote)
+							.onItem().ifNull().continueWith(plan);
+				});
+	}
+
+	/**
+	 * Swaps a plan in the name index unless a later version is already there.
+	 */
+	private void promote(final WorkflowPlan plan) {
+		byName.asMap().merge(plan.getName(),
+				CompletableFuture.completedFuture(plan),
+				(current, next) -> isLater(current, plan) ? current : next);
+	}
+
+	/**
+	 * Tells whether a cached plan is of a later version than a plan.
+	 */
+	private static boolean isLater(final CompletableFuture<WorkflowPlan> cached,
+			final WorkflowPlan plan) {
+		WorkflowPlan current = cached.isDone()
+				&& !cached.isCompletedExceptionally() ? cached.getNow(null)
+						: null;
+		return current != null && current.getVersion() > plan.getVersion();
+	}
+
+	/**
+	 * Returns the statistics of the cache, summed over both indexes.
+	 *
+	 * @return A snapshot of the statistics.
+	 */
+	public PlanCacheStats stats() {
+		CacheStats names = byName.synchronous().stats();
+		CacheStats hashes = byHash.synchronous().stats();
+		return new PlanCacheStats(
+				byName.synchronous().estimatedSize()
+						+ byHash.synchronous().estimatedSize(),
+				names.hitCount() + hashes.hitCount(),
+				names.missCount() + hashes.missCount(),
+				names.evictionCount() + hashes.evictionCount());
+	}
+
+	private Uni<WorkflowPlan> lookup(
+			final AsyncCache<String, WorkflowPlan> cache, final String key,
+			final Function<String, Uni<Workflow>> loader) {
+		CompletableFuture<WorkflowPlan> plan = cache.get(key,
+				(ignored, executor) -> loader.apply(key)
+						.onItem().ifNotNull()
+						.transform(PlanCompiler::compile)
+						.subscribeAsCompletionStage());
+		return Contexts.onCallerContext(
+				Uni.createFrom().completionStage(plan));
+	}
+}
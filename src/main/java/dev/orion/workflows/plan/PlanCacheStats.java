@@ -0,0 +1,30 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.plan;
+
+/**
+ * A snapshot of the plan cache statistics.
+ *
+ * @param size      The number of cached plans.
+ * @param hits      The number of lookups served from the cache.
+ * @param misses    The number of lookups that loaded a plan.
+ * @param evictions The number of plans evicted by size or expiration.
+ */
+public record PlanCacheStats(long size, long hits, long misses,
+		long evictions) {
+}
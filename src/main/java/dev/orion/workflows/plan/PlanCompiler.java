@@ -0,0 +1,441 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.plan;
+
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import dev.orion.workflows.expression.Expression;
+import dev.orion.workflows.expression.ExpressionCompiler;
+import dev.orion.workflows.model.Control;
+import dev.orion.workflows.model.Service;
+import dev.orion.workflows.model.Workflow;
+import dev.orion.workflows.model.control.Break;
+import dev.orion.workflows.model.control.Continue;
+import dev.orion.workflows.model.control.If;
+import dev.orion.workflows.model.control.Loop;
+import dev.orion.workflows.model.control.Parallel;
+import dev.orion.workflows.model.control.Wait;
+import dev.orion.workflows.model.control.WaitInput;
+
+/**
+ * Compiles the control tree of a workflow into a {@link WorkflowPlan}.
+ *
+ * A "go" control becomes a CALL step followed by the steps of its nested
+ * controls; a "wait" control is the same, preceded by a WAIT step when it
+ * expects external inputs or has a duration. A "parallel" control becomes
+ * its own call followed by a FORK step and, for each nested control, the
+ * steps of that branch closed by a FORK_END step; the FORK step jumps past
+ * the branches once they join. Branches cannot wait, since a parked
+ * execution has a single position. A "loop" becomes a LOOP_START step, the
+ * steps of its body and a LOOP_END step that jumps back to the body; the
+ * waits of a loop broken by a signal also stop on that signal. A "break"
+ * or "continue" becomes a JUMP step to the step after the LOOP_END or to
+ * the LOOP_END itself. A parallel loop becomes an ITERATE step followed by
+ * its body closed by a FORK_END step, and follows the rules of the
+ * branches; "continue" ends its iteration and "break" is not allowed. The
+ * steps of a loop whose history is summarized are marked as such, and its
+ * body can neither wait nor run in parallel. An "if" becomes a BRANCH
+ * step guarding its own call and the steps of its nested controls; its
+ * expression is compiled once here, and shared by the conditions that repeat
+ * it, so that running the plan never parses it again.
+ */
+public final class PlanCompiler {
+
+	/**
+	 * The steps emitted so far.
+	 */
+	private final List<Step> steps = new ArrayList<>();
+
+	/**
+	 * The services of the workflow indexed by name.
+	 */
+	private final Map<String, Service> services = new HashMap<>();
+
+	/**
+	 * The conditions compiled so far indexed by source.
+	 */
+	private final Map<String, Expression> conditions = new HashMap<>();
+
+	/**
+	 * The number of loop counters allocated so far.
+	 */
+	private int slots;
+
+	/**
+	 * The number of parallel controls enclosing the controls being compiled.
+	 */
+	private int parallelDepth;
+
+	/**
+	 * The number of summarized loops enclosing the controls being compiled.
+	 */
+	private int summaryDepth;
+
+	/**
+	 * The innermost loop enclosing the controls being compiled, or null.
+	 */
+	private LoopScope enclosingLoop;
+
+	/**
+	 * The WAIT steps stopped by the signal of an enclosing loop, emitted
+	 * once the exits of all the loops are known.
+	 */
+	private final List<Runnable> interruptibleWaits = new ArrayList<>();
+
+	private PlanCompiler(final Workflow workflow) {
+		if (workflow.getServices() != null) {
+			for (Service service : workflow.getServices()) {
+				services.put(service.getName(), service);
+			}
+		}
+	}
+
+	/**
+	 * Compiles a workflow.
+	 *
+	 * @param workflow The workflow to be compiled.
+	 * @return The plan of the workflow.
+	 * @throws IllegalArgumentException If a control references a service that
+	 *                                  is not declared by the workflow, an
+	 *                                  expression, a duration or a join is
+	 *                                  not valid, or a control is not
+	 *                                  allowed where it appears.
+	 */
+	public static WorkflowPlan compile(final Workflow workflow) {
+		PlanCompiler compiler = new PlanCompiler(workflow);
+		compiler.emit(workflow.getControls());
+		compiler.interruptibleWaits.forEach(Runnable::run);
+		return new WorkflowPlan(workflow.id, workflow.getName(),
+				workflow.getVersion(), workflow.getHash(), compiler.slots,
+				compiler.steps);
+	}
+
+	private void emit(final List<Control> controls) {
+		if (controls == null) {
+			return;
+		}
+		for (Control control : controls) {
+			if (control instanceof Loop loop) {
+				emitLoop(loop);
+			} else if (control instanceof If condition) {
+				int branch = steps.size();
+				steps.add(null);
+				emitCall(control);
+				emit(control.getControls());
+				String expression = condition.getExpression();
+				steps.set(branch, Step.branch(expression,
+						conditions.computeIfAbsent(expression == null ? ""
+								: expression, ExpressionCompiler::compile),
+						steps.size(), summaryDepth > 0));
+			} else if (control instanceof Parallel parallel) {
+				if (summaryDepth > 0) {
+					throw new IllegalArgumentException("A parallel control "
+							+ "cannot run inside a summarized loop");
+				}
+				emitCall(control);
+				emitParallel(parallel);
+			} else if (control instanceof Break
+					|| control instanceof Continue) {
+				emitCall(control);
+				emitJump(control);
+			} else {
+				if (control instanceof Wait wait) {
+					emitWait(wait);
+				}
+				emitCall(control);
+				emit(control.getControls());
+			}
+		}
+	}
+
+	private void emitLoop(final Loop control) {
+		String over = blank(control.getOver()) ? null : control.getOver();
+		Expression collection = over == null ? null
+				: conditions.computeIfAbsent(over, ExpressionCompiler::compile);
+		String variable = over == null ? null
+				: blank(control.getAs()) ? "item" : control.getAs();
+		String signal = blank(control.getSignal()) ? null
+				: control.getSignal();
+		int iterations = over == null && control.getIterations() <= 0
+				&& signal != null ? Integer.MAX_VALUE
+						: control.getIterations();
+		boolean summary = summarized(control.getHistory());
+		if (control.isParallel()) {
+			if (signal != null || summary || summaryDepth > 0) {
+				throw new IllegalArgumentException("A parallel loop can "
+						+ "neither be broken by a signal nor summarized");
+			}
+			emitParallelLoop(control, iterations, over, collection, variable);
+			return;
+		}
+		int slot = slots++;
+		int start = steps.size();
+		steps.add(null);
+		boolean enclosed = summaryDepth > 0;
+		LoopScope scope = new LoopScope(enclosingLoop, signal, parallelDepth,
+				false, enclosed || summary);
+		enclosingLoop = scope;
+		summaryDepth += summary ? 1 : 0;
+		emit(control.getControls());
+		summaryDepth -= summary ? 1 : 0;
+		enclosingLoop = scope.outer;
+		int end = steps.size();
+		Step first = Step.loopStart(iterations, over, collection, variable,
+				slot, end + 1, enclosed);
+		steps.set(start, first);
+		steps.add(Step.loopEnd(first, signal, start + 1, enclosed || summary));
+		scope.close(end);
+	}
+
+	private void emitParallelLoop(final Loop control, final int iterations,
+			final String over, final Expression collection,
+			final String variable) {
+		int iterate = steps.size();
+		steps.add(null);
+		parallelDepth++;
+		LoopScope scope = new LoopScope(enclosingLoop, null, parallelDepth,
+				true, false);
+		enclosingLoop = scope;
+		emit(control.getControls());
+		enclosingLoop = scope.outer;
+		parallelDepth--;
+		int end = steps.size();
+		steps.add(Step.forkEnd());
+		scope.close(end);
+		steps.set(iterate, Step.iterate(iterations, over, collection,
+				variable, Math.max(0, control.getMaxInFlight()), end + 1));
+	}
+
+	private static boolean summarized(final String history) {
+		if (history == null || history.isBlank() || "full".equals(history)) {
+			return false;
+		}
+		if ("summary".equals(history)) {
+			return true;
+		}
+		throw new IllegalArgumentException("Invalid history " + history
+				+ " for a loop");
+	}
+
+	private void emitJump(final Control control) {
+		String type = typeOf(control);
+		if (enclosingLoop == null) {
+			throw new IllegalArgumentException(
+					"A " + type + " must be inside a loop");
+		}
+		if (parallelDepth > enclosingLoop.parallelDepth) {
+			throw new IllegalArgumentException(
+					"A " + type + " cannot leave a parallel control");
+		}
+		boolean isBreak = control instanceof Break;
+		if (isBreak && enclosingLoop.parallel) {
+			throw new IllegalArgumentException(
+					"A break cannot end the iterations of a parallel loop");
+		}
+		(isBreak ? enclosingLoop.breaks : enclosingLoop.continues).add(steps.size());
+		steps.add(null);
+	}
+
+	private static boolean blank(final String value) {
+		return value == null || value.isBlank();
+	}
+
+	private void emitParallel(final Parallel parallel) {
+		List<Control> children = parallel.getControls() == null ? List.of()
+				: parallel.getControls();
+		int fork = steps.size();
+		steps.add(null);
+		int[] branches = new int[children.size()];
+		parallelDepth++;
+		for (int i = 0; i < branches.length; i++) {
+			branches[i] = steps.size();
+			emit(List.of(children.get(i)));
+			steps.add(Step.forkEnd());
+		}
+		parallelDepth--;
+		int concurrency = parallel.getMaxInFlight() > 0
+				? Math.min(parallel.getMaxInFlight(), branches.length)
+				: branches.length;
+		steps.set(fork, Step.fork(branches, concurrency,
+				required(parallel.getJoin(), branches.length), steps.size()));
+	}
+
+	private static int required(final String join, final int branches) {
+		if (join == null || join.isBlank() || "all".equals(join)) {
+			return branches;
+		}
+		if ("any".equals(join)) {
+			return Math.min(1, branches);
+		}
+		try {
+			int required = Integer.parseInt(join.trim());
+			if (required >= 1 && required <= branches) {
+				return required;
+			}
+		} catch (NumberFormatException e) {
+			// Reported below.
+		}
+		throw new IllegalArgumentException("Invalid join " + join
+				+ " for a parallel control of " + branches + " branches");
+	}
+
+	private void emitWait(final Wait wait) {
+		long duration = 0;
+		if (wait.getDuration() != null && !wait.getDuration().isBlank()) {
+			try {
+				duration = Duration.parse(wait.getDuration()).toMillis();
+			} catch (DateTimeParseException e) {
+				throw new IllegalArgumentException(
+						"Invalid duration " + wait.getDuration(), e);
+			}
+		}
+		List<String> inputs = new ArrayList<>();
+		if (wait.getWith() != null) {
+			for (WaitInput input : wait.getWith()) {
+				if (input.isExternal()) {
+					inputs.add(input.getVar());
+				}
+			}
+		}
+		if (duration > 0 || !inputs.isEmpty()) {
+			if (parallelDepth > 0) {
+				throw new IllegalArgumentException(
+						"A wait cannot run inside a parallel control");
+			}
+			if (summaryDepth > 0) {
+				throw new IllegalArgumentException(
+						"A wait cannot run inside a summarized loop");
+			}
+			List<LoopScope> interrupting = new ArrayList<>();
+			for (LoopScope scope = enclosingLoop; scope != null; scope = scope.outer) {
+				if (scope.signal != null) {
+					interrupting.add(scope);
+				}
+			}
+			if (interrupting.isEmpty()) {
+				steps.add(Step.await(duration, inputs, List.of(),
+						new int[0]));
+				return;
+			}
+			int index = steps.size();
+			steps.add(null);
+			long waited = duration;
+			interruptibleWaits.add(() -> steps.set(index, Step.await(waited,
+					inputs,
+					interrupting.stream().map(scope -> scope.signal).toList(),
+					interrupting.stream().mapToInt(scope -> scope.exit)
+							.toArray())));
+		}
+	}
+
+	private void emitCall(final Control control) {
+		if (control.getService() == null) {
+			return;
+		}
+		Service service = services.get(control.getService());
+		if (service == null) {
+			throw new IllegalArgumentException(
+					"Unknown service " + control.getService());
+		}
+		steps.add(Step.call(typeOf(control), service, summaryDepth > 0));
+	}
+
+	private static String typeOf(final Control control) {
+		// The discriminator is only populated for controls read from the
+		// database, not for the ones deserialized from a request.
+		return control.getType() != null ? control.getType()
+				: control.getClass().getSimpleName().toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * A loop being compiled, and the jumps to be resolved once its end is
+	 * known.
+	 */
+	private final class LoopScope {
+
+		/**
+		 * The enclosing loop, or null.
+		 */
+		private final LoopScope outer;
+
+		/**
+		 * The signal that breaks the loop, or null.
+		 */
+		private final String signal;
+
+		/**
+		 * The number of parallel controls enclosing the body of the loop.
+		 */
+		private final int parallelDepth;
+
+		/**
+		 * Whether the iterations of the loop run in parallel.
+		 */
+		private final boolean parallel;
+
+		/**
+		 * Whether the body of the loop is summarized, by the loop itself or
+		 * by an enclosing loop.
+		 */
+		private final boolean summarized;
+
+		/**
+		 * The indexes of the JUMP steps of its "break" controls.
+		 */
+		private final List<Integer> breaks = new ArrayList<>();
+
+		/**
+		 * The indexes of the JUMP steps of its "continue" controls.
+		 */
+		private final List<Integer> continues = new ArrayList<>();
+
+		/**
+		 * The index of the first step after the loop.
+		 */
+		private int exit = -1;
+
+		LoopScope(final LoopScope outer, final String signal,
+				final int parallelDepth, final boolean parallel,
+				final boolean summarized) {
+			this.outer = outer;
+			this.signal = signal;
+			this.parallelDepth = parallelDepth;
+			this.parallel = parallel;
+			this.summarized = summarized;
+		}
+
+		/**
+		 * Resolves the jumps of the loop.
+		 *
+		 * @param end The index of the step closing the body of the loop.
+		 */
+		void close(final int end) {
+			exit = end + 1;
+			breaks.forEach(index -> steps.set(index,
+					Step.jump("break", exit, summarized)));
+			continues.forEach(index -> steps.set(index,
+					Step.jump("continue", end, summarized)));
+		}
+	}
+}
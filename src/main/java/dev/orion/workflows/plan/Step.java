@@ -0,0 +1,430 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.plan;
+
+import java.util.List;
+
+import dev.orion.workflows.expression.Expression;
+import dev.orion.workflows.model.Service;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * A single instruction of a compiled workflow plan. Steps are immutable, are
+ * created complete by their factory methods and address each other by their
+ * index in the plan.
+ */
+@Getter
+public final class Step {
+
+	/**
+	 * The empty array of step indexes.
+	 */
+	private static final int[] NONE = new int[0];
+
+	/**
+	 * The kinds of steps a plan is made of.
+	 */
+	public enum Kind {
+
+		/**
+		 * Invokes a service and continues with the next step.
+		 */
+		CALL,
+
+		/**
+		 * Resets the counter of a loop, or jumps past the loop when it has
+		 * no iterations.
+		 */
+		LOOP_START,
+
+		/**
+		 * Increments the counter of a loop and jumps back to the first step
+		 * of its body while iterations remain and its signal has not been
+		 * received.
+		 */
+		LOOP_END,
+
+		/**
+		 * Continues with another step, for the "break" and "continue"
+		 * controls.
+		 */
+		JUMP,
+
+		/**
+		 * Runs the iterations of a parallel loop concurrently, each up to
+		 * the FORK_END step closing the body, merges their variables and
+		 * jumps past the loop.
+		 */
+		ITERATE,
+
+		/**
+		 * Evaluates a condition and jumps past the guarded steps when it is
+		 * false.
+		 */
+		BRANCH,
+
+		/**
+		 * Parks the execution until its external inputs are defined or its
+		 * duration has elapsed, then continues with the next step, or until
+		 * the signal of an enclosing loop breaks it.
+		 */
+		WAIT,
+
+		/**
+		 * Runs the branches of a parallel control concurrently, merges the
+		 * variables of the ones that joined and jumps past the branches.
+		 */
+		FORK,
+
+		/**
+		 * Ends a branch of a parallel control or an iteration of a parallel
+		 * loop.
+		 */
+		FORK_END
+	}
+
+	/**
+	 * The kind of the step.
+	 */
+	private final Kind kind;
+
+	/**
+	 * The type of the control the step was compiled from.
+	 */
+	private final String controlType;
+
+	/**
+	 * The service invoked by a CALL step.
+	 */
+	private final Service service;
+
+	/**
+	 * The source of the condition of a BRANCH step, or of the collection
+	 * iterated by a loop.
+	 */
+	private final String expression;
+
+	/**
+	 * The compiled condition evaluated by a BRANCH step, or the compiled
+	 * collection of a loop, or null if the loop has a number of iterations.
+	 */
+	private final Expression condition;
+
+	/**
+	 * The number of iterations of a loop.
+	 */
+	private final int iterations;
+
+	/**
+	 * The name of the local variable holding the current item of the
+	 * collection iterated by a loop.
+	 */
+	private final String variable;
+
+	/**
+	 * The name of the signal that breaks the loop closed by a LOOP_END
+	 * step.
+	 */
+	private final String signal;
+
+	/**
+	 * Whether the step belongs to the body of a loop whose calls are
+	 * summarized in the history rather than recorded one by one.
+	 */
+	private final boolean summarized;
+
+	/**
+	 * The index of the loop counter used by LOOP_START and LOOP_END steps,
+	 * or -1.
+	 */
+	private final int slot;
+
+	/**
+	 * The index of the step to jump to, or -1.
+	 */
+	private final int jump;
+
+	/**
+	 * The maximum time a WAIT step parks the execution, in milliseconds, or
+	 * zero if it waits for its inputs only.
+	 */
+	private final long duration;
+
+	/**
+	 * The names of the variables a WAIT step expects from external signals.
+	 */
+	private final List<String> inputs;
+
+	/**
+	 * The signals of the loops enclosing a WAIT step, innermost first, any
+	 * of which stops the wait and breaks its loop.
+	 */
+	private final List<String> interrupts;
+
+	/**
+	 * The indexes of the first steps after the loops broken by the
+	 * interrupts of a WAIT step.
+	 */
+	@Getter(AccessLevel.NONE)
+	private final int[] exits;
+
+	/**
+	 * The indexes of the first steps of the branches of a FORK step.
+	 */
+	@Getter(AccessLevel.NONE)
+	private final int[] branches;
+
+	/**
+	 * The maximum number of branches of a FORK step, or of iterations of an
+	 * ITERATE step, run at the same time, zero meaning all of them.
+	 */
+	private final int concurrency;
+
+	/**
+	 * The number of branches of a FORK step that must complete for it to
+	 * join.
+	 */
+	private final int required;
+
+	private Step(final Kind kind, final String controlType,
+			final boolean summarized, final Service service,
+			final String expression, final Expression condition,
+			final int iterations, final String variable, final String signal,
+			final int slot, final int jump, final long duration,
+			final List<String> inputs, final List<String> interrupts,
+			final int[] exits, final int[] branches, final int concurrency,
+			final int required) {
+		this.kind = kind;
+		this.controlType = controlType;
+		this.summarized = summarized;
+		this.service = service;
+		this.expression = expression;
+		this.condition = condition;
+		this.iterations = iterations;
+		this.variable = variable;
+		this.signal = signal;
+		this.slot = slot;
+		this.jump = jump;
+		this.duration = duration;
+		this.inputs = inputs;
+		this.interrupts = interrupts;
+		this.exits = exits;
+		this.branches = branches;
+		this.concurrency = concurrency;
+		this.required = required;
+	}
+
+	/**
+	 * Creates a step that continues with another step or with the next one,
+	 * with no loop, wait or fork attributes.
+	 */
+	private static Step simple(final Kind kind, final String controlType,
+			final boolean summarized, final Service service,
+			final String expression, final Expression condition,
+			final int jump) {
+		return new Step(kind, controlType, summarized, service, expression,
+				condition, 0, null, null, -1, jump, 0, List.of(), List.of(),
+				NONE, NONE, 0, 0);
+	}
+
+	/**
+	 * Creates a step that invokes a service.
+	 *
+	 * @param controlType The type of the control that references the service.
+	 * @param service     The service to be invoked.
+	 * @param summarized  Whether the step belongs to the body of a
+	 *                    summarized loop.
+	 * @return The new step.
+	 */
+	public static Step call(final String controlType, final Service service,
+			final boolean summarized) {
+		return simple(Kind.CALL, controlType, summarized, service, null, null,
+				-1);
+	}
+
+	/**
+	 * Creates the step that enters a loop.
+	 *
+	 * @param iterations The number of iterations of the loop.
+	 * @param expression The source of the collection iterated by the loop, or
+	 *                   null.
+	 * @param collection The compiled collection, or null to run the number
+	 *                   of iterations.
+	 * @param variable   The name of the variable holding the current item.
+	 * @param slot       The index of the loop counter.
+	 * @param exit       The index of the first step after the loop.
+	 * @param summarized Whether the step belongs to the body of a summarized
+	 *                   loop.
+	 * @return The new step.
+	 */
+	public static Step loopStart(final int iterations, final String expression,
+			final Expression collection, final String variable,
+			final int slot, final int exit, final boolean summarized) {
+		return new Step(Kind.LOOP_START, "loop", summarized, null, expression,
+				collection, iterations, variable, null, slot, exit, 0,
+				List.of(), List.of(), NONE, NONE, 0, 0);
+	}
+
+	/**
+	 * Creates the step that closes the body of a loop.
+	 *
+	 * @param start      The step that enters the loop.
+	 * @param signal     The name of the signal that breaks the loop, or null.
+	 * @param body       The index of the first step of the loop body.
+	 * @param summarized Whether the step belongs to the body of a summarized
+	 *                   loop, which is the case of the loop it closes.
+	 * @return The new step.
+	 */
+	public static Step loopEnd(final Step start, final String signal,
+			final int body, final boolean summarized) {
+		return new Step(Kind.LOOP_END, "loop", summarized, null,
+				start.expression, start.condition, start.iterations,
+				start.variable, signal, start.slot, body, 0, List.of(),
+				List.of(), NONE, NONE, 0, 0);
+	}
+
+	/**
+	 * Creates the step that runs the iterations of a parallel loop. The body
+	 * of the loop starts at the next step.
+	 *
+	 * @param iterations  The number of iterations of the loop.
+	 * @param expression  The source of the collection iterated by the loop,
+	 *                    or null.
+	 * @param collection  The compiled collection, or null to run the number
+	 *                    of iterations.
+	 * @param variable    The name of the variable holding the current item.
+	 * @param concurrency The maximum number of iterations run at the same
+	 *                    time, or zero for all of them.
+	 * @param exit        The index of the first step after the loop.
+	 * @return The new step.
+	 */
+	public static Step iterate(final int iterations, final String expression,
+			final Expression collection, final String variable,
+			final int concurrency, final int exit) {
+		return new Step(Kind.ITERATE, "loop", false, null, expression,
+				collection, iterations, variable, null, -1, exit, 0,
+				List.of(), List.of(), NONE, NONE, concurrency, 0);
+	}
+
+	/**
+	 * Creates a step that continues with another step.
+	 *
+	 * @param controlType The type of the control the jump was compiled from.
+	 * @param target      The index of the step to continue with.
+	 * @param summarized  Whether the step belongs to the body of a
+	 *                    summarized loop.
+	 * @return The new step.
+	 */
+	public static Step jump(final String controlType, final int target,
+			final boolean summarized) {
+		return simple(Kind.JUMP, controlType, summarized, null, null, null,
+				target);
+	}
+
+	/**
+	 * Creates a conditional step.
+	 *
+	 * @param expression The source of the condition.
+	 * @param condition  The compiled condition.
+	 * @param exit       The index of the first step after the guarded ones.
+	 * @param summarized Whether the step belongs to the body of a summarized
+	 *                   loop.
+	 * @return The new step.
+	 */
+	public static Step branch(final String expression,
+			final Expression condition, final int exit,
+			final boolean summarized) {
+		return simple(Kind.BRANCH, "if", summarized, null, expression,
+				condition, exit);
+	}
+
+	/**
+	 * Creates a step that parks the execution.
+	 *
+	 * @param duration   The maximum time to wait in milliseconds, or zero to
+	 *                   wait for the inputs only.
+	 * @param inputs     The names of the variables expected from external
+	 *                   signals.
+	 * @param interrupts The signals of the enclosing loops, innermost first.
+	 * @param exits      The indexes of the first steps after these loops.
+	 * @return The new step.
+	 */
+	public static Step await(final long duration, final List<String> inputs,
+			final List<String> interrupts, final int[] exits) {
+		return new Step(Kind.WAIT, "wait", false, null, null, null, 0, null,
+				null, -1, -1, duration, List.copyOf(inputs),
+				List.copyOf(interrupts), exits.clone(), NONE, 0, 0);
+	}
+
+	/**
+	 * Creates the step that runs the branches of a parallel control.
+	 *
+	 * @param branches    The indexes of the first steps of the branches.
+	 * @param concurrency The maximum number of branches run at the same
+	 *                    time.
+	 * @param required    The number of branches that must complete.
+	 * @param exit        The index of the first step after the branches.
+	 * @return The new step.
+	 */
+	public static Step fork(final int[] branches, final int concurrency,
+			final int required, final int exit) {
+		return new Step(Kind.FORK, "parallel", false, null, null, null, 0,
+				null, null, -1, exit, 0, List.of(), List.of(), NONE,
+				branches.clone(), concurrency, required);
+	}
+
+	/**
+	 * Creates the step that ends a branch of a parallel control.
+	 *
+	 * @return The new step.
+	 */
+	public static Step forkEnd() {
+		return simple(Kind.FORK_END, "parallel", false, null, null, null, -1);
+	}
+
+	/**
+	 * Returns the index of the first step of a branch of a FORK step.
+	 *
+	 * @param branch The index of the branch.
+	 * @return The index of the first step of the branch.
+	 */
+	public int branch(final int branch) {
+		return branches[branch];
+	}
+
+	/**
+	 * Returns the number of branches of a FORK step.
+	 *
+	 * @return The number of branches.
+	 */
+	public int branchCount() {
+		return branches.length;
+	}
+
+	/**
+	 * Returns the index of the first step after the loop broken by an
+	 * interrupt of a WAIT step.
+	 *
+	 * @param interrupt The index of the interrupt.
+	 * @return The index of the first step after the loop.
+	 */
+	public int exit(final int interrupt) {
+		return exits[interrupt];
+	}
+}
@@ -0,0 +1,103 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.plan;
+
+import java.util.List;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * The compiled, immutable form of a workflow. The controls of the workflow
+ * are flattened into an array of steps in which every jump, loop counter and
+ * service is already resolved. The array is not exposed; steps are read by
+ * index.
+ */
+@Getter
+public final class WorkflowPlan {
+
+	/**
+	 * The identifier of the compiled workflow.
+	 */
+	private final Long workflowId;
+
+	/**
+	 * The name of the compiled workflow.
+	 */
+	private final String name;
+
+	/**
+	 * The version of the compiled workflow.
+	 */
+	private final int version;
+
+	/**
+	 * The hash of the compiled workflow.
+	 */
+	private final String hash;
+
+	/**
+	 * The number of loop counters an execution of the plan needs.
+	 */
+	private final int slots;
+
+	/**
+	 * The steps of the plan, read by index.
+	 */
+	@Getter(AccessLevel.NONE)
+	private final Step[] steps;
+
+	/**
+	 * Creates a plan.
+	 *
+	 * @param workflowId The identifier of the compiled workflow.
+	 * @param name       The name of the compiled workflow.
+	 * @param version    The version of the compiled workflow.
+	 * @param hash       The hash of the compiled workflow.
+	 * @param slots      The number of loop counters.
+	 * @param steps      The steps of the plan.
+	 */
+	WorkflowPlan(final Long workflowId, final String name, final int version,
+			final String hash, final int slots, final List<Step> steps) {
+		this.workflowId = workflowId;
+		this.name = name;
+		this.version = version;
+		this.hash = hash;
+		this.slots = slots;
+		this.steps = steps.toArray(new Step[0]);
+	}
+
+	/**
+	 * Returns the step at the given index.
+	 *
+	 * @param index The index of the step.
+	 * @return The step.
+	 */
+	public Step step(final int index) {
+		return steps[index];
+	}
+
+	/**
+	 * Returns the number of steps of the plan.
+	 *
+	 * @return The number of steps.
+	 */
+	public int size() {
+		return steps.length;
+	}
+}
@@ -0,0 +1,10 @@
+/**
+ * This package contains the compiled form of the workflows.
+ *
+ * A workflow is stored as a tree of controls. Before it is executed, the tree
+ * is compiled into an immutable plan: a flat array of steps whose jumps,
+ * loop counters and services are resolved once. The plans are kept in a
+ * bounded in-memory cache so starting an execution does not reload the
+ * control tree from the database.
+ */
+package dev.orion.workflows.plan;
@@ -0,0 +1,175 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.hibernate.reactive.mutiny.Mutiny;
+
+import dev.orion.workflows.model.ClusterPartition;
+import io.quarkus.hibernate.reactive.panache.PanacheRepositoryBase;
+import io.quarkus.hibernate.reactive.panache.common.WithSession;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Repository class for managing the nodes of the cluster and the partitions
+ * they own.
+ * Partitions are taken and given back with conditional updates, so nodes
+ * racing for the same partition never both own it.
+ */
+@ApplicationScoped
+@WithSession
+public class ClusterRepository
+		implements PanacheRepositoryBase<ClusterPartition, Integer> {
+
+	/**
+	 * Creates the partitions that do not exist yet, all free.
+	 *
+	 * @param count The number of partitions.
+	 * @return A Uni that completes when the insert was issued.
+	 */
+	public Uni<Void> createPartitions(final int count) {
+		StringBuilder sql = new StringBuilder("insert ignore into "
+				+ "cluster_partition (id, lease_until) values ");
+		for (int i = 0; i < count; i++) {
+			sql.append(i == 0 ? "" : ", ").append("(?").append(i + 1)
+					.append(", ?").append(count + 1).append(')');
+		}
+		return getSession().chain(session -> {
+			Mutiny.Query<?> insert = session.createNativeQuery(sql.toString());
+			for (int i = 0; i < count; i++) {
+				insert.setParameter(i + 1, i);
+			}
+			insert.setParameter(count + 1, Instant.EPOCH);
+			return insert.executeUpdate();
+		}).replaceWithVoid();
+	}
+
+	/**
+	 * Records the heartbeat of a node.
+	 *
+	 * @param node           The name of the node.
+	 * @param heartbeatUntil The time until which the node is alive.
+	 * @return A Uni that completes when the heartbeat was recorded.
+	 */
+	public Uni<Void> heartbeat(final String node, final Instant heartbeatUntil) {
+		return getSession().chain(session -> session.createNativeQuery(
+				"insert into cluster_node (name, heartbeat_until) "
+						+ "values (?1, ?2) on duplicate key update "
+						+ "heartbeat_until = values(heartbeat_until)")
+				.setParameter(1, node)
+				.setParameter(2, heartbeatUntil)
+				.executeUpdate())
+				.replaceWithVoid();
+	}
+
+	/**
+	 * Counts the nodes that are alive.
+	 *
+	 * @return A Uni containing the number of nodes whose heartbeat has not
+	 *         expired.
+	 */
+	public Uni<Long> countNodes() {
+		return getSession().chain(session -> session.createSelectionQuery(
+				"select count(n) from ClusterNode n "
+						+ "where n.heartbeatUntil >= :now",
+				Long.class)
+				.setParameter("now", Instant.now())
+				.getSingleResult());
+	}
+
+	/**
+	 * Extends the leases of the partitions of a node.
+	 *
+	 * @param owner      The node.
+	 * @param leaseUntil The new end of the leases.
+	 * @return A Uni containing the number of renewed partitions.
+	 */
+	public Uni<Integer> renew(final String owner, final Instant leaseUntil) {
+		return update("leaseUntil = ?1 where owner = ?2", leaseUntil, owner);
+	}
+
+	/**
+	 * Takes free partitions, or partitions whose lease has expired.
+	 *
+	 * @param owner      The node taking the partitions.
+	 * @param leaseUntil The time until which the node holds them.
+	 * @param count      The maximum number of partitions to take.
+	 * @return A Uni containing the number of partitions taken.
+	 */
+	public Uni<Integer> take(final String owner, final Instant leaseUntil,
+			final int count) {
+		return getSession().chain(session -> session.createNativeQuery(
+				"update cluster_partition set owner = ?1, lease_until = ?2 "
+						+ "where lease_until < ?3 order by id limit ?4")
+				.setParameter(1, owner)
+				.setParameter(2, leaseUntil)
+				.setParameter(3, Instant.now())
+				.setParameter(4, count)
+				.executeUpdate());
+	}
+
+	/**
+	 * Gives partitions back, so other nodes can take them at once.
+	 *
+	 * @param owner The node giving the partitions back.
+	 * @param ids   The numbers of the partitions.
+	 * @return A Uni containing the number of partitions given back.
+	 */
+	public Uni<Integer> release(final String owner,
+			final Collection<Integer> ids) {
+		return update("owner = null, leaseUntil = ?1 where owner = ?2 "
+				+ "and id in ?3", Instant.EPOCH, owner, ids);
+	}
+
+	/**
+	 * Finds the partitions held by a node.
+	 *
+	 * @param owner The node.
+	 * @return A Uni containing the numbers of the partitions, in order.
+	 */
+	public Uni<List<Integer>> findOwned(final String owner) {
+		return getSession().chain(session -> session.createSelectionQuery(
+				"select p.id from ClusterPartition p where p.owner = :owner "
+						+ "and p.leaseUntil >= :now order by p.id",
+				Integer.class)
+				.setParameter("owner", owner)
+				.setParameter("now", Instant.now())
+				.getResultList());
+	}
+
+	/**
+	 * Removes a node from the cluster and gives all its partitions back.
+	 *
+	 * @param node The name of the node.
+	 * @return A Uni that completes when the node is gone.
+	 */
+	public Uni<Void> leave(final String node) {
+		return update("owner = null, leaseUntil = ?1 where owner = ?2",
+				Instant.EPOCH, node)
+				.chain(() -> getSession().chain(session -> session
+						.createMutationQuery(
+								"delete from ClusterNode n where n.name = :name")
+						.setParameter("name", node)
+						.executeUpdate()))
+				.replaceWithVoid();
+	}
+}
@@ -17,7 +17,24 @@
 
 package dev.orion.workflows.repository;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.reactive.mutiny.Mutiny;
+
 import dev.orion.workflows.model.Execution;
+import dev.orion.workflows.model.ExecutionStatus;
+import dev.orion.workflows.model.TimeOrderedId;
+import dev.orion.workflows.model.UuidConverter;
 import dev.orion.workflows.model.Workflow;
 import io.quarkus.hibernate.reactive.panache.Panache;
 import io.quarkus.hibernate.reactive.panache.PanacheRepository;
@@ -34,19 +51,430 @@ import jakarta.enterprise.context.ApplicationScoped;
 @WithSession
 public class ExecutionRepository implements PanacheRepository<Execution> {
 
+	/**
+	 * The columns written by {@link #updateProgress(List)}.
+	 */
+	private static final List<String> PROGRESS = List.of("current_control",
+			"status", "loop_counters", "global_variables", "local_variables",
+			"variables_step", "step_number", "wake_at", "updated");
+
+	/**
+	 * The number of partitions the Executions are spread over.
+	 */
+	@ConfigProperty(name = "workflows.cluster.partitions", defaultValue = "64")
+	private int partitions;
+
 	/**
 	 * Creates a new Execution entity for the given Workflow and persists it in
-	 * the database.
+	 * the database. The Workflow is referenced by its identifier only, so it
+	 * is not loaded.
 	 *
-	 * @param workflow The Workflow entity associated with the new Execution.
-	 * @return A Uni containing the hash of the newly created Execution entity.
+	 * @param workflowId The identifier of the Workflow associated with the new
+	 *                   Execution.
+	 * @param owner      The node that will run the Execution.
+	 * @param leaseUntil The time until which the node holds the Execution.
+	 * @return A Uni containing the newly created Execution entity.
 	 */
-	public Uni<String> create(final Workflow workflow) {
+	public Uni<Execution> create(final Long workflowId, final String owner,
+			final Instant leaseUntil) {
+		Execution execution = newExecution(null, owner, leaseUntil);
+		return Panache.withTransaction(() -> getSession()
+				.chain(session -> {
+					execution.setWorkflow(
+							session.getReference(Workflow.class, workflowId));
+					return persist(execution);
+				}));
+	}
+
+	/**
+	 * Creates new Execution entities for the given Workflow, one per set of
+	 * initial global variables, with a single multi-row insert. Their
+	 * identifiers are then read back through the index of their hashes.
+	 *
+	 * @param workflowId      The identifier of the Workflow associated with
+	 *                        the new Executions.
+	 * @param globalVariables The initial global variables of each Execution,
+	 *                        encoded, or null for none.
+	 * @param owner           The node that will run the Executions.
+	 * @param leaseUntil      The time until which the node holds them.
+	 * @return A Uni containing the newly created Execution entities, in the
+	 *         order of their variables.
+	 */
+	public Uni<List<Execution>> createAll(final Long workflowId,
+			final List<byte[]> globalVariables, final String owner,
+			final Instant leaseUntil) {
+		List<Execution> executions = new ArrayList<>(globalVariables.size());
+		for (byte[] variables : globalVariables) {
+			executions.add(newExecution(variables, owner, leaseUntil));
+		}
+		if (executions.isEmpty()) {
+			return Uni.createFrom().item(executions);
+		}
+		StringBuilder sql = new StringBuilder("insert into execution "
+				+ "(hash, partition_id, current_control, status, step_number, "
+				+ "global_variables, owner, lease_until, started, updated, "
+				+ "workflow_id) values ");
+		int parameter = 0;
+		for (int i = 0; i < executions.size(); i++) {
+			sql.append(i == 0 ? "" : ", ").append('(');
+			for (int column = 0; column < 11; column++) {
+				sql.append(column == 0 ? "" : ", ").append('?')
+						.append(++parameter);
+			}
+			sql.append(')');
+		}
+		return Panache.withTransaction(() -> getSession().chain(session -> {
+			Mutiny.Query<?> insert = session.createNativeQuery(sql.toString());
+			int index = 0;
+			for (Execution execution : executions) {
+				insert.setParameter(++index,
+						UuidConverter.toBytes(execution.getHash()));
+				insert.setParameter(++index, execution.getPartition());
+				insert.setParameter(++index, execution.getCurrentControl());
+				insert.setParameter(++index, execution.getStatus().name());
+				insert.setParameter(++index, execution.getStepNumber());
+				insert.setParameter(++index, execution.getGlobalVariables());
+				insert.setParameter(++index, execution.getOwner());
+				insert.setParameter(++index, execution.getLeaseUntil());
+				insert.setParameter(++index, execution.getStarted());
+				insert.setParameter(++index, execution.getUpdated());
+				insert.setParameter(++index, workflowId);
+			}
+			return insert.executeUpdate();
+		}).chain(() -> findIdsByHash(executions.stream()
+				.map(Execution::getHash).toList())))
+				.map(rows -> {
+					Map<String, Long> ids = new HashMap<>();
+					for (Object[] row : rows) {
+						ids.put((String) row[0], (Long) row[1]);
+					}
+					for (Execution execution : executions) {
+						execution.id = ids.get(execution.getHash());
+					}
+					return executions;
+				});
+	}
+
+	private Execution newExecution(final byte[] globalVariables,
+			final String owner, final Instant leaseUntil) {
 		Execution execution = new Execution();
-		execution.setWorkflow(workflow);
+		execution.setHash(TimeOrderedId.next());
+		execution.setStarted(Instant.now());
+		execution.setPartition(
+				Math.floorMod(execution.getHash().hashCode(), partitions));
 		execution.setCurrentControl(0);
-		return Panache.withTransaction(() -> persist(execution))
-				.onItem().transform(entity -> entity.getHash());
+		execution.setStatus(ExecutionStatus.RUNNING);
+		execution.setGlobalVariables(globalVariables);
+		execution.setOwner(owner);
+		execution.setLeaseUntil(leaseUntil);
+		execution.setUpdated(execution.getStarted());
+		return execution;
+	}
+
+	/**
+	 * Records the progress of an Execution: the control it will run next, its
+	 * status, its loop counters, its variables and the step they are as of,
+	 * its last recorded step, the time it is to be woken up and the time of
+	 * the update. The update only
+	 * applies while the Execution is owned by the owner it holds, so a node
+	 * that lost its lease cannot overwrite the progress of the node that
+	 * took the Execution over.
+	 *
+	 * @param execution The Execution entity holding the new state.
+	 * @return A Uni containing the number of updated rows: 0 if the
+	 *         Execution has another owner.
+	 */
+	public Uni<Integer> updateProgress(final Execution execution) {
+		return update("currentControl = ?1, status = ?2, loopCounters = ?3, "
+				+ "globalVariables = ?4, localVariables = ?5, "
+				+ "variablesStep = ?6, stepNumber = ?7, wakeAt = ?8, "
+				+ "updated = ?9 where id = ?10 and owner = ?11",
+				execution.getCurrentControl(), execution.getStatus(),
+				execution.getLoopCounters(), execution.getGlobalVariables(),
+				execution.getLocalVariables(), execution.getVariablesStep(),
+				execution.getStepNumber(), execution.getWakeAt(),
+				execution.getUpdated(), execution.id, execution.getOwner());
+	}
+
+	/**
+	 * Records the progress of several Executions as
+	 * {@link #updateProgress(Execution)} does for one, with two statements
+	 * whatever their number: a locking read of their owners, then a single
+	 * update of the ones still owned by the owner they hold.
+	 *
+	 * @param executions The Execution entities holding the new state. The
+	 *                   same entity may appear more than once.
+	 * @return A Uni containing, for each Execution, the number of updated
+	 *         rows: 0 if the Execution has another owner.
+	 */
+	public Uni<List<Integer>> updateProgress(
+			final List<Execution> executions) {
+		if (executions.size() == 1) {
+			return updateProgress(executions.get(0)).map(List::of);
+		}
+		Map<Long, Execution> distinct = new LinkedHashMap<>();
+		executions.forEach(execution -> distinct.put(execution.id, execution));
+		StringBuilder sql = new StringBuilder(
+				"select id, owner from execution where id in (");
+		for (int i = 1; i <= distinct.size(); i++) {
+			sql.append(i == 1 ? "" : ", ").append('?').append(i);
+		}
+		sql.append(") for update");
+		return getSession().chain(session -> {
+			Mutiny.SelectionQuery<Object[]> lock = session
+					.createNativeQuery(sql.toString(), Object[].class);
+			int index = 0;
+			for (Long id : distinct.keySet()) {
+				lock.setParameter(++index, id);
+			}
+			return lock.getResultList().chain(rows -> {
+				Set<Long> owned = new HashSet<>();
+				for (Object[] row : rows) {
+					Long id = ((Number) row[0]).longValue();
+					if (Objects.equals(row[1], distinct.get(id).getOwner())) {
+						owned.add(id);
+					}
+				}
+				List<Integer> updated = executions.stream()
+						.map(execution -> owned.contains(execution.id) ? 1 : 0)
+						.toList();
+				if (owned.isEmpty()) {
+					return Uni.createFrom().item(updated);
+				}
+				return writeProgress(session, distinct.values().stream()
+						.filter(execution -> owned.contains(execution.id))
+						.toList())
+						.replaceWith(updated);
+			});
+		});
+	}
+
+	/**
+	 * Writes the progress of Executions with one update, each column set
+	 * through a case on the identifier.
+	 */
+	private static Uni<Integer> writeProgress(final Mutiny.Session session,
+			final List<Execution> executions) {
+		StringBuilder sql = new StringBuilder("update execution set ");
+		int parameter = 0;
+		for (int column = 0; column < PROGRESS.size(); column++) {
+			sql.append(column == 0 ? "" : ", ").append(PROGRESS.get(column))
+					.append(" = case id");
+			for (int i = 0; i < executions.size(); i++) {
+				sql.append(" when ?").append(++parameter)
+						.append(" then ?").append(++parameter);
+			}
+			sql.append(" end");
+		}
+		sql.append(" where id in (");
+		for (int i = 0; i < executions.size(); i++) {
+			sql.append(i == 0 ? "" : ", ").append('?').append(++parameter);
+		}
+		sql.append(')');
+		Mutiny.Query<?> update = session.createNativeQuery(sql.toString());
+		int index = 0;
+		for (int column = 0; column < PROGRESS.size(); column++) {
+			for (Execution execution : executions) {
+				update.setParameter(++index, execution.id);
+				update.setParameter(++index, progress(execution, column));
+			}
+		}
+		for (Execution execution : executions) {
+			update.setParameter(++index, execution.id);
+		}
+		return update.executeUpdate();
+	}
+
+	/**
+	 * Returns the value of a column of {@link #PROGRESS} for an Execution.
+	 */
+	private static Object progress(final Execution execution,
+			final int column) {
+		return switch (column) {
+			case 0 -> execution.getCurrentControl();
+			case 1 -> execution.getStatus().name();
+			case 2 -> execution.getLoopCounters();
+			case 3 -> execution.getGlobalVariables();
+			case 4 -> execution.getLocalVariables();
+			case 5 -> execution.getVariablesStep();
+			case 6 -> execution.getStepNumber();
+			case 7 -> execution.getWakeAt();
+			default -> execution.getUpdated();
+		};
+	}
+
+	/**
+	 * Takes a waiting Execution back to the running status, under a lease.
+	 * Only one of the callers racing to resume the same Execution succeeds.
+	 *
+	 * @param id         The identifier of the Execution.
+	 * @param owner      The node claiming the Execution.
+	 * @param leaseUntil The time until which the node holds the Execution.
+	 * @return A Uni containing true if the Execution was waiting and is now
+	 *         owned by the caller.
+	 */
+	public Uni<Boolean> claim(final Long id, final String owner,
+			final Instant leaseUntil) {
+		return update("status = ?1, owner = ?2, leaseUntil = ?3, updated = ?4 "
+				+ "where id = ?5 and status = ?6",
+				ExecutionStatus.RUNNING, owner, leaseUntil, Instant.now(), id,
+				ExecutionStatus.WAITING)
+				.map(count -> count == 1);
+	}
+
+	/**
+	 * Takes over a running Execution whose lease has expired. Only one of
+	 * the nodes racing to take over the same Execution succeeds.
+	 *
+	 * @param id         The identifier of the Execution.
+	 * @param owner      The node taking the Execution over.
+	 * @param leaseUntil The time until which the node holds the Execution.
+	 * @return A Uni containing true if the Execution is now owned by the
+	 *         caller.
+	 */
+	public Uni<Boolean> takeOver(final Long id, final String owner,
+			final Instant leaseUntil) {
+		Instant now = Instant.now();
+		return update("owner = ?1, leaseUntil = ?2, updated = ?3 "
+				+ "where id = ?4 and status = ?5 and leaseUntil < ?3",
+				owner, leaseUntil, now, id, ExecutionStatus.RUNNING)
+				.map(count -> count == 1);
+	}
+
+	/**
+	 * Extends the leases of some running Executions of a node, with a single
+	 * update. Executions the node no longer owns are left alone.
+	 *
+	 * @param owner      The node.
+	 * @param ids        The identifiers of the Executions.
+	 * @param leaseUntil The new end of the leases.
+	 * @return A Uni containing the number of renewed leases.
+	 */
+	public Uni<Integer> renewLeases(final String owner,
+			final Collection<Long> ids, final Instant leaseUntil) {
+		return update("leaseUntil = ?1 where owner = ?2 and status = ?3 "
+				+ "and id in ?4",
+				leaseUntil, owner, ExecutionStatus.RUNNING, ids);
+	}
+
+	/**
+	 * Ends the leases of all the running Executions of a node, so they can be
+	 * taken over at once. This is done when the node starts, since a node
+	 * that just started runs nothing yet.
+	 *
+	 * @param owner The node.
+	 * @return A Uni containing the number of ended leases.
+	 */
+	public Uni<Integer> expireLeases(final String owner) {
+		return update("leaseUntil = ?1 where owner = ?2 and status = ?3",
+				Instant.EPOCH, owner, ExecutionStatus.RUNNING);
+	}
+
+	/**
+	 * Finds running Executions of some partitions whose lease has expired,
+	 * through the index on the status, the partition and the lease.
+	 *
+	 * @param partitions The partitions of the Executions.
+	 * @param limit      The maximum number of Executions to be returned.
+	 * @return A Uni containing the identifiers of the Executions.
+	 */
+	public Uni<List<Long>> findOrphans(final Collection<Integer> partitions,
+			final int limit) {
+		return getSession().chain(session -> session.createSelectionQuery(
+				"select e.id from Execution e "
+						+ "where e.status = :status "
+						+ "and e.partition in :partitions "
+						+ "and e.leaseUntil < :now",
+				Long.class)
+				.setParameter("status", ExecutionStatus.RUNNING)
+				.setParameter("partitions", partitions)
+				.setParameter("now", Instant.now())
+				.setMaxResults(limit)
+				.getResultList());
+	}
+
+	/**
+	 * Finds an Execution entity together with the hash of its Workflow,
+	 * without loading the Workflow.
+	 *
+	 * @param id The identifier of the Execution.
+	 * @return A Uni containing a row made of the Execution and the hash of
+	 *         its Workflow, or null if not found.
+	 */
+	public Uni<Object[]> findWithWorkflowHash(final Long id) {
+		return getSession().chain(session -> session.createSelectionQuery(
+				"select e, w.hash from Execution e join e.workflow w "
+						+ "where e.id = :id",
+				Object[].class)
+				.setParameter("id", id)
+				.getSingleResultOrNull());
+	}
+
+	/**
+	 * Finds the identifiers of Executions from their hashes, through the
+	 * unique index of the hash.
+	 *
+	 * @param hashes The hashes of the Executions.
+	 * @return A Uni containing rows made of the hash and the identifier of
+	 *         each Execution found.
+	 */
+	public Uni<List<Object[]>> findIdsByHash(final Collection<String> hashes) {
+		return getSession().chain(session -> session.createSelectionQuery(
+				"select e.hash, e.id from Execution e where e.hash in :hashes",
+				Object[].class)
+				.setParameter("hashes", hashes)
+				.getResultList());
+	}
+
+	/**
+	 * Finds which of some Executions are waiting, through their primary key.
+	 *
+	 * @param ids The identifiers of the Executions.
+	 * @return A Uni containing the identifiers of the waiting ones.
+	 */
+	public Uni<List<Long>> findWaitingIds(final Collection<Long> ids) {
+		return getSession().chain(session -> session.createSelectionQuery(
+				"select e.id from Execution e where e.id in :ids "
+						+ "and e.status = :status",
+				Long.class)
+				.setParameter("ids", ids)
+				.setParameter("status", ExecutionStatus.WAITING)
+				.getResultList());
+	}
+
+	/**
+	 * Finds Executions from their hashes, through the unique index of the
+	 * hash.
+	 *
+	 * @param hashes The hashes of the Executions.
+	 * @return A Uni containing the Executions found.
+	 */
+	public Uni<List<Execution>> findAllByHash(
+			final Collection<String> hashes) {
+		return list("hash in ?1", hashes);
+	}
+
+	/**
+	 * Finds the waiting Executions of some partitions to be woken up up to a
+	 * given time. Only their identifiers and wake-up times are read.
+	 *
+	 * @param partitions The partitions of the Executions.
+	 * @param limit      The latest wake-up time to be returned.
+	 * @return A Uni containing rows made of the identifier and the wake-up
+	 *         time of each Execution.
+	 */
+	public Uni<List<Object[]>> findWakeUps(
+			final Collection<Integer> partitions, final Instant limit) {
+		return getSession().chain(session -> session.createSelectionQuery(
+				"select e.id, e.wakeAt from Execution e "
+						+ "where e.status = :status "
+						+ "and e.partition in :partitions "
+						+ "and e.wakeAt <= :limit",
+				Object[].class)
+				.setParameter("status", ExecutionStatus.WAITING)
+				.setParameter("partitions", partitions)
+				.setParameter("limit", limit)
+				.getResultList());
 	}
 
 	/**
@@ -0,0 +1,98 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.repository;
+
+import java.util.List;
+
+import dev.orion.workflows.model.History;
+import io.quarkus.hibernate.reactive.panache.PanacheRepository;
+import io.quarkus.hibernate.reactive.panache.common.WithSession;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Repository class for managing History entities.
+ * This class provides methods for interacting with the database
+ * to perform CRUD operations on History entities.
+ */
+@ApplicationScoped
+@WithSession
+public class HistoryRepository implements PanacheRepository<History> {
+
+	/**
+	 * Finds the variable statuses needed to rebuild the variables of an
+	 * execution at a given step: the ones of the closest full copy at or
+	 * before the step, followed by the patches of the later steps up to it.
+	 *
+	 * @param executionHash The hash of the Execution.
+	 * @param stepNumber    The number of the step.
+	 * @return A Uni containing, in step order, rows made of the step number,
+	 *         the checkpoint flag, and the local and global variable statuses.
+	 */
+	public Uni<List<Object[]>> findVariableStatuses(final String executionHash,
+			final int stepNumber) {
+		return getSession().chain(session -> session.createSelectionQuery(
+				"select h.stepNumber, h.checkpoint, h.localVariablesStatus, "
+						+ "h.globalVariablesStatus from History h "
+						+ "where h.execution.hash = :hash "
+						+ "and h.stepNumber <= :step "
+						+ "and h.stepNumber >= (select max(c.stepNumber) "
+						+ "from History c where c.execution.hash = :hash "
+						+ "and c.checkpoint = true and c.stepNumber <= :step) "
+						+ "order by h.stepNumber",
+				Object[].class)
+				.setParameter("hash", executionHash)
+				.setParameter("step", stepNumber)
+				.getResultList());
+	}
+
+	/**
+	 * Finds a page of the history of an execution, in step order, using the
+	 * index on the execution and the step number: the page starts right
+	 * after a given step, so reading a page costs the same wherever it is.
+	 *
+	 * @param executionHash The hash of the Execution.
+	 * @param afterStep     The step number after which the page starts.
+	 * @param size          The maximum number of records in the page.
+	 * @param bodies        Whether to read the request and response payloads.
+	 * @return A Uni containing rows made of the step number, the service
+	 *         name, the execution time, the checkpoint flag, the request MIME
+	 *         type and payload hash, the response MIME type and payload hash,
+	 *         the number of calls and, if the bodies are read, the request and
+	 *         response Payload entities.
+	 */
+	public Uni<List<Object[]>> findPage(final String executionHash,
+			final int afterStep, final int size, final boolean bodies) {
+		String payloads = bodies ? ", rq, rs" : "";
+		return getSession().chain(session -> session.createSelectionQuery(
+				"select h.stepNumber, s.name, h.executed, h.checkpoint, "
+						+ "h.requestMimeType, rq.hash, h.responseMimeType, "
+						+ "rs.hash, h.calls" + payloads + " from History h "
+						+ "join h.service s "
+						+ "left join h.requestPayload rq "
+						+ "left join h.responsePayload rs "
+						+ "where h.execution.hash = :hash "
+						+ "and h.stepNumber > :after "
+						+ "order by h.stepNumber",
+				Object[].class)
+				.setParameter("hash", executionHash)
+				.setParameter("after", afterStep)
+				.setMaxResults(size)
+				.getResultList());
+	}
+}
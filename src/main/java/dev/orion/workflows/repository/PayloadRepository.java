@@ -0,0 +1,110 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.repository;
+
+import java.util.Collection;
+
+import org.hibernate.reactive.mutiny.Mutiny;
+
+import dev.orion.workflows.model.Payload;
+import io.quarkus.hibernate.reactive.panache.PanacheRepositoryBase;
+import io.quarkus.hibernate.reactive.panache.common.WithSession;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Repository class for managing Payload entities.
+ * Payloads are identified by the digest of their content, so storing one that
+ * already exists is a no-op.
+ */
+@ApplicationScoped
+@WithSession
+public class PayloadRepository
+		implements PanacheRepositoryBase<Payload, String> {
+
+	/**
+	 * Stores the payloads that are not stored yet, with a single multi-row
+	 * insert that ignores the hashes already present.
+	 *
+	 * @param payloads The payloads to be stored.
+	 * @return A Uni that completes when the insert was issued.
+	 */
+	public Uni<Void> storeAll(final Collection<Payload> payloads) {
+		if (payloads.isEmpty()) {
+			return Uni.createFrom().voidItem();
+		}
+		StringBuilder sql = new StringBuilder("insert ignore into payload "
+				+ "(hash, encoding, original_size, data) values ");
+		int parameter = 0;
+		for (int i = 0; i < payloads.size(); i++) {
+			sql.append(i == 0 ? "" : ", ").append('(')
+					.append('?').append(++parameter).append(", ")
+					.append('?').append(++parameter).append(", ")
+					.append('?').append(++parameter).append(", ")
+					.append('?').append(++parameter).append(')');
+		}
+		return getSession().chain(session -> {
+			Mutiny.Query<?> insert = session.createNativeQuery(sql.toString());
+			int index = 0;
+			for (Payload payload : payloads) {
+				insert.setParameter(++index, payload.getHash());
+				insert.setParameter(++index, payload.getEncoding());
+				insert.setParameter(++index, payload.getOriginalSize());
+				insert.setParameter(++index, payload.getData());
+			}
+			return insert.executeUpdate();
+		}).replaceWithVoid();
+	}
+
+	/**
+	 * Finds the encoding and the stored size of a payload, without reading
+	 * its data.
+	 *
+	 * @param hash The hash of the payload.
+	 * @return A Uni containing a row made of the encoding and the size in
+	 *         bytes of the stored data, or null if not found.
+	 */
+	public Uni<Object[]> findLayout(final String hash) {
+		return getSession().chain(session -> session.createSelectionQuery(
+				"select p.encoding, length(p.data) from Payload p "
+						+ "where p.hash = :hash",
+				Object[].class)
+				.setParameter("hash", hash)
+				.getSingleResultOrNull());
+	}
+
+	/**
+	 * Reads a slice of the stored data of a payload, so a large payload can
+	 * be sent without being loaded whole.
+	 *
+	 * @param hash   The hash of the payload.
+	 * @param offset The offset of the slice in the stored data.
+	 * @param length The length of the slice.
+	 * @return A Uni containing the bytes of the slice.
+	 */
+	public Uni<byte[]> readSlice(final String hash, final long offset,
+			final int length) {
+		return getSession().chain(session -> session.createNativeQuery(
+				"select substring(data, ?1, ?2) from payload where hash = ?3",
+				byte[].class)
+				.setParameter(1, offset + 1)
+				.setParameter(2, length)
+				.setParameter(3, hash)
+				.getSingleResult());
+	}
+}
@@ -0,0 +1,97 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.hibernate.reactive.mutiny.Mutiny;
+
+import dev.orion.workflows.model.Signal;
+import io.quarkus.hibernate.reactive.panache.PanacheRepository;
+import io.quarkus.hibernate.reactive.panache.common.WithSession;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Repository class for managing Signal entities.
+ * Signals are looked up by execution and variable name only, through the
+ * index on both columns.
+ */
+@ApplicationScoped
+@WithSession
+public class SignalRepository implements PanacheRepository<Signal> {
+
+	/**
+	 * Stores signals with a single multi-row insert.
+	 *
+	 * @param signals The signals to be stored.
+	 * @return A Uni that completes when the insert was issued.
+	 */
+	public Uni<Void> storeAll(final Collection<Signal> signals) {
+		if (signals.isEmpty()) {
+			return Uni.createFrom().voidItem();
+		}
+		StringBuilder sql = new StringBuilder("insert into execution_signal "
+				+ "(execution_id, name, value, received) values ");
+		int parameter = 0;
+		for (int i = 0; i < signals.size(); i++) {
+			sql.append(i == 0 ? "" : ", ").append('(')
+					.append('?').append(++parameter).append(", ")
+					.append('?').append(++parameter).append(", ")
+					.append('?').append(++parameter).append(", ")
+					.append('?').append(++parameter).append(')');
+		}
+		return getSession().chain(session -> {
+			Mutiny.Query<?> insert = session.createNativeQuery(sql.toString());
+			int index = 0;
+			for (Signal signal : signals) {
+				insert.setParameter(++index, signal.getExecutionId());
+				insert.setParameter(++index, signal.getName());
+				insert.setParameter(++index, signal.getValue());
+				insert.setParameter(++index, signal.getReceived());
+			}
+			return insert.executeUpdate();
+		}).replaceWithVoid();
+	}
+
+	/**
+	 * Finds the oldest pending signal of each of the given variables of an
+	 * execution.
+	 *
+	 * @param executionId The identifier of the execution.
+	 * @param names       The names of the variables.
+	 * @return A Uni containing at most one signal per variable.
+	 */
+	public Uni<List<Signal>> findNext(final Long executionId,
+			final Collection<String> names) {
+		return list("id in (select min(s.id) from Signal s "
+				+ "where s.executionId = ?1 and s.name in ?2 "
+				+ "group by s.name)", executionId, names);
+	}
+
+	/**
+	 * Deletes consumed signals.
+	 *
+	 * @param ids The identifiers of the signals.
+	 * @return A Uni containing the number of deleted signals.
+	 */
+	public Uni<Long> consume(final Collection<Long> ids) {
+		return delete("id in ?1", ids);
+	}
+}
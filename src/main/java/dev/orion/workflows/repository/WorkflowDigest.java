@@ -0,0 +1,155 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import dev.orion.workflows.model.Workflow;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Computes the content hash of a workflow: the SHA-256 digest of its
+ * canonical JSON form, in which object members are sorted by name, null
+ * members are left out, and the identifiers, hashes and version assigned by
+ * the store are removed. Two workflows with the same definition therefore
+ * have the same digest, however their JSON was laid out. The hash of a
+ * stored version is the digest of that content digest and its version, which
+ * the store computes in SQL as {@code sha2(concat(digest, ':', version),
+ * 256)}.
+ *
+ * The canonical form is written by a copy of the configured mapper whose
+ * ordering and layout features are pinned, so that a change of the
+ * configuration does not change the hashes of the stored workflows.
+ */
+@ApplicationScoped
+class WorkflowDigest {
+
+	/**
+	 * The members that are assigned by the store rather than defined.
+	 */
+	private static final Set<String> ASSIGNED = Set.of("id", "hash",
+			"version");
+
+	/**
+	 * The configured mapper, which converts the workflows to JSON trees.
+	 */
+	@Inject
+	private ObjectMapper mapper;
+
+	/**
+	 * The mapper that writes the canonical form.
+	 */
+	private ObjectMapper canonical;
+
+	@PostConstruct
+	@SuppressWarnings("deprecation")
+	void init() {
+		canonical = mapper.copy()
+				.configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true)
+				.configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+				.configure(SerializationFeature.INDENT_OUTPUT, false);
+	}
+
+	/**
+	 * Creates a digest outside of the container.
+	 *
+	 * @param mapper The configured mapper.
+	 * @return The digest.
+	 */
+	static WorkflowDigest of(final ObjectMapper mapper) {
+		WorkflowDigest digest = new WorkflowDigest();
+		digest.mapper = mapper;
+		digest.init();
+		return digest;
+	}
+
+	/**
+	 * Computes the content digest of a workflow.
+	 *
+	 * @param workflow The workflow.
+	 * @return The hexadecimal SHA-256 digest of its canonical form.
+	 */
+	String digest(final Workflow workflow) {
+		try {
+			return sha256(canonical.writeValueAsBytes(
+					canonical(mapper.valueToTree(workflow))));
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Computes the hash of a version of a workflow, as the store does.
+	 *
+	 * @param digest  The content digest of the workflow.
+	 * @param version The version.
+	 * @return The hexadecimal SHA-256 digest of both.
+	 */
+	static String hash(final String digest, final int version) {
+		return sha256((digest + ':' + version)
+				.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String sha256(final byte[] bytes) {
+		try {
+			return HexFormat.of().formatHex(
+					MessageDigest.getInstance("SHA-256").digest(bytes));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private JsonNode canonical(final JsonNode node) {
+		if (node.isObject()) {
+			List<String> names = new ArrayList<>();
+			node.fieldNames().forEachRemaining(names::add);
+			Collections.sort(names);
+			ObjectNode sorted = canonical.createObjectNode();
+			for (String name : names) {
+				JsonNode value = node.get(name);
+				if (!value.isNull() && !ASSIGNED.contains(name)) {
+					sorted.set(name, canonical(value));
+				}
+			}
+			return sorted;
+		}
+		if (node.isArray()) {
+			ArrayNode array = canonical.createArrayNode();
+			node.forEach(element -> array.add(canonical(element)));
+			return array;
+		}
+		return node;
+	}
+}
@@ -17,46 +17,224 @@
 
 package dev.orion.workflows.repository;
 
+import java.util.List;
+
+import org.hibernate.reactive.mutiny.Mutiny;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.orion.workflows.model.Control;
+import dev.orion.workflows.model.ControlTree;
 import dev.orion.workflows.model.Workflow;
 import io.quarkus.hibernate.reactive.panache.Panache;
 import io.quarkus.hibernate.reactive.panache.PanacheRepository;
 import io.quarkus.hibernate.reactive.panache.common.WithSession;
+import io.quarkus.panache.common.Sort;
 import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 
 /**
  * Repository class for managing Workflow entities.
  * This class provides methods for interacting with the database
  * to perform CRUD operations on Workflow entities.
+ * The control tree of a workflow is read with one query, whatever its
+ * depth, and reassembled in memory.
  */
 @ApplicationScoped
 @WithSession
 public class WorkflowRepository implements PanacheRepository<Workflow> {
 
 	/**
-	 * Saves a Workflow entity to the database. If a Workflow with the same name
-	 * already exists, it returns the existing entity. Otherwise, it persists the
-	 * new Workflow entity.
+	 * The number of times a store is attempted again after losing a race
+	 * with a concurrent store of the same name.
+	 */
+	private static final int RETRIES = 3;
+
+	/**
+	 * Claims the next version of a name, unless its latest version has the
+	 * same content: the version and its hash are computed by the statement
+	 * itself, and a concurrent claim of the same version is left to the
+	 * unique indexes, which turn it into a no-op.
+	 */
+	private static final String CLAIM = "insert into workflow "
+			+ "(name, version, hash) "
+			+ "select ?1, latest.version + 1, "
+			+ "sha2(concat(?2, ':', latest.version + 1), 256) "
+			+ "from (select coalesce(max(version), 0) as version "
+			+ "from workflow where name = ?1) latest "
+			+ "where not exists (select 1 from workflow w "
+			+ "where w.name = ?1 and w.version = latest.version "
+			+ "and w.hash = sha2(concat(?2, ':', latest.version), 256)) "
+			+ "on duplicate key update id = id";
+
+	/**
+	 * The mapper used to copy the workflows to be stored.
+	 */
+	@Inject
+	private ObjectMapper mapper;
+
+	/**
+	 * The content digest of the workflows.
+	 */
+	@Inject
+	private WorkflowDigest workflowDigest;
+
+	/**
+	 * Saves a Workflow entity to the database as the next version of its
+	 * name. Its hash is set to the digest of its content and version, so
+	 * storing a workflow identical to the latest version of its name returns
+	 * that version. Stored versions are never modified.
+	 *
+	 * The version is claimed with a single upsert, which inserts the next
+	 * version of the name unless the latest one has the same content; the
+	 * controls and services of a claimed version are then inserted in the
+	 * same transaction. A claim that inserts nothing reads the latest
+	 * version, and returns it if it has the same content: otherwise a
+	 * concurrent store claimed the same version first, and the store is
+	 * attempted again.
 	 *
-	 * @param workflow The Workflow entity to be saved.
-	 * @return A Uni containing the saved or existing Workflow entity.
+	 * @param definition The Workflow to be saved. It is not modified.
+	 * @return A Uni containing the saved or existing Workflow entity. The
+	 *         control tree of an existing entity is not loaded.
+	 */
+	public Uni<Workflow> save(final Workflow definition) {
+		return save(definition, RETRIES);
+	}
+
+	private Uni<Workflow> save(final Workflow definition, final int retries) {
+		return Uni.createFrom().deferred(() -> {
+			Workflow workflow = copy(definition);
+			String digest = workflowDigest.digest(workflow);
+			return Panache.withTransaction(() -> getSession()
+					.chain(session -> session.createNativeQuery(CLAIM)
+							.setParameter(1, workflow.getName())
+							.setParameter(2, digest)
+							.executeUpdate()
+							.chain(claimed -> claimed == 0
+									? findLatest(workflow.getName())
+											.map(latest -> sameContent(latest,
+													digest))
+									: insert(session, workflow))));
+		}).onItem().ifNull().switchTo(() -> {
+			if (retries == 0) {
+				return Uni.createFrom().failure(new IllegalStateException(
+						"Workflow " + definition.getName()
+								+ " lost every race to store a version"));
+			}
+			return save(definition, retries - 1);
+		});
+	}
+
+	/**
+	 * Returns the latest version of a name if it has the given content, or
+	 * null.
+	 */
+	private static Workflow sameContent(final Workflow latest,
+			final String digest) {
+		return latest != null && latest.getHash().equals(
+				WorkflowDigest.hash(digest, latest.getVersion()))
+						? latest
+						: null;
+	}
+
+	/**
+	 * Copies the definition of a workflow into new entities, without the
+	 * identifiers, hashes and version assigned by the store.
 	 */
-	public Uni<Workflow> save(final Workflow workflow) {
-		return findByName(workflow.getName())
-				.onItem().ifNotNull().transform(entity -> entity)
-				.onItem().ifNull().switchTo(
-						Panache.withTransaction(() -> persist(workflow))
-								.onItem().transform(entity -> entity));
+	private Workflow copy(final Workflow definition) {
+		Workflow workflow = mapper.convertValue(definition, Workflow.class);
+		workflow.id = null;
+		if (workflow.getServices() != null) {
+			workflow.getServices().forEach(service -> service.id = null);
+		}
+		clearIds(workflow.getControls());
+		return workflow;
+	}
+
+	private static void clearIds(final List<Control> controls) {
+		if (controls != null) {
+			for (Control control : controls) {
+				control.id = null;
+				clearIds(control.getControls());
+			}
+		}
 	}
 
 	/**
-	 * Finds a Workflow entity by its name.
+	 * Inserts the controls and services of the version just claimed on the
+	 * session, into the row the claim inserted.
+	 */
+	private Uni<Workflow> insert(final Mutiny.Session session,
+			final Workflow workflow) {
+		return session.createNativeQuery("select last_insert_id()")
+				.getSingleResult()
+				.chain(id -> session.find(Workflow.class,
+						((Number) id).longValue()))
+				.invoke(stored -> {
+					stored.setServices(workflow.getServices());
+					stored.setControls(workflow.getControls());
+					stored.setStoredControls(ControlTree.flatten(stored));
+				});
+	}
+
+	private Uni<Workflow> findLatest(final String name) {
+		return find("name", Sort.descending("version"), name).firstResult();
+	}
+
+	/**
+	 * Finds the latest version of a Workflow entity by its name.
 	 *
 	 * @param name The name of the Workflow entity to be retrieved.
 	 * @return A Uni containing the Workflow entity if found, or null if not
 	 *         found.
 	 */
 	public Uni<Workflow> findByName(final String name) {
-		return find("name", name).firstResult();
+		return findLatest(name)
+				.onItem().ifNotNull().call(this::loadControls);
+	}
+
+	/**
+	 * Finds the hash of the latest version of a workflow, without loading it.
+	 *
+	 * @param name The name of the workflow.
+	 * @return A Uni containing the hash, or null if there is no workflow with
+	 *         the given name.
+	 */
+	public Uni<String> findLatestHash(final String name) {
+		return getSession().chain(session -> session.createSelectionQuery(
+				"select w.hash from Workflow w where w.name = :name "
+						+ "order by w.version desc",
+				String.class)
+				.setParameter("name", name)
+				.setMaxResults(1)
+				.getSingleResultOrNull());
+	}
+
+	/**
+	 * Finds a Workflow entity by its hash.
+	 *
+	 * @param hash The hash of the Workflow entity to be retrieved.
+	 * @return A Uni containing the Workflow entity if found, or null if not
+	 *         found.
+	 */
+	public Uni<Workflow> findByHash(final String hash) {
+		return find("hash", hash).firstResult()
+				.onItem().ifNotNull().call(this::loadControls);
+	}
+
+	/**
+	 * Reads all the controls of a Workflow in pre-order and sets them as its
+	 * control tree.
+	 */
+	private Uni<List<Control>> loadControls(final Workflow workflow) {
+		return getSession().chain(session -> session.createSelectionQuery(
+				"from Control c where c.workflow = :workflow "
+						+ "order by c.position",
+				Control.class)
+				.setParameter("workflow", workflow)
+				.getResultList())
+				.invoke(controls -> workflow.setControls(
+						ControlTree.assemble(controls)));
 	}
 }
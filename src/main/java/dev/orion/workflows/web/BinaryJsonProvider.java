@@ -0,0 +1,126 @@
+/**
+ * @License
+ * Copyright 2025 Orion Services @ https://orion-services.dev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.orion.workflows.web;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyReader;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+
+/**
+ * Reads and writes request and response bodies in the binary encodings of
+ * the JSON data model, Smile and CBOR. They carry the same documents as the
+ * JSON bodies, with the same bindings, in fewer bytes and with cheaper
+ * parsing: field names are written once and numbers in binary.
+ */
+@Provider
+@Consumes({ BinaryJsonProvider.SMILE, BinaryJsonProvider.CBOR })
+@Produces({ BinaryJsonProvider.SMILE, BinaryJsonProvider.CBOR })
+public class BinaryJsonProvider
+        implements MessageBodyReader<Object>, MessageBodyWriter<Object> {
+
+    /**
+     * The media type of Smile.
+     */
+    public static final String SMILE = "application/x-jackson-smile";
+
+    /**
+     * The media type of CBOR.
+     */
+    public static final String CBOR = "application/cbor";
+
+    /**
+     * The mapper of the JSON bodies, whose configuration the binary
+     * encodings share.
+     */
+    @Inject
+    private ObjectMapper mapper;
+
+    /**
+     * The mapper of the Smile bodies.
+     */
+    private ObjectMapper smile;
+
+    /**
+     * The mapper of the CBOR bodies.
+     */
+    private ObjectMapper cbor;
+
+    @PostConstruct
+    void init() {
+        smile = mapper.copyWith(new SmileFactory());
+        cbor = mapper.copyWith(new CBORFactory());
+    }
+
+    @Override
+    public boolean isReadable(final Class<?> type, final Type genericType,
+            final Annotation[] annotations, final MediaType mediaType) {
+        return mapper(mediaType) != null;
+    }
+
+    @Override
+    public Object readFrom(final Class<Object> type, final Type genericType,
+            final Annotation[] annotations, final MediaType mediaType,
+            final MultivaluedMap<String, String> httpHeaders,
+            final InputStream entityStream) throws IOException {
+        ObjectMapper reader = mapper(mediaType);
+        return reader.readerFor(reader.constructType(genericType))
+                .readValue(entityStream);
+    }
+
+    @Override
+    public boolean isWriteable(final Class<?> type, final Type genericType,
+            final Annotation[] annotations, final MediaType mediaType) {
+        return mapper(mediaType) != null;
+    }
+
+    @Override
+    public void writeTo(final Object value, final Class<?> type,
+            final Type genericType, final Annotation[] annotations,
+            final MediaType mediaType,
+            final MultivaluedMap<String, Object> httpHeaders,
+            final OutputStream entityStream) throws IOException {
+        mapper(mediaType).writeValue(entityStream, value);
+    }
+
+    private ObjectMapper mapper(final MediaType mediaType) {
+        if (mediaType == null) {
+            return null;
+        }
+        String subtype = mediaType.getType() + "/" + mediaType.getSubtype();
+        if (SMILE.equalsIgnoreCase(subtype)) {
+            return smile;
+        }
+        return CBOR.equalsIgnoreCase(subtype) ? cbor : null;
+    }
+}
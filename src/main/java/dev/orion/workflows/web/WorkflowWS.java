@@ -17,17 +17,54 @@
 
 package dev.orion.workflows.web;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.resteasy.reactive.RestMulti;
+import org.jboss.resteasy.reactive.RestStreamElementType;
+import org.jboss.resteasy.reactive.common.util.RestMediaType;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import dev.orion.workflows.engine.ExecutionEngine;
+import dev.orion.workflows.engine.ExecutionEvent;
+import dev.orion.workflows.engine.ExecutionEvents;
+import dev.orion.workflows.engine.ExecutionLeases;
+import dev.orion.workflows.engine.HistoryEntry;
+import dev.orion.workflows.engine.HistoryReader;
+import dev.orion.workflows.engine.IncomingSignal;
+import dev.orion.workflows.engine.ServiceInvoker;
+import dev.orion.workflows.engine.ServiceStats;
+import dev.orion.workflows.engine.SignalRouter;
+import dev.orion.workflows.engine.VariableCodec;
+import dev.orion.workflows.engine.VariableHistory;
+import dev.orion.workflows.engine.VariableSnapshot;
+import dev.orion.workflows.model.Execution;
+import dev.orion.workflows.model.Payload;
 import dev.orion.workflows.model.Workflow;
+import dev.orion.workflows.plan.PlanCache;
+import dev.orion.workflows.plan.PlanCacheStats;
+import dev.orion.workflows.plan.PlanCompiler;
 import dev.orion.workflows.repository.ExecutionRepository;
 import dev.orion.workflows.repository.WorkflowRepository;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
 import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
 import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.FormParam;
+import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response.Status;
 
 /**
  * REST endpoint for managing workflows. This class defines RESTful web services
@@ -49,22 +86,96 @@ public class WorkflowWS {
     private ExecutionRepository executionRepository;
 
     /**
-     * An endpoint that receives a JSON workflow and stores it in the database.
+     * The engine that advances the executions.
+     */
+    @Inject
+    private ExecutionEngine executionEngine;
+
+    /**
+     * The leases under which this node runs the executions it starts.
+     */
+    @Inject
+    private ExecutionLeases executionLeases;
+
+    /**
+     * The cache of compiled workflow plans.
+     */
+    @Inject
+    private PlanCache planCache;
+
+    /**
+     * The reader of the variables recorded in the execution history.
+     */
+    @Inject
+    private VariableHistory variableHistory;
+
+    /**
+     * The reader of the execution history.
+     */
+    @Inject
+    private HistoryReader historyReader;
+
+    /**
+     * The publisher of the progress of the executions.
+     */
+    @Inject
+    private ExecutionEvents executionEvents;
+
+    /**
+     * The router of the signals sent to the executions.
+     */
+    @Inject
+    private SignalRouter signalRouter;
+
+    /**
+     * The invoker of the workflow services.
+     */
+    @Inject
+    private ServiceInvoker serviceInvoker;
+
+    /**
+     * The encoding of the initial variables of the executions.
+     */
+    @Inject
+    private VariableCodec variableCodec;
+
+    /**
+     * The maximum number of executions created by a single insert.
+     */
+    @ConfigProperty(name = "workflows.executions.batch-size",
+            defaultValue = "1000")
+    private int batchSize;
+
+    /**
+     * An endpoint that receives a workflow and stores it in the database as
+     * the next version of its name, unless it is identical to the latest
+     * one. The stored version becomes the one started by name. The workflow
+     * is sent in JSON, or in Smile or CBOR as declared by the Content-Type.
+     * It is compiled before it is stored, so a workflow that cannot run is
+     * rejected with a 400 and never becomes the latest version.
      *
      * @param workflow The workflow object to be stored.
-     * @return A Uni containing the hash of the stored workflow.
+     * @return A Uni containing the hash of the stored version.
      */
     @POST
     @Path("/store")
-    @Consumes(MediaType.APPLICATION_JSON)
+    @Consumes({ MediaType.APPLICATION_JSON, BinaryJsonProvider.SMILE,
+            BinaryJsonProvider.CBOR })
     @Produces(MediaType.TEXT_PLAIN)
     public Uni<String> storeWorkflow(final Workflow workflow) {
-        return workflowRepository.save(workflow)
+        return Uni.createFrom().item(workflow)
+                .invoke(PlanCompiler::compile)
+                .onFailure(IllegalArgumentException.class).transform(
+                        failure -> new BadRequestException(
+                                failure.getMessage(), failure))
+                .chain(workflowRepository::save)
+                .onItem().ifNotNull().call(planCache::publish)
                 .onItem().ifNotNull().transform(entity -> entity.getHash());
     }
 
     /**
-     * An endpoint that retrieves a workflow by its name.
+     * An endpoint that retrieves a workflow by its name, in JSON, or in Smile
+     * or CBOR as requested by the Accept header.
      *
      * @param name The name of the workflow to be retrieved.
      * @return A Uni containing the Workflow entity if found, or null if not
@@ -73,7 +184,8 @@ public class WorkflowWS {
     @POST
     @Path("/findByName")
     @Consumes(MediaType.APPLICATION_FORM_URLENCODED)
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({ MediaType.APPLICATION_JSON, BinaryJsonProvider.SMILE,
+            BinaryJsonProvider.CBOR })
     public Uni<Workflow> findWorkflowByName(
             @FormParam("name") final String name) {
 
@@ -84,7 +196,11 @@ public class WorkflowWS {
     }
 
     /**
-     * An endpoint that starts an execution for a workflow by its name.
+     * An endpoint that starts an execution for a workflow by its name. The
+     * compiled plan of the workflow comes from the plan cache, so only the
+     * new execution is written to the database. The execution is advanced in
+     * the background by the engine; the endpoint returns as soon as it has
+     * been persisted.
      *
      * @param name The name of the workflow to start execution for.
      * @return A Uni containing the hash of the newly created Execution entity.
@@ -94,8 +210,228 @@ public class WorkflowWS {
     @Consumes(MediaType.APPLICATION_FORM_URLENCODED)
     @Produces(MediaType.TEXT_PLAIN)
     public Uni<String> start(@FormParam("name") final String name) {
-        return workflowRepository.findByName(name)
+        return planCache.findByName(name)
                 .onItem().ifNotNull().transformToUni(
-                        workflow -> executionRepository.create(workflow));
+                        plan -> executionRepository
+                                .create(plan.getWorkflowId(),
+                                        executionLeases.owner(),
+                                        executionLeases.expiry())
+                                .invoke(signalRouter::correlate)
+                                .invoke(execution -> executionEngine
+                                        .start(execution, plan)))
+                .onItem().ifNotNull().transform(
+                        execution -> execution.getHash());
+    }
+
+    /**
+     * An endpoint that starts many executions of a workflow, one for each
+     * set of initial global variables. The executions are created by
+     * multi-row inserts of up to the batch size, and their hashes are
+     * streamed back as each insert commits, in the order of the variables.
+     * Payloads that are not JSON objects start an execution without global
+     * variables.
+     *
+     * @param batch The name of the workflow and the initial global variables
+     *              of each execution.
+     * @return A Multi of the hashes of the new executions, empty if there is
+     *         no workflow with the given name.
+     */
+    @POST
+    @Path("/startAll")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Multi<String> startAll(final StartBatch batch) {
+        List<byte[]> variables = new ArrayList<>();
+        if (batch.globalVariables() != null) {
+            for (JsonNode payload : batch.globalVariables()) {
+                variables.add(payload != null && payload.isObject()
+                        ? variableCodec.encode(payload) : null);
+            }
+        }
+        return planCache.findByName(batch.name())
+                .onItem().ifNotNull().transformToMulti(plan -> Multi
+                        .createFrom()
+                        .range(0, (variables.size() + batchSize - 1)
+                                / batchSize)
+                        .onItem().transformToUniAndConcatenate(
+                                chunk -> executionRepository.createAll(
+                                        plan.getWorkflowId(),
+                                        variables.subList(chunk * batchSize,
+                                                Math.min(variables.size(),
+                                                        (chunk + 1)
+                                                                * batchSize)),
+                                        executionLeases.owner(),
+                                        executionLeases.expiry()))
+                        .onItem().transformToIterable(executions -> executions)
+                        .invoke(execution -> {
+                            signalRouter.correlate(execution);
+                            executionEngine.start(execution, plan);
+                        }))
+                .map(Execution::getHash);
+    }
+
+    /**
+     * An endpoint that reports the hit and miss statistics of the cache of
+     * compiled workflow plans.
+     *
+     * @return The statistics of the plan cache.
+     */
+    @GET
+    @Path("/plans/stats")
+    @Produces(MediaType.APPLICATION_JSON)
+    public PlanCacheStats planCacheStats() {
+        return planCache.stats();
+    }
+
+    /**
+     * An endpoint that reports, for each service invoked so far, the calls
+     * in flight, the state of its circuit breaker and its latencies.
+     *
+     * @return The statistics of the services, one entry per service hash.
+     */
+    @GET
+    @Path("/services/stats")
+    @Produces(MediaType.APPLICATION_JSON)
+    public List<ServiceStats> serviceStats() {
+        return serviceInvoker.stats();
+    }
+
+    /**
+     * An endpoint that rebuilds the variables of an execution as they were
+     * after one of its steps.
+     *
+     * @param hash       The hash of the execution.
+     * @param stepNumber The number of the step.
+     * @return A Uni containing the local and global variables, or null if the
+     *         step has not been recorded.
+     */
+    @POST
+    @Path("/variables")
+    @Consumes(MediaType.APPLICATION_FORM_URLENCODED)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Uni<VariableSnapshot> variables(@FormParam("hash") final String hash,
+            @FormParam("step") final int stepNumber) {
+        return variableHistory.at(hash, stepNumber);
+    }
+
+    /**
+     * An endpoint that streams the history of an execution as JSON objects,
+     * one per line. The history is read page by page as the client consumes
+     * it.
+     *
+     * @param hash   The hash of the execution.
+     * @param after  The step number after which the stream starts, to resume
+     *               an interrupted read.
+     * @param bodies Whether to include the request and response bodies. The
+     *               payload hashes are always included, so large bodies can
+     *               be fetched on their own.
+     * @return A Multi of the steps of the execution.
+     */
+    @GET
+    @Path("/history/{hash}")
+    @Produces(RestMediaType.APPLICATION_NDJSON)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    public Multi<HistoryEntry> history(@PathParam("hash") final String hash,
+            @QueryParam("after") @DefaultValue("0") final int after,
+            @QueryParam("bodies") @DefaultValue("true") final boolean bodies) {
+        return historyReader.stream(hash, after, bodies);
+    }
+
+    /**
+     * An endpoint that streams the history of an execution as server-sent
+     * events, with the same parameters as the NDJSON stream.
+     *
+     * @param hash   The hash of the execution.
+     * @param after  The step number after which the stream starts.
+     * @param bodies Whether to include the request and response bodies.
+     * @return A Multi of the steps of the execution.
+     */
+    @GET
+    @Path("/history/{hash}")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    public Multi<HistoryEntry> historyEvents(
+            @PathParam("hash") final String hash,
+            @QueryParam("after") @DefaultValue("0") final int after,
+            @QueryParam("bodies") @DefaultValue("true") final boolean bodies) {
+        return historyReader.stream(hash, after, bodies);
+    }
+
+    /**
+     * An endpoint that pushes the progress of an execution as server-sent
+     * events: its current status, then each step it runs with the variables
+     * it changed and each change of its status, until it completes or fails.
+     * The events come from the engine through the event bus, so subscribers
+     * do not poll the database.
+     *
+     * @param hash The hash of the execution.
+     * @return A Multi of the events of the execution.
+     */
+    @GET
+    @Path("/executions/{hash}/events")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    public Multi<ExecutionEvent> executionEvents(
+            @PathParam("hash") final String hash) {
+        return executionEvents.subscribe(hash);
+    }
+
+    /**
+     * An endpoint that streams a request or response body recorded in the
+     * history, as it is stored and one slice at a time, so that large bodies
+     * are neither loaded whole nor decompressed by the server. Compressed
+     * bodies are sent with a deflate content encoding.
+     *
+     * @param hash The hash of the payload.
+     * @return A Multi of the bytes of the payload, with a 404 status if it
+     *         does not exist.
+     */
+    @GET
+    @Path("/payloads/{hash}")
+    @Produces(MediaType.APPLICATION_OCTET_STREAM)
+    public RestMulti<byte[]> payload(@PathParam("hash") final String hash) {
+        return RestMulti.fromUniResponse(historyReader.payload(hash),
+                payload -> payload == null ? Multi.createFrom().empty()
+                        : payload.data(),
+                payload -> payload == null ? Map.of()
+                        : Payload.DEFLATE.equals(payload.encoding())
+                                ? Map.of(HttpHeaders.CONTENT_ENCODING,
+                                        List.of(Payload.DEFLATE))
+                                : Map.of(),
+                payload -> payload == null ? Status.NOT_FOUND.getStatusCode()
+                        : Status.OK.getStatusCode());
+    }
+
+    /**
+     * An endpoint that delivers a signal, such as an external input awaited
+     * by a "wait" control, to an execution.
+     *
+     * @param signal The hash of the execution, the name of the variable and
+     *               its value.
+     * @return A Uni containing the number of signals delivered: 1, or 0 if
+     *         the execution does not exist.
+     */
+    @POST
+    @Path("/signal")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.TEXT_PLAIN)
+    public Uni<Integer> signal(final IncomingSignal signal) {
+        return signalRouter.deliver(List.of(signal));
+    }
+
+    /**
+     * An endpoint that delivers a batch of signals, possibly addressed to
+     * different executions, with a single insert.
+     *
+     * @param signals The signals to be delivered.
+     * @return A Uni containing the number of signals delivered. Signals
+     *         addressed to executions that do not exist are dropped.
+     */
+    @POST
+    @Path("/signals")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.TEXT_PLAIN)
+    public Uni<Integer> signals(final List<IncomingSignal> signals) {
+        return signalRouter.deliver(signals);
     }
 }
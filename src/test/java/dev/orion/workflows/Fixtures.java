@@ -0,0 +1,184 @@
+package dev.orion.workflows;
+
+import static dev.orion.workflows.Sessions.await;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import dev.orion.workflows.engine.ExecutionEngine;
+import dev.orion.workflows.engine.ExecutionLeases;
+import dev.orion.workflows.engine.SignalRouter;
+import dev.orion.workflows.model.Execution;
+import dev.orion.workflows.model.ExecutionStatus;
+import dev.orion.workflows.model.Workflow;
+import dev.orion.workflows.plan.PlanCache;
+import dev.orion.workflows.plan.WorkflowPlan;
+import dev.orion.workflows.repository.ExecutionRepository;
+import dev.orion.workflows.repository.WorkflowRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Stores the workflows of src/test/resources/workflows and starts their
+ * executions for the tests that run against the database.
+ */
+@ApplicationScoped
+public class Fixtures {
+
+    @Inject
+    WorkflowRepository workflowRepository;
+
+    @Inject
+    ExecutionRepository executionRepository;
+
+    @Inject
+    PlanCache planCache;
+
+    @Inject
+    ExecutionLeases leases;
+
+    @Inject
+    ExecutionEngine engine;
+
+    @Inject
+    SignalRouter signalRouter;
+
+    @Inject
+    ObjectMapper mapper;
+
+    /**
+     * Reads a workflow of the test resources as JSON, under a new name made
+     * of the name of the resource and a random suffix. The "${port}"
+     * placeholders of its service URLs are replaced by a port.
+     *
+     * @param resource The file name of the workflow.
+     * @param port     The port of its services.
+     * @return The JSON of the workflow.
+     */
+    public String json(final String resource, final int port)
+            throws IOException {
+        try (InputStream in = Fixtures.class
+                .getResourceAsStream("/workflows/" + resource)) {
+            if (in == null) {
+                throw new IOException("Missing workflow " + resource);
+            }
+            String json = new String(in.readAllBytes(),
+                    StandardCharsets.UTF_8)
+                    .replace("${port}", Integer.toString(port));
+            ObjectNode tree = (ObjectNode) mapper.readTree(json);
+            tree.put("name", resource.replace(".json", "") + "-"
+                    + UUID.randomUUID());
+            return mapper.writeValueAsString(tree);
+        }
+    }
+
+    /**
+     * Reads a workflow of the test resources under a new name, as
+     * {@link #json(String, int)} does.
+     *
+     * @param resource The file name of the workflow.
+     * @param port     The port of its services.
+     * @return The workflow, not stored.
+     */
+    public Workflow read(final String resource, final int port)
+            throws IOException {
+        return mapper.readValue(json(resource, port), Workflow.class);
+    }
+
+    /**
+     * Stores a workflow of the test resources as a new workflow.
+     *
+     * @param resource The file name of the workflow.
+     * @param port     The port of its services.
+     * @return The stored workflow.
+     */
+    public Workflow store(final String resource, final int port)
+            throws Exception {
+        Workflow workflow = read(resource, port);
+        return await(() -> workflowRepository.save(workflow));
+    }
+
+    /**
+     * Stores a workflow of the test resources and publishes its plan, as
+     * the store endpoint does.
+     *
+     * @param resource The file name of the workflow.
+     * @param port     The port of its services.
+     * @return The plan of the stored workflow.
+     */
+    public WorkflowPlan publish(final String resource, final int port)
+            throws Exception {
+        Workflow workflow = read(resource, port);
+        return await(() -> workflowRepository.save(workflow)
+                .chain(planCache::publish));
+    }
+
+    /**
+     * Creates a running execution of a workflow without running it, under a
+     * lease of the usual duration.
+     *
+     * @param workflow The stored workflow.
+     * @param owner    The node owning the execution.
+     * @return The execution.
+     */
+    public Execution execution(final Workflow workflow, final String owner)
+            throws Exception {
+        return execution(workflow, owner, leases.expiry());
+    }
+
+    /**
+     * Creates a running execution of a workflow without running it.
+     *
+     * @param workflow   The stored workflow.
+     * @param owner      The node owning the execution.
+     * @param leaseUntil The end of the lease of the owner.
+     * @return The execution.
+     */
+    public Execution execution(final Workflow workflow, final String owner,
+            final Instant leaseUntil) throws Exception {
+        return await(() -> executionRepository.create(workflow.id, owner,
+                leaseUntil));
+    }
+
+    /**
+     * Creates an execution of a workflow owned by this node and runs it in
+     * the background, as the start endpoint does.
+     *
+     * @param plan The plan of the stored workflow.
+     * @return The hash of the execution.
+     */
+    public String start(final WorkflowPlan plan) throws Exception {
+        Execution execution = await(() -> executionRepository.create(
+                plan.getWorkflowId(), leases.owner(), leases.expiry()));
+        signalRouter.correlate(execution);
+        engine.start(execution, plan);
+        return execution.getHash();
+    }
+
+    /**
+     * Waits for an execution to reach a status, for at most 30 seconds.
+     *
+     * @param hash   The hash of the execution.
+     * @param status The expected status.
+     * @return The execution as read when it reached the status.
+     */
+    public Execution awaitStatus(final String hash,
+            final ExecutionStatus status) throws Exception {
+        long deadline = System.currentTimeMillis() + 30_000;
+        Execution execution = await(() -> executionRepository.findByHash(hash));
+        while (execution.getStatus() != status) {
+            assertTrue(System.currentTimeMillis() < deadline,
+                    "Execution " + hash + " is " + execution.getStatus());
+            Thread.sleep(50);
+            execution = await(() -> executionRepository.findByHash(hash));
+        }
+        return execution;
+    }
+}
@@ -0,0 +1,28 @@
+package dev.orion.workflows;
+
+import java.util.Map;
+
+import io.quarkus.test.junit.QuarkusTestProfile;
+
+/**
+ * Leaves the periodic work of the engine to the tests: History rows are only
+ * committed by full batches of four, and leases are neither renewed nor
+ * swept. Partitions are still assigned, with a fast heartbeat.
+ */
+public class ManualProfile implements QuarkusTestProfile {
+
+    /**
+     * The number of steps committed together.
+     */
+    public static final int BATCH_SIZE = 4;
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        return Map.of("workflows.history.durability", "GROUP",
+                "workflows.history.batch-size", Integer.toString(BATCH_SIZE),
+                "workflows.history.flush-interval", "PT1H",
+                "workflows.leases.renew-interval", "PT1H",
+                "workflows.leases.sweep-interval", "PT1H",
+                "workflows.cluster.heartbeat", "PT1S");
+    }
+}
@@ -0,0 +1,48 @@
+package dev.orion.workflows;
+
+import java.util.function.Supplier;
+
+import io.quarkus.hibernate.reactive.panache.Panache;
+import io.quarkus.vertx.VertxContextSupport;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Runs reactive repository calls from the test threads, each on a new Vert.x
+ * context and in its own session.
+ */
+public final class Sessions {
+
+    private Sessions() {
+    }
+
+    /**
+     * Waits for the item of a Uni run in a session.
+     *
+     * @param work The supplier of the Uni.
+     * @return The item.
+     */
+    public static <T> T await(final Supplier<Uni<T>> work) throws Exception {
+        return run(() -> Panache.withSession(work));
+    }
+
+    /**
+     * Waits for the item of a Uni run in a transaction.
+     *
+     * @param work The supplier of the Uni.
+     * @return The item.
+     */
+    public static <T> T transaction(final Supplier<Uni<T>> work)
+            throws Exception {
+        return run(() -> Panache.withTransaction(work));
+    }
+
+    private static <T> T run(final Supplier<Uni<T>> work) throws Exception {
+        try {
+            return VertxContextSupport.subscribeAndAwait(work);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
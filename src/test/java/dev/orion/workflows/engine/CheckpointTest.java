@@ -0,0 +1,69 @@
+package dev.orion.workflows.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import dev.orion.workflows.model.Execution;
+import dev.orion.workflows.model.History;
+import dev.orion.workflows.model.Service;
+import dev.orion.workflows.model.Workflow;
+import dev.orion.workflows.model.control.Go;
+import dev.orion.workflows.plan.PlanCompiler;
+import dev.orion.workflows.plan.WorkflowPlan;
+
+class CheckpointTest {
+
+    private final VariableCodec codec = VariableCodec.of(new ObjectMapper(),
+            VariableCodec.Format.JSON);
+
+    private ExecutionState state() {
+        Service service = new Service();
+        service.setName("a");
+        Go go = new Go();
+        go.setService("a");
+        Workflow workflow = new Workflow();
+        workflow.setName("test");
+        workflow.setControls(List.of(go));
+        workflow.setServices(List.of(service));
+        WorkflowPlan plan = PlanCompiler.compile(workflow);
+
+        ObjectNode globals = JsonNodeFactory.instance.objectNode();
+        ObjectNode locals = JsonNodeFactory.instance.objectNode();
+        for (int i = 0; i < 32; i++) {
+            globals.put("global" + i, "g".repeat(128));
+            locals.put("local" + i, "l".repeat(128));
+        }
+        return new ExecutionState(new Execution(), plan, globals, locals);
+    }
+
+    @Test
+    void loadedEntitiesGenerateNothing() {
+        assertNull(new History().getHash());
+        assertNull(new Service().getHash());
+        assertNull(new Execution().getStarted());
+    }
+
+    @Test
+    void variablesAreSerializedOnlyAtCheckpoints() {
+        ExecutionState state = state();
+        for (int i = 1; i <= 20; i++) {
+            state.getLocals().put("counter", i);
+            History history = new History();
+            history.setStepNumber(state.nextStep());
+            ExecutionEngine.snapshotVariables(state, history, 16, codec);
+        }
+        Execution execution = state.getExecution();
+        assertEquals(17, execution.getVariablesStep());
+        assertTrue(codec.toJson(execution.getLocalVariables())
+                .contains("\"counter\":17"));
+    }
+}
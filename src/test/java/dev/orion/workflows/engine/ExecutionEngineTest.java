@@ -0,0 +1,101 @@
+package dev.orion.workflows.engine;
+
+import static dev.orion.workflows.Sessions.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import dev.orion.workflows.Fixtures;
+import dev.orion.workflows.model.Execution;
+import dev.orion.workflows.model.ExecutionStatus;
+import dev.orion.workflows.repository.HistoryRepository;
+import dev.orion.workflows.stub.StubService;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+class ExecutionEngineTest {
+
+    private static StubService stub;
+
+    @Inject
+    SignalRouter signalRouter;
+
+    @Inject
+    VariableHistory variableHistory;
+
+    @Inject
+    HistoryRepository historyRepository;
+
+    @Inject
+    Fixtures fixtures;
+
+    @BeforeAll
+    static void startStub() {
+        stub = StubService.start(0, Duration.ZERO, 0);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.close();
+    }
+
+    private void assertCompleted(final String hash, final int steps,
+            final int members) throws Exception {
+        Execution execution = fixtures.awaitStatus(hash,
+                ExecutionStatus.COMPLETED);
+        assertEquals(steps, execution.getStepNumber());
+        assertEquals(steps, (long) await(() -> historyRepository
+                .count("execution.hash", hash)));
+        VariableSnapshot last = await(() -> variableHistory.at(hash, steps));
+        assertEquals(members, last.localVariables().path("members").asInt());
+    }
+
+    @Test
+    void goRunsItsNestedControls() throws Exception {
+        String hash = fixtures.start(
+                fixtures.publish("nested-go.json", stub.port()));
+        assertCompleted(hash, 2, 1);
+    }
+
+    @Test
+    void ifRunsItsControlsOnlyWhenItsExpressionHolds() throws Exception {
+        String hash = fixtures.start(
+                fixtures.publish("branches.json", stub.port()));
+        // The first branch joins once more; the second one is skipped.
+        assertCompleted(hash, 3, 2);
+    }
+
+    @Test
+    void loopRunsItsIterations() throws Exception {
+        String hash = fixtures.start(
+                fixtures.publish("counted-loop.json", stub.port()));
+        assertCompleted(hash, 4, 3);
+    }
+
+    @Test
+    void resumedExecutionRebuildsItsVariablesFromCheckpointAndDeltas()
+            throws Exception {
+        String hash = fixtures.start(
+                fixtures.publish("join-and-wait.json", stub.port()));
+        Execution parked = fixtures.awaitStatus(hash,
+                ExecutionStatus.WAITING);
+        // Only the first step is a checkpoint; the next three are deltas.
+        assertEquals(1, parked.getVariablesStep());
+
+        await(() -> signalRouter.deliver(List.of(new IncomingSignal(hash,
+                "hashUser", TextNode.valueOf("u1")))));
+        fixtures.awaitStatus(hash, ExecutionStatus.COMPLETED);
+        VariableSnapshot last = await(() -> variableHistory.at(hash, 5));
+        assertEquals(4, last.localVariables().path("members").asInt());
+        VariableSnapshot third = await(() -> variableHistory.at(hash, 3));
+        assertEquals(2, third.localVariables().path("members").asInt());
+    }
+}
@@ -0,0 +1,99 @@
+package dev.orion.workflows.engine;
+
+import static dev.orion.workflows.Sessions.await;
+import static dev.orion.workflows.Sessions.transaction;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import dev.orion.workflows.Fixtures;
+import dev.orion.workflows.ManualProfile;
+import dev.orion.workflows.model.Execution;
+import dev.orion.workflows.model.ExecutionStatus;
+import dev.orion.workflows.model.Workflow;
+import dev.orion.workflows.repository.ExecutionRepository;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+@TestProfile(ManualProfile.class)
+class ExecutionLeasesTest {
+
+    @Inject
+    ExecutionLeases leases;
+
+    @Inject
+    PartitionOwnership ownership;
+
+    @Inject
+    Fixtures fixtures;
+
+    @Inject
+    ExecutionRepository executionRepository;
+
+    private Workflow workflow;
+
+    @BeforeEach
+    void storeWorkflow() throws Exception {
+        workflow = fixtures.store("single-call.json", 0);
+    }
+
+    private Execution reload(final Execution execution) throws Exception {
+        return await(() -> executionRepository.findById(execution.id));
+    }
+
+    @Test
+    void onlyOneClaimOfAWaitingExecutionSucceeds() throws Exception {
+        Execution execution = fixtures.execution(workflow, "parked-node");
+        transaction(() -> executionRepository.update(
+                "status = ?1 where id = ?2", ExecutionStatus.WAITING,
+                execution.id));
+
+        assertTrue(transaction(() -> executionRepository.claim(execution.id,
+                "first-node", leases.expiry())));
+        assertFalse(transaction(() -> executionRepository.claim(execution.id,
+                "second-node", leases.expiry())));
+        Execution claimed = reload(execution);
+        assertEquals(ExecutionStatus.RUNNING, claimed.getStatus());
+        assertEquals("first-node", claimed.getOwner());
+    }
+
+    @Test
+    void takingOverAnExpiredLeaseFencesThePreviousOwner() throws Exception {
+        Execution execution = fixtures.execution(workflow, "crashed-node",
+                Instant.now().minusSeconds(1));
+
+        assertTrue(await(() -> leases.takeOver(execution.id)));
+        assertEquals(leases.owner(), reload(execution).getOwner());
+
+        assertEquals(0, (int) transaction(
+                () -> executionRepository.updateProgress(execution)));
+        execution.setOwner(leases.owner());
+        assertEquals(1, (int) transaction(
+                () -> executionRepository.updateProgress(execution)));
+    }
+
+    @Test
+    void liveLeasesAreNotTakenOver() throws Exception {
+        Execution execution = fixtures.execution(workflow, "busy-node");
+
+        assertFalse(await(() -> leases.takeOver(execution.id)));
+        assertEquals("busy-node", reload(execution).getOwner());
+    }
+
+    @Test
+    void aSingleNodeOwnsEveryPartition() throws Exception {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (ownership.owned().size() < ownership.partitions()
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertEquals(ownership.partitions(), ownership.owned().size());
+    }
+}
@@ -0,0 +1,187 @@
+package dev.orion.workflows.engine;
+
+import static dev.orion.workflows.ManualProfile.BATCH_SIZE;
+import static dev.orion.workflows.Sessions.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import dev.orion.workflows.Fixtures;
+import dev.orion.workflows.ManualProfile;
+import dev.orion.workflows.model.Execution;
+import dev.orion.workflows.model.History;
+import dev.orion.workflows.model.Payload;
+import dev.orion.workflows.model.Workflow;
+import dev.orion.workflows.repository.ExecutionRepository;
+import dev.orion.workflows.repository.HistoryRepository;
+import dev.orion.workflows.repository.PayloadRepository;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+@TestProfile(ManualProfile.class)
+class HistoryWriterTest {
+
+    @Inject
+    HistoryWriter writer;
+
+    @Inject
+    PayloadEncoder payloadEncoder;
+
+    @Inject
+    ExecutionLeases leases;
+
+    @Inject
+    Fixtures fixtures;
+
+    @Inject
+    HistoryRepository historyRepository;
+
+    @Inject
+    PayloadRepository payloadRepository;
+
+    @Inject
+    ExecutionRepository executionRepository;
+
+    private Workflow workflow;
+
+    @BeforeEach
+    void storeWorkflow() throws Exception {
+        workflow = fixtures.store("single-call.json", 0);
+    }
+
+    private History step(final Execution execution, final int stepNumber,
+            final String body) {
+        History history = new History();
+        history.setExecution(execution);
+        history.setService(workflow.getServices().get(0));
+        history.setStepNumber(stepNumber);
+        history.setRequestMimeType("application/json");
+        history.setResponseMimeType("application/json");
+        history.setResponsePayload(payloadEncoder.encode(
+                body.getBytes(StandardCharsets.UTF_8)));
+        history.setExecuted(Instant.now());
+        return history;
+    }
+
+    private CompletableFuture<Void> write(final Execution execution,
+            final int stepNumber, final String body) {
+        execution.setStepNumber(stepNumber);
+        return writer.write(step(execution, stepNumber, body), execution)
+                .subscribeAsCompletionStage();
+    }
+
+    private CompletableFuture<Void> write(final Execution execution,
+            final String body) {
+        return write(execution, 1, body);
+    }
+
+    private static void awaitAll(final List<CompletableFuture<Void>> writes)
+            throws Exception {
+        awaitAll(writes);
+    }
+
+    private long rows(final Execution execution) throws Exception {
+        return await(() -> historyRepository.count("execution.id",
+                execution.id));
+    }
+
+    @Test
+    void stepsAreCommittedWhenTheBatchIsFull() throws Exception {
+        List<Execution> executions = new ArrayList<>();
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            executions.add(fixtures.execution(workflow, leases.owner()));
+        }
+        for (int i = 0; i < BATCH_SIZE - 1; i++) {
+            writes.add(write(executions.get(i), "{\"members\":" + i + "}"));
+        }
+        assertEquals(BATCH_SIZE - 1, writer.pending());
+        assertFalse(writes.stream().anyMatch(CompletableFuture::isDone));
+
+        writes.add(write(executions.get(BATCH_SIZE - 1), "{\"members\":0}"));
+        awaitAll(writes);
+        assertEquals(0, writer.pending());
+        for (Execution execution : executions) {
+            assertEquals(1, rows(execution));
+        }
+    }
+
+    @Test
+    void stepsOfAnExecutionOwnedElsewhereAreRejected() throws Exception {
+        Execution lost = fixtures.execution(workflow, "another-node");
+        CompletableFuture<Void> rejected = write(lost, "{\"members\":1}");
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        for (int i = 1; i < BATCH_SIZE; i++) {
+            writes.add(write(fixtures.execution(workflow, leases.owner()),
+                    "{\"members\":1}"));
+        }
+        awaitAll(writes);
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> rejected.get(30, TimeUnit.SECONDS));
+        assertInstanceOf(LeaseLostException.class, failure.getCause());
+        assertEquals(0, rows(lost));
+    }
+
+    @Test
+    void identicalBodiesAreStoredOnce() throws Exception {
+        String body = "{\"group\":\"" + UUID.randomUUID() + "\"}";
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            writes.add(write(fixtures.execution(workflow, leases.owner()),
+                    body));
+        }
+        awaitAll(writes);
+        String hash = payloadEncoder.encode(
+                body.getBytes(StandardCharsets.UTF_8)).getHash();
+        assertEquals(1, (long) await(
+                () -> payloadRepository.count("hash", hash)));
+        assertEquals(BATCH_SIZE, (long) await(() -> historyRepository
+                .count("responsePayload.hash", hash)));
+        Payload payload = await(() -> payloadRepository.findById(hash));
+        assertEquals(body, new String(payloadEncoder.decode(payload),
+                StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void aFailingStepOnlyFailsItsOwnExecution() throws Exception {
+        List<Execution> executions = new ArrayList<>();
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            executions.add(fixtures.execution(workflow, leases.owner()));
+            writes.add(write(executions.get(i), "{\"members\":1}"));
+        }
+        awaitAll(writes);
+
+        // Recording step 1 again breaks the unique index and the batch.
+        CompletableFuture<Void> duplicate = write(executions.get(0), 1,
+                "{\"members\":1}");
+        writes.clear();
+        for (int i = 1; i < BATCH_SIZE; i++) {
+            writes.add(write(executions.get(i), 2, "{\"members\":2}"));
+        }
+        awaitAll(writes);
+        assertThrows(ExecutionException.class,
+                () -> duplicate.get(30, TimeUnit.SECONDS));
+        for (int i = 1; i < BATCH_SIZE; i++) {
+            Execution execution = executions.get(i);
+            assertEquals(2, rows(execution));
+            assertEquals(2, await(() -> executionRepository
+                    .findById(execution.id)).getStepNumber());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package dev.orion.workflows.engine;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import dev.orion.workflows.model.Payload;
+
+class PayloadEncoderTest {
+
+    private final PayloadEncoder encoder = new PayloadEncoder();
+
+    private static byte[] text(final String body) {
+        return body.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void identicalBodiesHaveTheSameHash() {
+        Payload first = encoder.encode(text("{\"members\":1}"));
+        Payload second = encoder.encode(text("{\"members\":1}"));
+        Payload other = encoder.encode(text("{\"members\":2}"));
+        assertEquals(first.getHash(), second.getHash());
+        assertNotEquals(first.getHash(), other.getHash());
+        assertEquals(64, first.getHash().length());
+    }
+
+    @Test
+    void compressibleBodiesRoundTripThroughDeflate() {
+        byte[] body = text("{\"hashUser\":\"0123456789abcdef\"},".repeat(200));
+        Payload payload = encoder.encode(body);
+        assertEquals(Payload.DEFLATE, payload.getEncoding());
+        assertTrue(payload.getData().length < body.length);
+        assertEquals(body.length, payload.getOriginalSize());
+        assertArrayEquals(body, encoder.decode(payload));
+    }
+
+    @Test
+    void incompressibleBodiesAreStoredAsTheyAre() {
+        byte[] body = new byte[64];
+        new Random(64).nextBytes(body);
+        Payload payload = encoder.encode(body);
+        assertEquals(Payload.IDENTITY, payload.getEncoding());
+        assertArrayEquals(body, encoder.decode(payload));
+    }
+
+    @Test
+    void emptyBodiesHaveNoPayload() {
+        assertNull(encoder.encode(new byte[0]));
+        assertEquals(0, encoder.decode(null).length);
+    }
+}
@@ -0,0 +1,88 @@
+package dev.orion.workflows.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import dev.orion.workflows.model.Service;
+
+class ServiceGuardTest {
+
+    private static final Throwable UNAVAILABLE =
+            new ServiceInvocationException("unavailable", 503);
+
+    private ServiceGuard guard(final long openMillis) {
+        Service service = new Service();
+        service.setName("test");
+        return new ServiceGuard(service, 2, 3, openMillis, 1000);
+    }
+
+    private void open(final ServiceGuard guard) {
+        for (int i = 0; i < 3; i++) {
+            guard.exit(guard.enter(), 1_000_000, UNAVAILABLE, false);
+        }
+    }
+
+    @Test
+    void consecutiveFailuresOpenTheBreaker() {
+        ServiceGuard guard = guard(60_000);
+        open(guard);
+        assertEquals(ServiceGuard.State.OPEN, guard.state());
+        assertThrows(ServiceInvocationException.class, guard::enter);
+        assertEquals(1, guard.stats().rejected());
+    }
+
+    @Test
+    void clientErrorsDoNotTripTheBreaker() {
+        ServiceGuard guard = guard(60_000);
+        for (int i = 0; i < 5; i++) {
+            guard.exit(guard.enter(), 1_000_000,
+                    new ServiceInvocationException("bad request", 400), false);
+        }
+        assertEquals(ServiceGuard.State.CLOSED, guard.state());
+        assertEquals(5, guard.stats().failures());
+    }
+
+    @Test
+    void successfulTrialClosesTheBreaker() {
+        ServiceGuard guard = guard(0);
+        open(guard);
+        long trial = guard.enter();
+        assertEquals(ServiceGuard.State.HALF_OPEN, guard.state());
+        guard.exit(trial, 1_000_000, null, false);
+        assertEquals(ServiceGuard.State.CLOSED, guard.state());
+    }
+
+    @Test
+    void callAdmittedBeforeOpeningDoesNotCloseTheBreaker() {
+        ServiceGuard guard = guard(60_000);
+        long stale = guard.enter();
+        open(guard);
+        guard.exit(stale, 1_000_000, null, false);
+        assertEquals(ServiceGuard.State.OPEN, guard.state());
+        assertThrows(ServiceInvocationException.class, guard::enter);
+    }
+
+    @Test
+    void onlyTheTrialClosesAHalfOpenBreaker() {
+        ServiceGuard guard = guard(0);
+        long stale = guard.enter();
+        open(guard);
+        long trial = guard.enter();
+        assertEquals(ServiceGuard.State.HALF_OPEN, guard.state());
+        guard.exit(stale, 1_000_000, null, false);
+        assertEquals(ServiceGuard.State.HALF_OPEN, guard.state());
+        guard.exit(trial, 1_000_000, UNAVAILABLE, false);
+        assertEquals(ServiceGuard.State.OPEN, guard.state());
+    }
+
+    @Test
+    void bulkheadLimitsCallsInFlight() {
+        ServiceGuard guard = guard(60_000);
+        guard.enter();
+        guard.enter();
+        assertThrows(ServiceInvocationException.class, guard::enter);
+        assertEquals(2, guard.stats().inFlight());
+    }
+}
@@ -0,0 +1,87 @@
+package dev.orion.workflows.engine;
+
+import static dev.orion.workflows.Sessions.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import dev.orion.workflows.Fixtures;
+import dev.orion.workflows.model.Execution;
+import dev.orion.workflows.model.ExecutionStatus;
+import dev.orion.workflows.repository.ExecutionRepository;
+import dev.orion.workflows.stub.StubService;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+class SignalRouterTest {
+
+    private static StubService stub;
+
+    @Inject
+    SignalRouter signalRouter;
+
+    @Inject
+    VariableHistory variableHistory;
+
+    @Inject
+    ExecutionRepository executionRepository;
+
+    @Inject
+    Fixtures fixtures;
+
+    @BeforeAll
+    static void startStub() {
+        stub = StubService.start(0, Duration.ZERO, 0);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.close();
+    }
+
+    private int signal(final String hash, final String value)
+            throws Exception {
+        return await(() -> signalRouter.deliver(List.of(new IncomingSignal(
+                hash, "hashUser", TextNode.valueOf(value)))));
+    }
+
+    @Test
+    void signalResumesAWaitingExecution() throws Exception {
+        String hash = fixtures.start(
+                fixtures.publish("join-and-wait.json", stub.port()));
+        fixtures.awaitStatus(hash, ExecutionStatus.WAITING);
+
+        assertEquals(1, signal(hash, "u1"));
+        fixtures.awaitStatus(hash, ExecutionStatus.COMPLETED);
+        VariableSnapshot last = await(() -> variableHistory.at(hash, 5));
+        assertEquals("u1", last.localVariables().path("hashUser").asText());
+    }
+
+    @Test
+    void signalToARunningExecutionIsQueuedWithoutResumingIt()
+            throws Exception {
+        Execution running = fixtures.execution(
+                fixtures.store("join-and-wait.json", stub.port()),
+                "other-node");
+
+        assertEquals(1, signal(running.getHash(), "u1"));
+        Execution after = await(() -> executionRepository
+                .findByHash(running.getHash()));
+        assertEquals(ExecutionStatus.RUNNING, after.getStatus());
+        assertEquals("other-node", after.getOwner());
+    }
+
+    @Test
+    void signalsToUnknownExecutionsAreDropped() throws Exception {
+        assertEquals(0, signal(UUID.randomUUID().toString(), "u1"));
+    }
+}
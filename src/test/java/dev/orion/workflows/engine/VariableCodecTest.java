@@ -0,0 +1,65 @@
+package dev.orion.workflows.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+class VariableCodecTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void valuesAreDecodedWhateverTheFormatTheyWereWrittenIn()
+            throws Exception {
+        JsonNode variables = mapper.readTree("{\"group\":\"a\",\"count\":3,"
+                + "\"users\":[{\"name\":\"x\"},{\"name\":\"y\"}]}");
+        VariableCodec reader = VariableCodec.of(mapper,
+                VariableCodec.Format.JSON);
+        for (VariableCodec.Format format : VariableCodec.Format.values()) {
+            byte[] data = VariableCodec.of(mapper, format).encode(variables);
+            assertEquals(variables, reader.decode(data), format.name());
+            assertEquals(variables, mapper.readTree(reader.toJson(data)),
+                    format.name());
+        }
+    }
+
+    @Test
+    void missingValuesDecodeAsEmptyVariables() {
+        VariableCodec codec = VariableCodec.of(mapper,
+                VariableCodec.Format.SMILE);
+        assertNull(codec.decode(null));
+        assertEquals(0, codec.decodeObject(new byte[0]).size());
+    }
+
+    @Test
+    void binaryFormatsAreSmallerForRepeatedRecords() {
+        // Records with repeated field names, as returned by typical services.
+        Random random = new Random(200);
+        ObjectNode variables = mapper.createObjectNode();
+        ArrayNode users = variables.putArray("users");
+        for (int i = 0; i < 200; i++) {
+            users.addObject()
+                    .put("hashUser", Long.toHexString(random.nextLong()))
+                    .put("members", random.nextInt(100))
+                    .put("score", random.nextDouble())
+                    .put("active", random.nextBoolean());
+        }
+        int json = VariableCodec.of(mapper, VariableCodec.Format.JSON)
+                .encode(variables).length;
+        int smile = VariableCodec.of(mapper, VariableCodec.Format.SMILE)
+                .encode(variables).length;
+        int cbor = VariableCodec.of(mapper, VariableCodec.Format.CBOR)
+                .encode(variables).length;
+        assertTrue(smile < json, "Smile " + smile + ", JSON " + json);
+        assertTrue(cbor < json, "CBOR " + cbor + ", JSON " + json);
+    }
+}
@@ -0,0 +1,49 @@
+package dev.orion.workflows.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+class VariableDeltaTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private ObjectNode json(final String json) throws Exception {
+        return (ObjectNode) mapper.readTree(json);
+    }
+
+    @Test
+    void equalStatesProduceAnEmptyPatch() throws Exception {
+        ObjectNode state = json("{\"hashGroup\":\"a\",\"users\":[1,2]}");
+        assertTrue(VariableDelta.diff(state, state.deepCopy()).isEmpty());
+    }
+
+    @Test
+    void patchRebuildsTheNewState() throws Exception {
+        ObjectNode before = json("{\"hashGroup\":\"a\",\"removed\":1,"
+                + "\"nested\":{\"x\":1,\"y\":2},\"a/b\":0}");
+        ObjectNode after = json("{\"hashGroup\":\"b\",\"added\":[1],"
+                + "\"nested\":{\"x\":1,\"z\":3},\"a/b\":1}");
+
+        ArrayNode patch = VariableDelta.diff(before, after);
+
+        assertEquals(after, VariableDelta.apply(before.deepCopy(), patch));
+    }
+
+    @Test
+    void patchOnlyHoldsTheChangedMembers() throws Exception {
+        ObjectNode before = json("{\"a\":1,\"b\":2}");
+        ObjectNode after = json("{\"a\":1,\"b\":3}");
+
+        ArrayNode patch = VariableDelta.diff(before, after);
+
+        assertEquals(json("{\"op\":\"replace\",\"path\":\"/b\",\"value\":3}"),
+                patch.get(0));
+        assertEquals(1, patch.size());
+    }
+}
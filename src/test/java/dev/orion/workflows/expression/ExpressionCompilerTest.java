@@ -0,0 +1,61 @@
+package dev.orion.workflows.expression;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+class ExpressionCompilerTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private Scope scope(final String json) throws Exception {
+        ObjectNode variables = (ObjectNode) mapper.readTree(json);
+        return variables::get;
+    }
+
+    @Test
+    void bareVariableIsTestedForTruthiness() throws Exception {
+        Expression expression = ExpressionCompiler.compile("approved");
+        assertTrue(expression.test(scope("{\"approved\":true}")));
+        assertFalse(expression.test(scope("{\"approved\":false}")));
+        assertFalse(expression.test(scope("{}")));
+    }
+
+    @Test
+    void operatorsFollowTheirPrecedence() throws Exception {
+        Scope scope = scope("{\"count\":3,\"user\":{\"roles\":[\"admin\"]}}");
+        assertTrue(ExpressionCompiler
+                .compile("$count * 2 + 1 == 7 && $user.roles[0] == 'admin'")
+                .test(scope));
+        assertTrue(ExpressionCompiler
+                .compile("count > 5 or !(count <= 2)").test(scope));
+        assertFalse(ExpressionCompiler
+                .compile("count >= 'a' || count < 'a'").test(scope));
+        assertEquals("n3", ExpressionCompiler.compile("'n' + count")
+                .evaluate(scope));
+    }
+
+    @Test
+    void constantsAreFolded() {
+        Expression expression = ExpressionCompiler.compile("(1 + 2) * 3 > 8");
+        assertEquals(Boolean.TRUE, expression.evaluate(name -> {
+            throw new AssertionError("Constants must not read variables");
+        }));
+    }
+
+    @Test
+    void malformedExpressionsAreRejected() {
+        assertThrows(ExpressionException.class,
+                () -> ExpressionCompiler.compile("count >"));
+        assertThrows(ExpressionException.class,
+                () -> ExpressionCompiler.compile("(count"));
+        assertThrows(ExpressionException.class,
+                () -> ExpressionCompiler.compile("'open"));
+    }
+}
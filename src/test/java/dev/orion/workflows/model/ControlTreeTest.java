@@ -0,0 +1,76 @@
+package dev.orion.workflows.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import dev.orion.workflows.model.control.Go;
+import dev.orion.workflows.model.control.Loop;
+
+class ControlTreeTest {
+
+    private Control control(final String service, final Control... children) {
+        Control control = children.length == 0 ? new Go() : new Loop();
+        control.setService(service);
+        control.setControls(List.of(children));
+        return control;
+    }
+
+    @Test
+    void flattenListsControlsInPreOrder() {
+        Workflow workflow = new Workflow();
+        workflow.setControls(List.of(
+                control("a", control("b", control("c")), control("d")),
+                control("e")));
+
+        List<Control> flat = ControlTree.flatten(workflow);
+
+        assertEquals(List.of("a", "b", "c", "d", "e"),
+                flat.stream().map(Control::getService).toList());
+        assertEquals(List.of(0, 1, 2, 1, 0),
+                flat.stream().map(Control::getDepth).toList());
+        assertEquals(4, flat.get(4).getPosition());
+        assertSame(workflow, flat.get(2).getWorkflow());
+    }
+
+    @Test
+    void assembleRebuildsTheTree() {
+        Workflow workflow = new Workflow();
+        workflow.setControls(List.of(
+                control("a", control("b", control("c")), control("d")),
+                control("e")));
+        List<Control> flat = new ArrayList<>(ControlTree.flatten(workflow));
+
+        List<Control> roots = ControlTree.assemble(flat);
+
+        assertEquals(2, roots.size());
+        Control a = roots.get(0);
+        assertEquals(List.of("b", "d"),
+                a.getControls().stream().map(Control::getService).toList());
+        assertEquals("c", a.getControls().get(0).getControls().get(0)
+                .getService());
+        assertEquals(0, roots.get(1).getControls().size());
+    }
+
+    @Test
+    void deepTreesDoNotRecurse() {
+        Control leaf = control("leaf");
+        Control root = leaf;
+        for (int i = 0; i < 10_000; i++) {
+            root = control("n" + i, root);
+        }
+        Workflow workflow = new Workflow();
+        workflow.setControls(List.of(root));
+
+        List<Control> roots = ControlTree.assemble(
+                ControlTree.flatten(workflow));
+
+        assertEquals(10_000, ControlTree.flatten(workflow).get(10_000)
+                .getDepth());
+        assertEquals(1, roots.size());
+    }
+}
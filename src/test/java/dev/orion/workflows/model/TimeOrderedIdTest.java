@@ -0,0 +1,35 @@
+package dev.orion.workflows.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class TimeOrderedIdTest {
+
+    @Test
+    void identifiersAreVersion7AndOrderedByTime() {
+        UUID earlier = TimeOrderedId.generate(1_700_000_000_000L);
+        UUID later = TimeOrderedId.generate(1_700_000_000_001L);
+
+        assertEquals(7, earlier.version());
+        assertEquals(2, earlier.variant());
+        assertTrue(earlier.toString().compareTo(later.toString()) < 0);
+    }
+
+    @Test
+    void identifiersAreStoredAsSixteenBytes() {
+        UuidConverter converter = new UuidConverter();
+        String id = TimeOrderedId.next();
+
+        byte[] stored = converter.convertToDatabaseColumn(id);
+
+        assertEquals(16, stored.length);
+        assertEquals(id, converter.convertToEntityAttribute(stored));
+        assertEquals(0, converter.convertToDatabaseColumn("unknown").length);
+        assertNull(converter.convertToEntityAttribute(new byte[0]));
+    }
+}
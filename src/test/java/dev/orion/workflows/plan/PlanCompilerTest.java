@@ -0,0 +1,152 @@
+package dev.orion.workflows.plan;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import dev.orion.workflows.model.Control;
+import dev.orion.workflows.model.Service;
+import dev.orion.workflows.model.Workflow;
+import dev.orion.workflows.model.control.Break;
+import dev.orion.workflows.model.control.Continue;
+import dev.orion.workflows.model.control.Go;
+import dev.orion.workflows.model.control.If;
+import dev.orion.workflows.model.control.Loop;
+import dev.orion.workflows.model.control.Parallel;
+import dev.orion.workflows.model.control.Wait;
+import dev.orion.workflows.model.control.WaitInput;
+
+class PlanCompilerTest {
+
+    private Go go(final String service) {
+        Go go = new Go();
+        go.setService(service);
+        return go;
+    }
+
+    private Workflow workflow(final Control... controls) {
+        Workflow workflow = new Workflow();
+        workflow.setName("test");
+        workflow.setControls(List.of(controls));
+        workflow.setServices(List.of(service("a"), service("b"),
+                service("c")));
+        return workflow;
+    }
+
+    private Service service(final String name) {
+        Service service = new Service();
+        service.setName(name);
+        return service;
+    }
+
+    private Parallel parallel(final String join, final Control... branches) {
+        Parallel parallel = new Parallel();
+        parallel.setJoin(join);
+        parallel.setMaxInFlight(2);
+        parallel.setControls(List.of(branches));
+        return parallel;
+    }
+
+    @Test
+    void parallelBranchesFollowTheirFork() {
+        WorkflowPlan plan = PlanCompiler.compile(workflow(
+                parallel("2", go("a"), go("b"), go("c")), go("a")));
+
+        Step fork = plan.step(0);
+        assertEquals(Step.Kind.FORK, fork.getKind());
+        assertEquals(3, fork.branchCount());
+        assertEquals(2, fork.getConcurrency());
+        assertEquals(2, fork.getRequired());
+        assertEquals(7, fork.getJump());
+        for (int branch = 0; branch < 3; branch++) {
+            int start = fork.branch(branch);
+            assertEquals(Step.Kind.CALL, plan.step(start).getKind());
+            assertEquals(Step.Kind.FORK_END, plan.step(start + 1).getKind());
+        }
+        assertEquals(Step.Kind.CALL, plan.step(7).getKind());
+    }
+
+    @Test
+    void invalidJoinsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> PlanCompiler
+                .compile(workflow(parallel("3", go("a"), go("b")))));
+        assertEquals(1, PlanCompiler.compile(workflow(
+                parallel("any", go("a"), go("b")))).step(0).getRequired());
+    }
+
+    @Test
+    void branchesCannotWait() {
+        WaitInput input = new WaitInput();
+        input.setVar("hashUser");
+        input.setInput(WaitInput.EXTERNAL);
+        Wait wait = new Wait();
+        wait.setService("a");
+        wait.setWith(List.of(input));
+
+        assertThrows(IllegalArgumentException.class, () -> PlanCompiler
+                .compile(workflow(parallel(null, wait, go("b")))));
+    }
+
+    private Loop loop(final Control... body) {
+        Loop loop = new Loop();
+        loop.setControls(List.of(body));
+        return loop;
+    }
+
+    private If when(final String expression, final Control control) {
+        If condition = new If();
+        condition.setExpression(expression);
+        condition.setControls(List.of(control));
+        return condition;
+    }
+
+    @Test
+    void breakAndContinueJumpOutOfTheirLoop() {
+        Loop loop = loop(go("a"), when("done", new Break()),
+                when("skip", new Continue()), go("b"));
+        loop.setOver("$items");
+        loop.setHistory("summary");
+        WorkflowPlan plan = PlanCompiler.compile(workflow(loop, go("c")));
+
+        assertEquals(Step.Kind.LOOP_START, plan.step(0).getKind());
+        assertEquals("item", plan.step(0).getVariable());
+        assertEquals(Step.Kind.JUMP, plan.step(3).getKind());
+        assertEquals(8, plan.step(3).getJump());
+        assertEquals(Step.Kind.JUMP, plan.step(5).getKind());
+        assertEquals(7, plan.step(5).getJump());
+        assertEquals(Step.Kind.LOOP_END, plan.step(7).getKind());
+        for (int i = 1; i <= 7; i++) {
+            assertTrue(plan.step(i).isSummarized());
+        }
+        assertFalse(plan.step(8).isSummarized());
+        assertThrows(IllegalArgumentException.class,
+                () -> PlanCompiler.compile(workflow(new Break())));
+    }
+
+    @Test
+    void waitsAreInterruptedByTheSignalOfTheirLoop() {
+        WaitInput input = new WaitInput();
+        input.setVar("hashUser");
+        input.setInput(WaitInput.EXTERNAL);
+        Wait wait = new Wait();
+        wait.setService("a");
+        wait.setWith(List.of(input));
+        Loop loop = loop(wait);
+        loop.setSignal("break");
+        WorkflowPlan plan = PlanCompiler.compile(workflow(loop));
+
+        assertEquals(Integer.MAX_VALUE, plan.step(0).getIterations());
+        assertEquals(List.of("break"), plan.step(1).getInterrupts());
+        assertEquals(4, plan.step(1).exit(0));
+        assertEquals("break", plan.step(3).getSignal());
+
+        loop.setHistory("summary");
+        assertThrows(IllegalArgumentException.class,
+                () -> PlanCompiler.compile(workflow(loop)));
+    }
+}
@@ -0,0 +1,67 @@
+package dev.orion.workflows.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.orion.workflows.model.Workflow;
+
+class WorkflowDigestTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final WorkflowDigest digest = WorkflowDigest.of(mapper);
+
+    private Workflow workflow(final String json) throws Exception {
+        return mapper.readValue(json, Workflow.class);
+    }
+
+    @Test
+    void layoutAndAssignedIdentifiersDoNotChangeTheHash() throws Exception {
+        String a = digest.digest(workflow("{\"name\":\"w\","
+                + "\"services\":[{\"name\":\"s\",\"url\":\"http://s\"}],"
+                + "\"controls\":[{\"type\":\"go\",\"service\":\"s\"}]}"));
+        String b = digest.digest(workflow("{\"controls\":"
+                + "[{\"service\":\"s\",\"type\":\"go\"}],\"name\":\"w\","
+                + "\"services\":[{\"url\":\"http://s\",\"name\":\"s\","
+                + "\"hash\":\"assigned\"}]}"));
+
+        assertEquals(a, b);
+        assertEquals(64, a.length());
+    }
+
+    @Test
+    void differentDefinitionsHaveDifferentHashes() throws Exception {
+        assertNotEquals(
+                digest.digest(workflow("{\"name\":\"w\",\"controls\":"
+                        + "[{\"type\":\"go\",\"service\":\"s\"}]}")),
+                digest.digest(workflow("{\"name\":\"w\",\"controls\":"
+                        + "[{\"type\":\"go\",\"service\":\"t\"}]}")));
+    }
+
+    @Test
+    void controlTypesArePartOfTheHash() throws Exception {
+        assertNotEquals(
+                digest.digest(workflow("{\"name\":\"w\",\"controls\":"
+                        + "[{\"type\":\"go\",\"service\":\"s\"}]}")),
+                digest.digest(workflow("{\"name\":\"w\",\"controls\":"
+                        + "[{\"type\":\"if\",\"service\":\"s\"}]}")));
+    }
+
+    @Test
+    void theVersionIsPartOfTheHashButNotOfTheDigest() throws Exception {
+        Workflow first = workflow("{\"name\":\"w\",\"controls\":"
+                + "[{\"type\":\"go\",\"service\":\"s\"}]}");
+        Workflow second = workflow("{\"name\":\"w\",\"controls\":"
+                + "[{\"type\":\"go\",\"service\":\"s\"}]}");
+        second.setVersion(2);
+
+        String content = digest.digest(first);
+        assertEquals(content, digest.digest(second));
+        assertNotEquals(WorkflowDigest.hash(content, 1),
+                WorkflowDigest.hash(content, 2));
+    }
+}
@@ -0,0 +1,75 @@
+package dev.orion.workflows.repository;
+
+import static dev.orion.workflows.Sessions.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import dev.orion.workflows.Fixtures;
+import dev.orion.workflows.model.Workflow;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+class WorkflowRepositoryTest {
+
+    @Inject
+    WorkflowRepository repository;
+
+    @Inject
+    Fixtures fixtures;
+
+    private Workflow workflow(final String name, final int port)
+            throws Exception {
+        Workflow workflow = fixtures.read("single-call.json", port);
+        workflow.setName(name);
+        return workflow;
+    }
+
+    private Workflow save(final Workflow workflow) throws Exception {
+        return await(() -> repository.save(workflow));
+    }
+
+    @Test
+    void concurrentSavesOfOneNameStoreConsecutiveVersions() throws Exception {
+        String name = fixtures.read("single-call.json", 0).getName();
+        List<Workflow> workflows = List.of(workflow(name, 1),
+                workflow(name, 2));
+        CyclicBarrier barrier = new CyclicBarrier(workflows.size());
+        ExecutorService executor = Executors
+                .newFixedThreadPool(workflows.size());
+        try {
+            List<Future<Workflow>> saves = workflows.stream()
+                    .map(workflow -> executor.submit(() -> {
+                        barrier.await();
+                        return save(workflow);
+                    }))
+                    .toList();
+            Set<Integer> versions = new HashSet<>();
+            for (Future<Workflow> save : saves) {
+                versions.add(save.get(30, TimeUnit.SECONDS).getVersion());
+            }
+            assertEquals(Set.of(1, 2), versions);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void savingTheLatestDefinitionAgainReturnsIt() throws Exception {
+        String name = fixtures.read("single-call.json", 0).getName();
+        Workflow first = save(workflow(name, 1));
+        Workflow second = save(workflow(name, 1));
+        assertEquals(1, second.getVersion());
+        assertEquals(first.getHash(), second.getHash());
+    }
+}
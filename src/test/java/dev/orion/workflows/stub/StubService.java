@@ -0,0 +1,192 @@
+package dev.orion.workflows.stub;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerOptions;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * A local HTTP server standing in for the services of docs/test.json, so
+ * that the benchmarks and the load harness measure the engine rather than
+ * real services. POST /teams/create answers with the hash of a new group
+ * and POST /teams/join with the number of members of the group named by the
+ * hashGroup variable. Every answer is delayed by a fixed latency, and a
+ * fraction of the calls fail with a 503.
+ */
+public final class StubService implements AutoCloseable {
+
+    private final Vertx vertx;
+
+    private final HttpServer server;
+
+    private final long latencyMillis;
+
+    private final double errorRate;
+
+    private final LongAdder calls = new LongAdder();
+
+    private final LongAdder errors = new LongAdder();
+
+    private final Map<String, AtomicInteger> groups =
+            new ConcurrentHashMap<>();
+
+    private StubService(final Vertx vertx, final Duration latency,
+            final double errorRate) {
+        this.vertx = vertx;
+        this.latencyMillis = latency.toMillis();
+        this.errorRate = errorRate;
+        this.server = vertx.createHttpServer(new HttpServerOptions()
+                .setHost("localhost"));
+    }
+
+    /**
+     * Starts a stub.
+     *
+     * @param port      The port to listen on, or zero for any free port.
+     * @param latency   The delay of every answer.
+     * @param errorRate The fraction of the calls that fail, from 0 to 1.
+     * @return The started stub.
+     */
+    public static StubService start(final int port, final Duration latency,
+            final double errorRate) {
+        StubService stub = new StubService(Vertx.vertx(), latency, errorRate);
+        stub.server.requestHandler(stub::handle)
+                .listen(port)
+                .toCompletionStage().toCompletableFuture().join();
+        return stub;
+    }
+
+    /**
+     * Returns the port the stub listens on.
+     *
+     * @return The port.
+     */
+    public int port() {
+        return server.actualPort();
+    }
+
+    /**
+     * Returns the number of calls received so far.
+     *
+     * @return The number of calls.
+     */
+    public long calls() {
+        return calls.sum();
+    }
+
+    /**
+     * Returns the number of calls answered with an error so far.
+     *
+     * @return The number of failed calls.
+     */
+    public long errors() {
+        return errors.sum();
+    }
+
+    /**
+     * Returns a workflow shaped like docs/test.json whose services are this
+     * stub: the creation of a group followed by a number of joins. The joins
+     * do not wait for external inputs, so the workflow runs to its end.
+     *
+     * @param name  The name of the workflow.
+     * @param joins The number of joins.
+     * @return The JSON document of the workflow.
+     */
+    public String workflow(final String name, final int joins) {
+        JsonArray controls = new JsonArray().add(new JsonObject()
+                .put("type", "go").put("service", "Create group"));
+        for (int i = 0; i < joins; i++) {
+            controls.add(new JsonObject()
+                    .put("type", "go").put("service", "Join group"));
+        }
+        return new JsonObject()
+                .put("name", name)
+                .put("controls", controls)
+                .put("services", new JsonArray()
+                        .add(service("Create group", "/teams/create"))
+                        .add(service("Join group", "/teams/join")))
+                .encode();
+    }
+
+    private JsonObject service(final String name, final String path) {
+        return new JsonObject()
+                .put("name", name)
+                .put("url", "http://localhost:" + port() + path)
+                .put("method", "POST")
+                .put("consumes", "application/json")
+                .put("produces", "application/json");
+    }
+
+    private void handle(final HttpServerRequest request) {
+        request.body().onSuccess(body -> {
+            calls.increment();
+            if (latencyMillis > 0) {
+                vertx.setTimer(latencyMillis,
+                        ignored -> respond(request, body));
+            } else {
+                respond(request, body);
+            }
+        });
+    }
+
+    private void respond(final HttpServerRequest request, final Buffer body) {
+        if (errorRate > 0
+                && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            errors.increment();
+            request.response().setStatusCode(503).end();
+            return;
+        }
+        if (request.method() != HttpMethod.POST) {
+            request.response().setStatusCode(405).end();
+            return;
+        }
+        JsonObject answer;
+        switch (request.path()) {
+            case "/teams/create":
+                String hash = UUID.randomUUID().toString();
+                groups.put(hash, new AtomicInteger());
+                answer = new JsonObject().put("hashGroup", hash);
+                break;
+            case "/teams/join":
+                String group = group(body);
+                answer = new JsonObject().put("members", group == null ? 0
+                        : groups.computeIfAbsent(group,
+                                ignored -> new AtomicInteger())
+                                .incrementAndGet());
+                break;
+            default:
+                request.response().setStatusCode(404).end();
+                return;
+        }
+        request.response()
+                .putHeader("Content-Type", "application/json")
+                .end(answer.toBuffer());
+    }
+
+    private static String group(final Buffer body) {
+        try {
+            return body.length() == 0 ? null
+                    : body.toJsonObject().getString("hashGroup");
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void close() {
+        server.close().toCompletionStage().toCompletableFuture().join();
+        vertx.close().toCompletionStage().toCompletableFuture().join();
+    }
+}
@@ -0,0 +1,57 @@
+package dev.orion.workflows.web;
+
+import static io.restassured.RestAssured.given;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.orion.workflows.Fixtures;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+class WorkflowWSTest {
+
+    @Inject
+    Fixtures fixtures;
+
+    @Inject
+    ObjectMapper mapper;
+
+    private void assertRejected(final String resource) throws Exception {
+        String json = fixtures.json(resource, 0);
+        given()
+                .contentType("application/json")
+                .body(json)
+                .when().post("/workflows/store")
+                .then()
+                .statusCode(400);
+        given()
+                .contentType("application/x-www-form-urlencoded")
+                .formParam("name", mapper.readTree(json).get("name").asText())
+                .when().post("/workflows/findByName")
+                .then()
+                .statusCode(204);
+    }
+
+    @Test
+    void workflowsCallingUnknownServicesAreNotStored() throws Exception {
+        assertRejected("unknown-service.json");
+    }
+
+    @Test
+    void workflowsWithInvalidExpressionsAreNotStored() throws Exception {
+        assertRejected("invalid-expression.json");
+    }
+
+    @Test
+    void validWorkflowsAreStored() throws Exception {
+        given()
+                .contentType("application/json")
+                .body(fixtures.json("single-call.json", 0))
+                .when().post("/workflows/store")
+                .then()
+                .statusCode(200);
+    }
+}